@@ -0,0 +1,35 @@
+package com.example.simpleblogapi.aspect;
+
+import com.example.simpleblogapi.metrics.LatencyRecorder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+/**
+ * Замеряет время каждого метода контроллеров, включая завершившиеся
+ * исключением, и отдает его в {@link LatencyRecorder}. Сами исключения
+ * логирует и считает {@code GlobalExceptionHandler}.
+ */
+@Aspect
+@Component
+public class LatencyAspect {
+
+    private final LatencyRecorder latencyRecorder;
+
+    public LatencyAspect(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    @Around("execution(* com.example.simpleblogapi.controllers.*.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            latencyRecorder.record(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    System.nanoTime() - start);
+        }
+    }
+}
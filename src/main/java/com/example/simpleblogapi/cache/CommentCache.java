@@ -0,0 +1,44 @@
+package com.example.simpleblogapi.cache;
+
+import com.example.simpleblogapi.dto.CacheStats;
+import com.example.simpleblogapi.entities.Comment;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш комментариев по id статьи. Вес записи — число комментариев плюс один,
+ * чтобы статьи без комментариев тоже занимали место; суммарный вес
+ * ограничен {@code cache.comments.maximum-weight}.
+ */
+@Component
+public class CommentCache {
+
+    private final TinyLfuCache<Long, List<Comment>> commentsByArticle;
+
+    public CommentCache(@Value("${cache.comments.maximum-weight:10000}") long maximumWeight) {
+        this.commentsByArticle = new TinyLfuCache<>(maximumWeight, 0,
+                comments -> comments.size() + 1, System::nanoTime);
+    }
+
+    /**
+     * Возвращает комментарии статьи из кэша или загружает их; одновременные
+     * промахи по одной статье приводят к единственному запросу к БД.
+     */
+    public List<Comment> getOrLoad(Long articleId, Function<Long, List<Comment>> loader) {
+        return commentsByArticle.get(articleId, id -> List.copyOf(loader.apply(id)));
+    }
+
+    public void invalidate(Long articleId) {
+        commentsByArticle.invalidate(articleId);
+    }
+
+    public void clear() {
+        commentsByArticle.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return commentsByArticle.stats();
+    }
+}
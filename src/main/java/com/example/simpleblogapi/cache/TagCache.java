@@ -1,56 +1,57 @@
 package com.example.simpleblogapi.cache;
 
+import com.example.simpleblogapi.dto.CacheStats;
 import com.example.simpleblogapi.entities.Tag;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.logging.Logger;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Кэш тегов по идентификатору. Размер задается {@code cache.tags.maximum-size},
+ * время жизни записи — {@code cache.tags.expire-after-write-ms} (0 — без
+ * ограничения).
+ */
 @Component
 public class TagCache {
 
-    private static final int MAX_CACHE_SIZE = 100;
+    private final TinyLfuCache<Long, Tag> tagEntityCache;
 
-    private static final Logger logger = Logger.getLogger(TagCache.class.getName());
-
-    private final Map<Long, Tag> tagEntityCache = new LinkedHashMap<>(MAX_CACHE_SIZE, 0.75f, true) {
+    public TagCache(@Value("${cache.tags.maximum-size:1000}") long maximumSize,
+                    @Value("${cache.tags.expire-after-write-ms:0}") long expireAfterWriteMs) {
+        this.tagEntityCache = new TinyLfuCache<>(maximumSize,
+                TimeUnit.MILLISECONDS.toNanos(expireAfterWriteMs));
+    }
 
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<Long, Tag> eldest) {
-            boolean remove = super.size() > MAX_CACHE_SIZE;
-            if (remove) {
-                logger.info("Removed eldest entry: " + eldest.getKey() + " from cache.");
-            }
-            return remove;
-        }
-    };
+    /**
+     * Возвращает тег из кэша или загружает его; одновременные промахи по
+     * одному id приводят к единственной загрузке.
+     */
+    public Tag getOrLoad(Long id, Function<Long, Tag> loader) {
+        return tagEntityCache.get(id, loader);
+    }
 
     public Tag getTag(Long id) {
-        return tagEntityCache.get(id);
+        return tagEntityCache.getIfPresent(id);
     }
 
     public void putTag(Long id, Tag tag) {
         tagEntityCache.put(id, tag);
     }
 
-    public boolean contains(Long id) {
-        return tagEntityCache.containsKey(id);
-    }
-
     public void removeTag(Long id) {
-        tagEntityCache.remove(id);
+        tagEntityCache.invalidate(id);
     }
 
     public void clear() {
-        tagEntityCache.clear();
+        tagEntityCache.invalidateAll();
     }
 
-    public int size() {
-        return tagEntityCache.size();
+    public long size() {
+        return tagEntityCache.estimatedSize();
     }
 
-    public void printCache() {
-        tagEntityCache.forEach((key, value) ->
-                logger.info("Key: " + key + ", Tag: " + value));
+    public CacheStats stats() {
+        return tagEntityCache.stats();
     }
 }
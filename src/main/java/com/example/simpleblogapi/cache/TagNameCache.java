@@ -0,0 +1,136 @@
+package com.example.simpleblogapi.cache;
+
+import com.example.simpleblogapi.dto.CacheStats;
+import com.example.simpleblogapi.entities.Tag;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш тегов по имени без учета регистра. Промахи загружаются одним пакетом
+ * на вызов; если то же имя уже загружает другой поток, вызов ждет его
+ * результата вместо повторного запроса к БД.
+ */
+@Component
+public class TagNameCache {
+
+    private final TinyLfuCache<String, Tag> tagsByName;
+    private final Map<String, CompletableFuture<Tag>> inFlight = new ConcurrentHashMap<>();
+
+    public TagNameCache(@Value("${cache.tag-names.maximum-size:10000}") long maximumSize) {
+        this.tagsByName = new TinyLfuCache<>(maximumSize, 0);
+    }
+
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Возвращает теги для всех имен, ключом служит нормализованное имя.
+     * {@code loader} получает имена, которых нет ни в кэше, ни в загрузке у
+     * других потоков, и должен вернуть по тегу на каждое из них.
+     */
+    public Map<String, Tag> resolve(Collection<String> names,
+                                    Function<Collection<String>, List<Tag>> loader) {
+        Map<String, Tag> resolved = new HashMap<>();
+        Map<String, String> toLoad = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Tag>> owned = new HashMap<>();
+        Map<String, CompletableFuture<Tag>> awaited = new HashMap<>();
+        for (String name : names) {
+            String key = normalize(name);
+            if (resolved.containsKey(key) || owned.containsKey(key) || awaited.containsKey(key)) {
+                continue;
+            }
+            Tag cached = tagsByName.getIfPresent(key);
+            if (cached != null) {
+                resolved.put(key, cached);
+                continue;
+            }
+            CompletableFuture<Tag> future = new CompletableFuture<>();
+            CompletableFuture<Tag> other = inFlight.putIfAbsent(key, future);
+            if (other != null) {
+                awaited.put(key, other);
+            } else {
+                owned.put(key, future);
+                toLoad.put(key, name.trim());
+            }
+        }
+
+        // Сначала загружаем свои имена и только потом ждем чужие, поэтому
+        // потоки не могут ждать друг друга по кругу.
+        if (!owned.isEmpty()) {
+            load(toLoad, owned, resolved, loader);
+        }
+        for (Map.Entry<String, CompletableFuture<Tag>> entry : awaited.entrySet()) {
+            resolved.put(entry.getKey(), join(entry.getValue()));
+        }
+        return resolved;
+    }
+
+    public void put(Tag tag) {
+        tagsByName.put(normalize(tag.getName()), tag);
+    }
+
+    public void invalidate(String name) {
+        tagsByName.invalidate(normalize(name));
+    }
+
+    public void clear() {
+        tagsByName.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return tagsByName.stats();
+    }
+
+    private void load(Map<String, String> toLoad, Map<String, CompletableFuture<Tag>> owned,
+                      Map<String, Tag> resolved,
+                      Function<Collection<String>, List<Tag>> loader) {
+        try {
+            Map<String, Tag> loaded = new HashMap<>();
+            for (Tag tag : loader.apply(new ArrayList<>(toLoad.values()))) {
+                loaded.put(normalize(tag.getName()), tag);
+            }
+            for (Map.Entry<String, CompletableFuture<Tag>> entry : owned.entrySet()) {
+                Tag tag = loaded.get(entry.getKey());
+                if (tag == null) {
+                    IllegalStateException ex = new IllegalStateException(
+                            "Tag was not resolved: " + toLoad.get(entry.getKey()));
+                    entry.getValue().completeExceptionally(ex);
+                    throw ex;
+                }
+                tagsByName.put(entry.getKey(), tag);
+                resolved.put(entry.getKey(), tag);
+                entry.getValue().complete(tag);
+            }
+        } catch (RuntimeException ex) {
+            for (CompletableFuture<Tag> future : owned.values()) {
+                future.completeExceptionally(ex);
+            }
+            throw ex;
+        } finally {
+            owned.forEach(inFlight::remove);
+        }
+    }
+
+    private static Tag join(CompletableFuture<Tag> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package com.example.simpleblogapi.cache;
+
+import com.example.simpleblogapi.dto.CacheStats;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Потокобезопасный ограниченный кэш с политикой W-TinyLFU.
+ *
+ * <p>Значения лежат в {@link ConcurrentHashMap}, поэтому чтение не берет
+ * блокировок: обращение лишь записывается в кольцевой буфер, который
+ * разбирается под блокировкой политики при следующей записи или когда
+ * блокировка свободна. Новые записи попадают в небольшое LRU-окно
+ * (1% емкости); вытесненный из окна кандидат допускается в основную
+ * сегментированную LRU-область, только если по {@link FrequencySketch}
+ * он встречался чаще, чем жертва из ее хвоста. Так разовые обращения не
+ * вымывают из кэша действительно популярные записи.
+ *
+ * <p>Размер задается суммарным весом записей (по умолчанию вес записи — 1);
+ * при {@code expireAfterWriteNanos > 0} записи устаревают через заданное
+ * время после загрузки.
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final double WINDOW_PERCENT = 0.01;
+    private static final double PROTECTED_PERCENT = 0.8;
+
+    private final Map<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long expireAfterWriteNanos;
+    private final ToIntFunction<V> weigher;
+    private final LongSupplier ticker;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessQueue<K, V> window = new AccessQueue<>(Segment.WINDOW);
+    private final AccessQueue<K, V> probation = new AccessQueue<>(Segment.PROBATION);
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>(Segment.PROTECTED);
+
+    private final AtomicReferenceArray<Node<K, V>> readBuffer =
+            new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readWriteIndex = new AtomicLong();
+    private volatile long readReadIndex;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    public TinyLfuCache(long maximumWeight, long expireAfterWriteNanos) {
+        this(maximumWeight, expireAfterWriteNanos, value -> 1, System::nanoTime);
+    }
+
+    public TinyLfuCache(long maximumWeight, long expireAfterWriteNanos,
+                        ToIntFunction<V> weigher, LongSupplier ticker) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive");
+        }
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_PERCENT));
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_PERCENT);
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.weigher = weigher;
+        this.ticker = ticker;
+        this.sketch = new FrequencySketch(maximumWeight);
+    }
+
+    /**
+     * Возвращает значение из кэша или null, не загружая его.
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null || isExpired(node, ticker.getAsLong())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    /**
+     * Возвращает значение из кэша, а при промахе атомарно загружает его:
+     * одновременные запросы одного ключа ждут единственной загрузки.
+     * Исключение загрузчика пробрасывается вызывающему, null не кэшируется.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Node<K, V> node = data.get(key);
+        long now = ticker.getAsLong();
+        if (node != null && !isExpired(node, now)) {
+            hits.increment();
+            afterRead(node);
+            return node.value;
+        }
+
+        boolean[] loaded = new boolean[1];
+        Object[] replaced = new Object[1];
+        Node<K, V> result = data.compute(key, (k, existing) -> {
+            if (existing != null && !isExpired(existing, ticker.getAsLong())) {
+                return existing;
+            }
+            loaded[0] = true;
+            replaced[0] = existing;
+            long start = ticker.getAsLong();
+            V value;
+            try {
+                value = loader.apply(k);
+            } catch (RuntimeException | Error ex) {
+                loadFailures.increment();
+                totalLoadTime.add(ticker.getAsLong() - start);
+                throw ex;
+            }
+            long end = ticker.getAsLong();
+            totalLoadTime.add(end - start);
+            if (value == null) {
+                loadFailures.increment();
+                return null;
+            }
+            loadSuccesses.increment();
+            return new Node<>(k, value, weigher.applyAsInt(value), end);
+        });
+
+        if (!loaded[0]) {
+            hits.increment();
+            if (result != null) {
+                afterRead(result);
+            }
+            return result != null ? result.value : null;
+        }
+        misses.increment();
+        @SuppressWarnings("unchecked")
+        Node<K, V> expired = (Node<K, V>) replaced[0];
+        if (result == null) {
+            afterRemove(expired);
+            return null;
+        }
+        afterWrite(result, expired);
+        return result.value;
+    }
+
+    public void put(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, weigher.applyAsInt(value), ticker.getAsLong());
+        Node<K, V> previous = data.put(key, node);
+        afterWrite(node, previous);
+    }
+
+    public void invalidate(K key) {
+        afterRemove(data.remove(key));
+    }
+
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    unlink(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    public CacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        long loadCount = loadSuccesses.sum() + loadFailures.sum();
+        long weightedSize;
+        evictionLock.lock();
+        try {
+            weightedSize = window.weight + probation.weight + protectedQueue.weight;
+        } finally {
+            evictionLock.unlock();
+        }
+        return new CacheStats(
+                hitCount,
+                missCount,
+                requests == 0 ? 1.0 : (double) hitCount / requests,
+                evictions.sum(),
+                loadSuccesses.sum(),
+                loadFailures.sum(),
+                loadCount == 0 ? 0.0 : totalLoadTime.sum() / 1_000_000.0 / loadCount,
+                data.size(),
+                weightedSize,
+                maximumWeight);
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos;
+    }
+
+    // Буфер с потерями: при переполнении обращение просто не учитывается.
+    private void afterRead(Node<K, V> node) {
+        long index = readWriteIndex.get();
+        if (index - readReadIndex < READ_BUFFER_SIZE
+                && readWriteIndex.compareAndSet(index, index + 1)) {
+            readBuffer.lazySet((int) (index & READ_BUFFER_MASK), node);
+        }
+        if (index - readReadIndex >= READ_BUFFER_SIZE / 2 && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void afterWrite(Node<K, V> node, Node<K, V> replaced) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (replaced != null) {
+                unlink(replaced);
+            }
+            // Запись могла быть удалена другим потоком до того, как мы взяли блокировку.
+            if (data.get(node.key) != node) {
+                return;
+            }
+            if (node.weight > maximumWeight) {
+                data.remove(node.key, node);
+                evictions.increment();
+                return;
+            }
+            sketch.increment(node.key);
+            window.addLast(node);
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void afterRemove(Node<K, V> node) {
+        if (node == null) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void drainReadBuffer() {
+        long read = readReadIndex;
+        long write = readWriteIndex.get();
+        while (read < write) {
+            int slot = (int) (read & READ_BUFFER_MASK);
+            Node<K, V> node = readBuffer.get(slot);
+            if (node == null) {
+                break;
+            }
+            readBuffer.lazySet(slot, null);
+            onAccess(node);
+            read++;
+        }
+        readReadIndex = read;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key);
+        if (node.segment == null) {
+            return;
+        }
+        switch (node.segment) {
+            case WINDOW -> window.moveToEnd(node);
+            case PROBATION -> {
+                probation.remove(node);
+                protectedQueue.addLast(node);
+                while (protectedQueue.weight > protectedMaximum) {
+                    Node<K, V> demoted = protectedQueue.pollFirst();
+                    probation.addLast(demoted);
+                }
+            }
+            case PROTECTED -> protectedQueue.moveToEnd(node);
+            default -> throw new IllegalStateException("Unknown segment: " + node.segment);
+        }
+    }
+
+    /**
+     * Переносит хвост окна в основную область и, пока кэш переполнен,
+     * сравнивает частоту кандидата из окна с жертвой из хвоста основной
+     * области; вытесняется менее частый из двух.
+     */
+    private void evict() {
+        while (window.weight > windowMaximum && window.first() != null) {
+            probation.addLast(window.pollFirst());
+        }
+        while (totalWeight() > maximumWeight) {
+            Node<K, V> candidate = probation.last();
+            Node<K, V> victim = probation.first();
+            if (victim == null) {
+                victim = protectedQueue.first();
+            }
+            if (victim == null) {
+                victim = window.first();
+            }
+            if (candidate != null && candidate != victim
+                    && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                victim = candidate;
+            }
+            unlink(victim);
+            data.remove(victim.key, victim);
+            evictions.increment();
+        }
+    }
+
+    private long totalWeight() {
+        return window.weight + probation.weight + protectedQueue.weight;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.segment == null) {
+            return;
+        }
+        switch (node.segment) {
+            case WINDOW -> window.remove(node);
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> protectedQueue.remove(node);
+            default -> throw new IllegalStateException("Unknown segment: " + node.segment);
+        }
+    }
+
+    private enum Segment {
+        WINDOW,
+        PROBATION,
+        PROTECTED
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final int weight;
+        private final long writeTime;
+        private Segment segment;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value, int weight, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * Двусвязная очередь в порядке обращений: голова — давно не
+     * использованные записи, хвост — недавние.
+     */
+    private static final class AccessQueue<K, V> {
+        private final Segment segment;
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        private long weight;
+
+        private AccessQueue(Segment segment) {
+            this.segment = segment;
+        }
+
+        private Node<K, V> first() {
+            return head;
+        }
+
+        private Node<K, V> last() {
+            return tail;
+        }
+
+        private void addLast(Node<K, V> node) {
+            node.segment = segment;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            weight += node.weight;
+        }
+
+        private Node<K, V> pollFirst() {
+            Node<K, V> node = head;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        private void moveToEnd(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        private void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.segment = null;
+            weight -= node.weight;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.simpleblogapi.config;
+
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Статьи, созданные до перехода на последовательность, получили id из
+ * IDENTITY-колонки. Перед приемом запросов последовательность сдвигается
+ * за них, чтобы новые id не пересеклись со старыми.
+ */
+@Component
+public class ArticleIdSequenceInitializer implements SmartInitializingSingleton {
+
+    private final ArticleRepository articleRepository;
+
+    public ArticleIdSequenceInitializer(ArticleRepository articleRepository) {
+        this.articleRepository = articleRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        articleRepository.alignIdSequence();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.simpleblogapi.config;
+
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Число комментариев хранится в статье, чтобы списки статей не обращались к
+ * таблице comments. Счетчик поддерживают триггеры БД; они создаются при
+ * старте вместе с пересчетом счетчиков строк, появившихся до них.
+ */
+@Component
+public class CommentCountInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentCountInitializer.class);
+
+    private final ArticleRepository articleRepository;
+
+    public CommentCountInitializer(ArticleRepository articleRepository) {
+        this.articleRepository = articleRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int fixed = articleRepository.installCommentCountTriggers();
+        if (fixed > 0) {
+            logger.info("Comment counts recalculated for {} articles", fixed);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.simpleblogapi.config;
+
+import com.example.simpleblogapi.logs.JsonLogEncoder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Присваивает запросу идентификатор для сквозного поиска его записей в
+ * логе: берет корректный {@code X-Request-Id} клиента или создает свой,
+ * кладет его в MDC на время обработки и возвращает в ответе.
+ *
+ * <p>Свой идентификатор — случайный префикс процесса и номер запроса, так
+ * что он уникален между перезапусками и не требует SecureRandom на каждый
+ * запрос, как {@link java.util.UUID#randomUUID()}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    private static final int MAX_LENGTH = 64;
+
+    private final String prefix = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16) + "-";
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String correlationId = request.getHeader(HEADER);
+        if (!isValid(correlationId)) {
+            correlationId = prefix + Long.toHexString(sequence.incrementAndGet());
+        }
+        response.setHeader(HEADER, correlationId);
+        MDC.put(JsonLogEncoder.CORRELATION_ID, correlationId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(JsonLogEncoder.CORRELATION_ID);
+        }
+    }
+
+    // Чужой идентификатор попадает в лог, поэтому допускаются только безопасные символы.
+    private static boolean isValid(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                    || c == '-' || c == '_' || c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.simpleblogapi.config;
+
+import com.example.simpleblogapi.repositories.TagRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Теги разрешаются по имени без учета регистра, а защиту от параллельного
+ * создания "Java" и "java" дает уникальный функциональный индекс по
+ * {@code lower(name)}. Его создание требует слияния уже существующих
+ * дубликатов, поэтому выполняется явно через
+ * {@code POST /tags/maintenance/merge-case-duplicates}; при старте только
+ * проверяется, что индекс есть.
+ */
+@Component
+public class TagNameIndexInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagNameIndexInitializer.class);
+
+    private final TagRepository tagRepository;
+
+    public TagNameIndexInitializer(TagRepository tagRepository) {
+        this.tagRepository = tagRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!tagRepository.hasLowerNameUniqueIndex()) {
+            logger.warn("Unique index uk_tags_lower_name on tags(lower(name)) is missing:"
+                    + " tags differing only in case can be created concurrently."
+                    + " Review POST /tags/maintenance/merge-case-duplicates?dryRun=true"
+                    + " and run it with dryRun=false to merge them and create the index.");
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package com.example.simpleblogapi.controllers;
 
+import com.example.simpleblogapi.dto.ArticleDetail;
+import com.example.simpleblogapi.dto.ArticlePage;
+import com.example.simpleblogapi.dto.ArticleSearchPage;
+import com.example.simpleblogapi.dto.ArticleSummary;
+import com.example.simpleblogapi.dto.ImportJobStatus;
+import com.example.simpleblogapi.dto.ReactionCounts;
 import com.example.simpleblogapi.entities.Article;
 import com.example.simpleblogapi.entities.Tag;
+import com.example.simpleblogapi.enums.ExportFormat;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.service.ArticleExportService;
+import com.example.simpleblogapi.service.ArticleImportService;
+import com.example.simpleblogapi.service.ArticleReactionService;
 import com.example.simpleblogapi.service.ArticleService;
+import com.example.simpleblogapi.service.ArticleStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -10,8 +22,16 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,6 +42,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @CrossOrigin(origins = "http://localhost:3000")
 @RestController
@@ -29,9 +50,21 @@ import org.springframework.web.bind.annotation.RestController;
 public class ArticleController {
 
     private final ArticleService articleService;
+    private final ArticleReactionService articleReactionService;
+    private final ArticleStreamService articleStreamService;
+    private final ArticleImportService articleImportService;
+    private final ArticleExportService articleExportService;
 
-    public ArticleController(ArticleService articleService) {
+    public ArticleController(ArticleService articleService,
+                             ArticleReactionService articleReactionService,
+                             ArticleStreamService articleStreamService,
+                             ArticleImportService articleImportService,
+                             ArticleExportService articleExportService) {
         this.articleService = articleService;
+        this.articleReactionService = articleReactionService;
+        this.articleStreamService = articleStreamService;
+        this.articleImportService = articleImportService;
+        this.articleExportService = articleExportService;
     }
 
     @Operation(
@@ -66,6 +99,48 @@ public class ArticleController {
         return articleService.bulkCreateArticles(articles);
     }
 
+    @Operation(
+            summary = "Запуск фонового импорта статей",
+            description = "Принимает статьи в формате NDJSON (по одной статье в строке)"
+                    + " или JSON-массивом и импортирует их в фоне пачками."
+                    + " Возвращает ID задачи, по которому можно узнать ход импорта."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Задача импорта поставлена в очередь"),
+        @ApiResponse(responseCode = "503", description = "Очередь задач импорта заполнена",
+                content = @Content)
+    })
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Long> importArticles(InputStream body) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(articleImportService.startImport(body));
+    }
+
+    @Operation(
+            summary = "Получение статуса импорта",
+            description = "Возвращает статус задачи импорта: количество прочитанных,"
+                    + " сохраненных и отклоненных строк и ошибки по номерам строк."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Статус задачи успешно получен"),
+        @ApiResponse(responseCode = "404", description =
+                "Задача с указанным ID не найдена", content = @Content)
+    })
+    @GetMapping("/import/{taskId}/status")
+    public ResponseEntity<ImportJobStatus> getImportStatus(
+            @Parameter(
+                    in = ParameterIn.PATH,
+                    description = "Уникальный идентификатор задачи импорта",
+                    required = true
+            ) @PathVariable Long taskId) {
+        ImportJobStatus status = articleImportService.getStatus(taskId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
     @Operation(
             summary = "Получение статьи по ID",
             description = "Возвращает статью, найденную по уникальному идентификатору."
@@ -76,13 +151,13 @@ public class ArticleController {
         @ApiResponse(responseCode = "404", description = "Статья не найдена", content = @Content)
     })
     @GetMapping("/{id}")
-    public Article getArticleById(
+    public ArticleDetail getArticleById(
             @Parameter(
                     in = ParameterIn.PATH,
                     description = "Уникальный идентификатор статьи",
                     required = true
             ) @PathVariable Long id) {
-        return articleService.getArticleById(id);
+        return articleService.getArticleDetail(id);
     }
 
     @Operation(
@@ -98,6 +173,95 @@ public class ArticleController {
         return articleService.getAllArticles();
     }
 
+    @Operation(
+            summary = "Постраничное получение статей",
+            description = "Возвращает страницу кратких описаний статей (начало текста,"
+                    + " счетчики реакций и имена тегов), упорядоченных от новых к старым."
+                    + " Для получения следующей страницы передайте значение nextCursor"
+                    + " из предыдущего ответа. Если nextCursor равен null, страниц больше нет."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Страница статей успешно получена"),
+        @ApiResponse(responseCode = "400", description =
+                "Некорректный курсор или размер страницы", content = @Content)
+    })
+    @GetMapping("/page")
+    public ArticlePage<ArticleSummary> getArticlesPage(
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Курсор, полученный в предыдущем ответе"
+            ) @RequestParam(required = false) String cursor,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Количество статей на странице (от 1 до 100)"
+            ) @RequestParam(defaultValue = "20") int size) {
+        return articleService.getArticlesPage(cursor, size);
+    }
+
+    @Operation(
+            summary = "Потоковая выгрузка всех статей",
+            description = "Передает краткие представления всех статей (начало текста, число"
+                    + " комментариев, теги) в формате NDJSON по одной статье в строке по мере"
+                    + " чтения из базы данных, не загружая таблицу целиком в память."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Выгрузка статей начата")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllArticles() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(articleStreamService::writeAllArticles);
+    }
+
+    @Operation(
+            summary = "Полная выгрузка статей с тегами и комментариями",
+            description = "Передает все статьи вместе с тегами и комментариями одним"
+                    + " упорядоченным проходом по базе данных. Формат ndjson выдает по"
+                    + " одной статье в строке с вложенными tags и comments, формат csv —"
+                    + " плоскую таблицу, где каждая строка описывает статью, тег или"
+                    + " комментарий (колонка record_type). С параметром gzip=true"
+                    + " выгрузка сжимается на лету."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Выгрузка начата"),
+        @ApiResponse(responseCode = "400", description = "Неизвестный формат выгрузки",
+                content = @Content)
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportArticles(
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Формат выгрузки: ndjson или csv"
+            ) @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Сжимать выгрузку в gzip"
+            ) @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = parseExportFormat(format);
+        String extension = exportFormat.name().toLowerCase(Locale.ROOT);
+        MediaType contentType = exportFormat == ExportFormat.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        if (gzip) {
+            contentType = new MediaType("application", "gzip");
+            extension += ".gz";
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=articles-export." + extension)
+                .body(out -> articleExportService.export(exportFormat, gzip, out));
+    }
+
+    private static ExportFormat parseExportFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidInputException("Неизвестный формат выгрузки: " + format);
+        }
+    }
+
     @Operation(
             summary = "Получение статей по тегу",
             description = "Возвращает список статей, содержащих указанный тег."
@@ -119,6 +283,44 @@ public class ArticleController {
         return articleService.getArticlesByTagName(tagName);
     }
 
+    @Operation(
+            summary = "Поиск статей по нескольким тегам",
+            description = "Возвращает страницу статей, у которых есть все теги из all,"
+                    + " хотя бы один тег из any и нет ни одного тега из none."
+                    + " Списки тегов передаются через запятую, например"
+                    + " /articles/by-tags?all=java,spring&none=draft."
+                    + " Поиск выполняется по индексу тегов в памяти."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Статьи успешно получены"),
+        @ApiResponse(responseCode = "400", description =
+                "Некорректный номер или размер страницы", content = @Content)
+    })
+    @GetMapping("/by-tags")
+    public ArticleSearchPage searchArticlesByTags(
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Теги, которые должны быть у статьи все одновременно"
+            ) @RequestParam(defaultValue = "") List<String> all,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Теги, хотя бы один из которых должен быть у статьи"
+            ) @RequestParam(defaultValue = "") List<String> any,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Теги, которых не должно быть у статьи"
+            ) @RequestParam(defaultValue = "") List<String> none,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Номер страницы, начиная с 0"
+            ) @RequestParam(defaultValue = "0") int page,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Количество статей на странице (от 1 до 100)"
+            ) @RequestParam(defaultValue = "20") int size) {
+        return articleService.searchByTags(all, any, none, page, size);
+    }
+
     @Operation(
             summary = "Удаление статьи",
             description = "Удаляет статью из системы по её уникальному идентификатору."
@@ -197,18 +399,20 @@ public class ArticleController {
                     + " Эта операция позволяет пользователям выразить своё одобрение контента."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Лайк успешно добавлен"),
+        @ApiResponse(responseCode = "200", description = "Лайк успешно добавлен, возвращены новые значения счетчиков"),
         @ApiResponse(responseCode = "404", description = "Статья не найдена",
+                content = @Content),
+        @ApiResponse(responseCode = "503", description = "Реакция не применена за время ожидания",
                 content = @Content)
     })
     @PostMapping("/{id}/like")
-    public Article likeArticle(
+    public ReactionCounts likeArticle(
             @Parameter(
                     in = ParameterIn.PATH,
                     description = "Уникальный идентификатор статьи для добавления лайка",
                     required = true
             ) @PathVariable Long id) {
-        return articleService.likeArticle(id);
+        return articleReactionService.likeArticle(id);
     }
 
     @Operation(
@@ -218,18 +422,20 @@ public class ArticleController {
                     + " Этот эндпоинт позволяет пользователям выразить несогласие с контентом."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Дизлайк успешно добавлен"),
+        @ApiResponse(responseCode = "200", description = "Дизлайк успешно добавлен, возвращены новые значения счетчиков"),
         @ApiResponse(responseCode = "404", description = "Статья не найдена",
+                content = @Content),
+        @ApiResponse(responseCode = "503", description = "Реакция не применена за время ожидания",
                 content = @Content)
     })
     @PostMapping("/{id}/dislike")
-    public Article dislikeArticle(
+    public ReactionCounts dislikeArticle(
             @Parameter(
                     in = ParameterIn.PATH,
                     description = "Уникальный идентификатор статьи для добавления дизлайка",
                     required = true
             ) @PathVariable Long id) {
-        return articleService.dislikeArticle(id);
+        return articleReactionService.dislikeArticle(id);
     }
 
     @Operation(
@@ -240,18 +446,20 @@ public class ArticleController {
                     + " количества лайков в случае ошибки."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Лайк успешно удалён"),
+        @ApiResponse(responseCode = "200", description = "Лайк успешно удалён, возвращены новые значения счетчиков"),
         @ApiResponse(responseCode = "404", description = "Статья не найдена",
+                content = @Content),
+        @ApiResponse(responseCode = "503", description = "Реакция не применена за время ожидания",
                 content = @Content)
     })
     @DeleteMapping("/{id}/like")
-    public Article removeLike(
+    public ReactionCounts removeLike(
             @Parameter(
                     in = ParameterIn.PATH,
                     description = "Уникальный идентификатор статьи для удаления лайка",
                     required = true
             ) @PathVariable Long id) {
-        return articleService.removeLike(id);
+        return articleReactionService.removeLike(id);
     }
 
     @Operation(
@@ -261,18 +469,20 @@ public class ArticleController {
                     + " Данный эндпоинт позволяет скорректировать рейтинг статьи."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Дизлайк успешно удалён"),
+        @ApiResponse(responseCode = "200", description = "Дизлайк успешно удалён, возвращены новые значения счетчиков"),
         @ApiResponse(responseCode = "404", description = "Статья не найдена",
+                content = @Content),
+        @ApiResponse(responseCode = "503", description = "Реакция не применена за время ожидания",
                 content = @Content)
     })
     @DeleteMapping("/{id}/dislike")
-    public Article removeDislike(
+    public ReactionCounts removeDislike(
             @Parameter(
                     in = ParameterIn.PATH,
                     description = "Уникальный идентификатор статьи для удаления дизлайка",
                     required = true
             ) @PathVariable Long id) {
-        return articleService.removeDislike(id);
+        return articleReactionService.removeDislike(id);
     }
 
     @Operation(
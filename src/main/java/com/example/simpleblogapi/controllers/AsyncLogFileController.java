@@ -1,5 +1,8 @@
 package com.example.simpleblogapi.controllers;
 
+import com.example.simpleblogapi.dto.LogTaskEngineStats;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.logs.LogArtifact;
 import com.example.simpleblogapi.service.AsyncLogFileService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -7,17 +10,22 @@ import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -34,10 +42,14 @@ public class AsyncLogFileController {
             summary = "Запуск асинхронного создания лог-файла",
             description = "Запускает асинхронную задачу по созданию "
                     + "лог-файла для указанной даты и возвращает ID задачи."
+                    + " Если задача за эту дату уже в очереди, выполняется или"
+                    + " завершилась успешно, возвращается ее ID."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "ID задачи успешно получен"),
-        @ApiResponse(responseCode = "400", description = "Неверный формат даты", content = @Content)
+        @ApiResponse(responseCode = "400", description = "Неверный формат даты", content = @Content),
+        @ApiResponse(responseCode = "503", description =
+                "Очередь задач заполнена, запрос нужно повторить позже", content = @Content)
     })
     @PostMapping("/generate")
     public ResponseEntity<Long> generateLogFile(
@@ -74,31 +86,99 @@ public class AsyncLogFileController {
         return ResponseEntity.ok(status.toString());
     }
 
+    @Operation(
+            summary = "Поток прогресса задачи",
+            description = "Открывает поток Server-Sent Events: сразу приходит текущее"
+                    + " состояние задачи, затем события progress с числом прочитанных"
+                    + " байт из общего объема и найденных строк, и в конце событие"
+                    + " finished с итоговым статусом, после которого поток закрывается."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Поток открыт"),
+        @ApiResponse(responseCode = "404", description =
+                "Задача с указанным ID не найдена", content = @Content)
+    })
+    @GetMapping(value = "/{taskId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamTaskEvents(
+            @Parameter(
+                    in = ParameterIn.PATH,
+                    description = "Уникальный идентификатор задачи",
+                    required = true
+            ) @PathVariable Long taskId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(asyncLogFileService.subscribe(taskId));
+    }
+
     @Operation(
             summary = "Получение сгенерированного лог-файла",
             description = "Возвращает сгенерированный лог-файл"
                     + " для задачи с указанным ID, если задача завершена."
+                    + " При Accept-Encoding: gzip отдается его сжатая копия."
+                    + " Поддерживается заголовок Range (один диапазон байт) для докачки."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Файл успешно получен"),
+        @ApiResponse(responseCode = "206", description =
+                "Запрошенный диапазон байт файла", content = @Content),
         @ApiResponse(responseCode = "404", description =
-                "Файл не найден или задача не завершена", content = @Content)
+                "Файл не найден или задача не завершена", content = @Content),
+        @ApiResponse(responseCode = "416", description =
+                "Диапазон байт за пределами файла", content = @Content)
     })
     @GetMapping("/{taskId}/file")
-    public ResponseEntity<Object> getLogFile(
+    public ResponseEntity<StreamingResponseBody> getLogFile(
             @Parameter(
                     in = ParameterIn.PATH,
                     description = "Уникальный идентификатор задачи",
                     required = true
-            ) @PathVariable Long taskId) {
+            ) @PathVariable Long taskId,
+            HttpServletRequest request) throws IOException {
         var file = asyncLogFileService.getLogFile(taskId);
         if (file == null || !file.exists()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Файл "
-                    + "не найден или задача не завершена");
+            throw new ResourceNotFoundException("Файл не найден или задача не завершена");
         }
-        Resource resource = new FileSystemResource(file);
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("Content-Disposition", "attachment; filename=" + file.getName());
-        return ResponseEntity.ok().headers(headers).body(resource);
+        Path compressed = LogArtifact.compressedSibling(file.toPath());
+        // Файл задачи не меняется до ее удаления по TTL.
+        return LogFileResponses.serve(request, file.toPath(),
+                Files.exists(compressed) ? compressed : null, file.getName(), true);
+    }
+
+    @Operation(
+            summary = "Отмена задачи",
+            description = "Отменяет задачу: задача из очереди не будет выполнена,"
+                    + " выполняющаяся прерывается, а ее частично записанный файл"
+                    + " удаляется. Возвращает статус задачи после отмены; завершенная"
+                    + " задача не меняется."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Статус задачи после отмены"),
+        @ApiResponse(responseCode = "404", description =
+                "Задача с указанным ID не найдена", content = @Content)
+    })
+    @DeleteMapping("/{taskId}")
+    public ResponseEntity<String> cancelTask(
+            @Parameter(
+                    in = ParameterIn.PATH,
+                    description = "Уникальный идентификатор задачи",
+                    required = true
+            ) @PathVariable Long taskId) {
+        return ResponseEntity.ok(asyncLogFileService.cancelTask(taskId).toString());
+    }
+
+    @Operation(
+            summary = "Статистика задач генерации лог-файлов",
+            description = "Возвращает размер пула и очереди, число принятых,"
+                    + " отклоненных из-за переполнения, завершенных, упавших,"
+                    + " отмененных и удаленных по истечении срока хранения задач."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    })
+    @GetMapping("/stats")
+    public LogTaskEngineStats getStats() {
+        return asyncLogFileService.getStats();
     }
-}
\ No newline at end of file
+}
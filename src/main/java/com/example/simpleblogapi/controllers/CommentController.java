@@ -1,7 +1,10 @@
 package com.example.simpleblogapi.controllers;
 
+import com.example.simpleblogapi.dto.ArticlePage;
+import com.example.simpleblogapi.dto.CacheStats;
 import com.example.simpleblogapi.entities.Comment;
 import com.example.simpleblogapi.service.CommentService;
+import com.example.simpleblogapi.service.CommentStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -10,14 +13,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 
 @CrossOrigin(origins = "http://localhost:3000")
@@ -26,9 +34,12 @@ import org.springframework.web.bind.annotation.RestController;
 public class CommentController {
 
     private final CommentService commentService;
+    private final CommentStreamService commentStreamService;
 
-    public CommentController(CommentService commentService) {
+    public CommentController(CommentService commentService,
+                             CommentStreamService commentStreamService) {
         this.commentService = commentService;
+        this.commentStreamService = commentStreamService;
     }
 
     @Operation(
@@ -55,6 +66,69 @@ public class CommentController {
         return commentService.getCommentsByArticle(articleId);
     }
 
+    @Operation(
+            summary = "Постраничное получение комментариев к статье",
+            description = "Возвращает комментарии статьи по возрастанию id страницами"
+                    + " заданного размера. Для получения следующей страницы передайте"
+                    + " значение nextCursor из предыдущего ответа; если nextCursor"
+                    + " равен null, комментариев больше нет."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Страница комментариев успешно получена"),
+        @ApiResponse(responseCode = "400", description =
+                "Некорректный курсор или размер страницы", content = @Content)
+    })
+    @GetMapping("/by-article/{articleId}/page")
+    public ArticlePage<Comment> getCommentsPage(
+            @Parameter(
+                    in = ParameterIn.PATH,
+                    description = "Уникальный идентификатор статьи",
+                    required = true
+            )
+            @PathVariable Long articleId,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Курсор, полученный в поле nextCursor предыдущей страницы"
+            ) @RequestParam(required = false) String cursor,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Размер страницы (от 1 до 100)"
+            ) @RequestParam(defaultValue = "20") int size) {
+        return commentService.getCommentsPage(articleId, cursor, size);
+    }
+
+    @Operation(
+            summary = "Поток новых комментариев к статье",
+            description = "Открывает поток Server-Sent Events, в который приходят события"
+                    + " comment с каждым новым комментарием статьи; id события равен id"
+                    + " комментария. При переподключении с заголовком Last-Event-ID сначала"
+                    + " приходят пропущенные комментарии. Клиент, который не успевает"
+                    + " читать события, отключается и должен переподключиться."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Поток открыт")
+    })
+    @GetMapping(value = "/by-article/{articleId}/stream",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamComments(
+            @Parameter(
+                    in = ParameterIn.PATH,
+                    description = "Уникальный идентификатор статьи",
+                    required = true
+            )
+            @PathVariable Long articleId,
+            @Parameter(
+                    in = ParameterIn.HEADER,
+                    description = "Id последнего полученного комментария"
+            )
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(commentStreamService.subscribe(articleId, lastEventId));
+    }
+
     @Operation(
             summary = "Очистка кэша комментариев для статьи",
             description = "Очищает кэш комментариев, связанных с конкретной статьёй, "
@@ -79,6 +153,21 @@ public class CommentController {
         commentService.clearCache(articleId);
     }
 
+    @Operation(
+            summary = "Статистика кэша комментариев",
+            description = "Возвращает число попаданий и промахов кэша комментариев,"
+                    + " долю попаданий, число вытеснений, число и среднее время загрузок"
+                    + " из базы данных, а также текущий и максимальный вес кэша"
+                    + " (вес статьи — число ее комментариев плюс один)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    })
+    @GetMapping("/cache/stats")
+    public CacheStats getCacheStats() {
+        return commentService.getCacheStats();
+    }
+
     @Operation(
             summary = "Очистка кэша всех комментариев",
             description = "Полностью очищает кэш всех комментариев для всех статей. "
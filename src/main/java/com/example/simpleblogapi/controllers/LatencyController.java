@@ -0,0 +1,37 @@
+package com.example.simpleblogapi.controllers;
+
+import com.example.simpleblogapi.dto.LatencyReport;
+import com.example.simpleblogapi.metrics.LatencyRecorder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal")
+public class LatencyController {
+
+    private final LatencyRecorder latencyRecorder;
+
+    public LatencyController(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    @Operation(
+            summary = "Задержки эндпоинтов",
+            description = "Возвращает для каждого метода контроллеров число вызовов, среднее, "
+                    + "p50, p90, p99, p99.9 и максимум времени обработки в миллисекундах за "
+                    + "текущий и предыдущий интервалы (длина интервала — resetIntervalMs), "
+                    + "а также число ошибок по типам исключений с момента запуска."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Отчет сформирован")
+    })
+    @GetMapping("/latency")
+    public ResponseEntity<LatencyReport> getLatency() {
+        return ResponseEntity.ok(latencyRecorder.report());
+    }
+}
@@ -1,102 +1,234 @@
 package com.example.simpleblogapi.controllers;
 
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.logs.LogArtifact;
+import com.example.simpleblogapi.logs.LogArtifactCache;
+import com.example.simpleblogapi.logs.LogFileExtractor;
+import com.example.simpleblogapi.logs.LogExtract;
+import com.example.simpleblogapi.logs.LogQuery;
+import com.example.simpleblogapi.logs.LogSearcher;
+import com.example.simpleblogapi.logs.LogTailer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
-import java.io.File;
-import java.io.FileWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 public class LogController {
 
-    private static final String LOG_DIRECTORY_PATH = "logs";
-    private static final String LOG_FILE_PATH = LOG_DIRECTORY_PATH + "/app.log";
+    private static final Pattern DATE_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$");
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final LogFileExtractor logFileExtractor;
+    private final LogArtifactCache logArtifactCache;
+    private final LogSearcher logSearcher;
+    private final LogTailer logTailer;
+    private final ObjectMapper objectMapper;
+
+    public LogController(LogFileExtractor logFileExtractor, LogArtifactCache logArtifactCache,
+                         LogSearcher logSearcher, LogTailer logTailer, ObjectMapper objectMapper) {
+        this.logFileExtractor = logFileExtractor;
+        this.logArtifactCache = logArtifactCache;
+        this.logSearcher = logSearcher;
+        this.logTailer = logTailer;
+        this.objectMapper = objectMapper;
+    }
 
     @Operation(
             summary = "Генерация лог-файла за указанную дату",
             description = "Возвращает лог-файл, содержащий только те строки общего лог-файла,"
                     + " которые начинаются с указанной даты. "
-                    + "Дата должна быть передана в формате yyyy-MM-dd."
-                    + " Если формат даты неверен, основной лог-файл отсутствует "
-                    + "или за заданную дату логи не найдены,"
+                    + "Дата должна быть передана в формате yyyy-MM-dd. С параметром to"
+                    + " возвращаются строки за все дни от date до to включительно."
+                    + " Учитываются сжатые архивы ротации и текущий лог; архивы"
+                    + " распаковываются параллельно, строки идут в порядке времени."
+                    + " Файл за один день строится один раз и переиспользуется всеми"
+                    + " запросами и фоновыми задачами; диапазон дней передается потоком"
+                    + " без промежуточного файла. Файл за день хранится и в сжатом виде:"
+                    + " при Accept-Encoding: gzip отдается сжатая копия, диапазон дней"
+                    + " сжимается на лету. Файл за день поддерживает заголовок Range"
+                    + " (один диапазон байт) для докачки. Если формат даты неверен, основной"
+                    + " лог-файл отсутствует или за заданную дату логи не найдены,"
                     + " возвращаются соответствующие сообщения об ошибке."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description =
                 "Лог-файл успешно сгенерирован и готов для загрузки"),
+        @ApiResponse(responseCode = "206", description =
+                "Запрошенный диапазон байт файла за день", content = @Content),
         @ApiResponse(responseCode = "400", description =
-                "Неверный формат даты. Ожидается формат yyyy-MM-dd", content = @Content),
+                "Неверный формат даты (ожидается yyyy-MM-dd)"
+                        + " или конец диапазона раньше начала", content = @Content),
         @ApiResponse(responseCode = "404", description =
                 "Основной лог-файл не найден или логи"
                         + " за указанную дату отсутствуют", content = @Content),
+        @ApiResponse(responseCode = "416", description =
+                "Диапазон байт за пределами файла", content = @Content),
         @ApiResponse(responseCode = "500", description =
-                "Ошибка создания директории для логов"
-                        + " или работы с файловой системой", content = @Content)
+                "Ошибка работы с файловой системой", content = @Content)
     })
     @GetMapping("/logs/file")
-    public ResponseEntity<String> generateLogFile(
+    public ResponseEntity<StreamingResponseBody> generateLogFile(
             @Parameter(
                     in = ParameterIn.QUERY,
                     description = "Дата для фильтрации логов (формат yyyy-MM-dd)",
                     required = true
-            ) @RequestParam String date) throws IOException {
+            ) @RequestParam String date,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Последняя дата диапазона включительно (формат yyyy-MM-dd)"
+            ) @RequestParam(required = false) String to,
+            HttpServletRequest request) throws IOException {
 
-        if (!isValidDate(date)) {
-            return ResponseEntity.badRequest().body("Неверный формат даты.");
+        if (!isValidDate(date) || (to != null && !isValidDate(to))) {
+            throw new InvalidInputException("Неверный формат даты.");
         }
 
-        File logDirectory = new File(LOG_DIRECTORY_PATH);
-        if (!logDirectory.exists() && !logDirectory.mkdirs()) {
-            return ResponseEntity.status(500).body("Не удалось создать директорию для логов.");
+        if (to == null || to.equals(date)) {
+            LogArtifact artifact = logArtifactCache.get(date);
+            return LogFileResponses.serve(request, artifact.file(), artifact.compressedFile(),
+                    "daily-log-" + date + ".log", artifact.sealed());
         }
 
-        File logFile = new File(LOG_FILE_PATH);
-        if (!logFile.exists()) {
-            return ResponseEntity.status(404).body("Основной лог-файл не найден.");
+        // Поиск идет до ответа, чтобы отсутствие логов вернуло 404.
+        LogExtract extract = logFileExtractor.find(date, to);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=logs-" + date + "-" + to + ".log")
+                .header(HttpHeaders.ACCEPT_RANGES, "none")
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (!LogFileResponses.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.body(out -> logFileExtractor.write(extract, out));
         }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                    logFileExtractor.write(extract, compressed);
+                    compressed.finish();
+                    compressed.flush();
+                });
+    }
 
-        List<String> logLines = Files.readAllLines(Paths.get(LOG_FILE_PATH));
-
-        List<String> filteredLogs = logLines.stream()
-                .filter(line -> line.startsWith(date))
-                .toList();
-
-        if (filteredLogs.isEmpty()) {
-            return ResponseEntity.status(404).body("Логи за указанную дату не найдены.");
-        }
+    @Operation(
+            summary = "Поиск записей лога",
+            description = "Возвращает записи лога за интервал времени, отобранные по"
+                    + " минимальному уровню, префиксу имени логгера (в сокращенном виде, как"
+                    + " он записан в лог) и регулярному выражению, которое ищется в сообщении"
+                    + " вместе со стек-трейсом. Записи идут в порядке времени и передаются"
+                    + " потоком по мере нахождения. Если найдено limit записей, в поле"
+                    + " nextCursor возвращается курсор: повторите запрос с теми же"
+                    + " параметрами и этим курсором, чтобы получить следующие записи;"
+                    + " если nextCursor равен null, записей больше нет."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Записи найдены"),
+        @ApiResponse(responseCode = "400", description =
+                "Неверный формат времени, уровня, регулярного выражения, лимита"
+                        + " или курсора", content = @Content),
+        @ApiResponse(responseCode = "404", description =
+                "Логи за указанный интервал отсутствуют", content = @Content)
+    })
+    @GetMapping("/logs/query")
+    public ResponseEntity<StreamingResponseBody> queryLogs(
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Начало интервала включительно (yyyy-MM-dd,"
+                            + " yyyy-MM-dd HH:mm:ss или yyyy-MM-ddTHH:mm:ss)",
+                    required = true
+            ) @RequestParam String from,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Конец интервала включительно; по умолчанию текущий момент"
+            ) @RequestParam(required = false) String to,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Минимальный уровень: TRACE, DEBUG, INFO, WARN или ERROR"
+            ) @RequestParam(required = false) String level,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Префикс имени логгера, например c.e.s.service"
+            ) @RequestParam(required = false) String logger,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Регулярное выражение для поиска в сообщении"
+            ) @RequestParam(required = false) String regex,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Максимум записей в ответе"
+            ) @RequestParam(defaultValue = "100") int limit,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Курсор, полученный в поле nextCursor предыдущего ответа"
+            ) @RequestParam(required = false) String cursor) throws IOException {
 
-        String dailyLogFilePath = LOG_DIRECTORY_PATH + "/daily-log-" + date + ".log";
-        File dailyLogFile = new File(dailyLogFilePath);
-        try (FileWriter writer = new FileWriter(dailyLogFile)) {
-            for (String log : filteredLogs) {
-                writer.write(log + System.lineSeparator());
-            }
-        }
+        LogQuery query = logSearcher.query(from, to, level, logger, regex, limit, cursor);
+        // Поиск участков идет до ответа, чтобы отсутствие логов вернуло 404.
+        LogExtract extract = logSearcher.find(query);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("Content-Disposition", "attachment; filename=daily-log-" + date + ".log");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> {
+                    JsonGenerator generator = objectMapper.createGenerator(out);
+                    generator.writeStartObject();
+                    generator.writeArrayFieldStart("items");
+                    String nextCursor = logSearcher.search(query, extract, generator::writePOJO);
+                    generator.writeEndArray();
+                    generator.writeStringField("nextCursor", nextCursor);
+                    generator.writeEndObject();
+                    generator.flush();
+                });
+    }
 
+    @Operation(
+            summary = "Живой хвост лога",
+            description = "Открывает поток Server-Sent Events со строками, дописанными в"
+                    + " основной лог после подключения, как tail -f; ротация лога"
+                    + " учитывается. События lines содержат пачку строк, по строке в поле"
+                    + " data; стек-трейсы идут вместе со своей записью. Если чтение отстало"
+                    + " больше допустимого, приходит событие skipped с числом пропущенных"
+                    + " байт. Клиент, который не успевает читать, отключается."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Поток открыт"),
+        @ApiResponse(responseCode = "400", description =
+                "Неизвестный уровень логирования", content = @Content)
+    })
+    @GetMapping(value = "/logs/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> tailLogs(
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Минимальный уровень: TRACE, DEBUG, INFO, WARN или ERROR"
+            ) @RequestParam(required = false) String level,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Префикс имени логгера, например c.e.s.service"
+            ) @RequestParam(required = false) String logger) {
         return ResponseEntity.ok()
-                .headers(headers)
-                .body(Files.readString(Paths.get(dailyLogFilePath)));
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(logTailer.subscribe(level, logger));
     }
 
     private boolean isValidDate(String date) {
-        String regex = "^\\d{4}-\\d{2}-\\d{2}$";
-        Pattern pattern = Pattern.compile(regex);
-        return pattern.matcher(date).matches();
+        return DATE_PATTERN.matcher(date).matches();
     }
 }
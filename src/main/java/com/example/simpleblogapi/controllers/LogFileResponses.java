@@ -0,0 +1,196 @@
+package com.example.simpleblogapi.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Отдача готовых лог-файлов: выбор сжатой копии по {@code Accept-Encoding},
+ * один диапазон байт по {@code Range} (с проверкой {@code If-Range}) для
+ * докачки и передача без копирования через пространство пользователя.
+ *
+ * <p>Диапазон считается по байтам выбранного представления: для сжатой
+ * копии — по байтам gzip. Несколько диапазонов в одном запросе не
+ * поддерживаются, и тогда отдается весь файл, как разрешает RFC 9110.
+ * Неизменяемый файл Tomcat передает системным вызовом sendfile сам,
+ * открывая его по имени после отправки заголовков; файл, который могут
+ * заменить, открывается заранее и копируется {@link FileChannel#transferTo}.
+ */
+public final class LogFileResponses {
+
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final MediaType LOG_TYPE =
+            new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    private static final String GZIP = "gzip";
+
+    private LogFileResponses() {
+    }
+
+    /**
+     * Ответ с файлом {@code file} или его сжатой копией {@code compressedFile}
+     * (может быть null).
+     *
+     * @param immutable файл не удаляется и не меняется, пока его отдают
+     */
+    public static ResponseEntity<StreamingResponseBody> serve(
+            HttpServletRequest request, Path file, Path compressedFile, String filename,
+            boolean immutable) throws IOException {
+        boolean compressed = compressedFile != null
+                && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        Path selected = compressed ? compressedFile : file;
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(selected, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            if (!compressed) {
+                throw ex;
+            }
+            // Сжатой копии уже нет (например, ее удалила очистка): отдаем обычный файл.
+            compressed = false;
+            selected = file;
+            attributes = Files.readAttributes(selected, BasicFileAttributes.class);
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified)
+                + (compressed ? "-" + GZIP : "") + "\"";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(LOG_TYPE);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+        if (compressedFile != null) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        }
+        if (compressed) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        HttpRange range = requestedRange(request, etag, lastModified);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .headers(headers).build();
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        headers.setContentLength(count);
+
+        if (immutable && count > 0 && !"HEAD".equals(request.getMethod())
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, selected.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return ResponseEntity.status(status).headers(headers).build();
+        }
+
+        // Файл открывается до ответа: перестроение может убрать его из каталога.
+        FileChannel channel = FileChannel.open(selected);
+        long offset = start;
+        return ResponseEntity.status(status).headers(headers).body(out -> {
+            try (channel) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = offset;
+                long limit = offset + count;
+                while (position < limit) {
+                    long transferred = channel.transferTo(position, limit - position, target);
+                    if (transferred <= 0) {
+                        throw new IOException("Log file was truncated while copying");
+                    }
+                    position += transferred;
+                }
+            }
+        });
+    }
+
+    /**
+     * Принимает ли клиент gzip: кодировка {@code gzip} (или {@code x-gzip}),
+     * а при ее отсутствии {@code *}, с ненулевым весом.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        return gzip > 0 || (gzip < 0 && any > 0);
+    }
+
+    // null — отдать файл целиком: диапазона нет, он не разбирается, их несколько или If-Range устарел.
+    private static HttpRange requestedRange(HttpServletRequest request, String etag,
+                                            long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            long date;
+            try {
+                date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+            // Даты в HTTP с точностью до секунды.
+            if (date < 0 || date / 1000 != lastModified / 1000) {
+                return null;
+            }
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.simpleblogapi.controllers;
 
+import com.example.simpleblogapi.dto.CacheStats;
+import com.example.simpleblogapi.dto.TagCaseMergeReport;
 import com.example.simpleblogapi.entities.Tag;
 import com.example.simpleblogapi.service.TagService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,6 +12,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -41,7 +44,9 @@ public class TagController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Тег успешно создан"),
         @ApiResponse(responseCode = "400", description =
-                "Неверные входные данные", content = @Content)
+                "Неверные входные данные", content = @Content),
+        @ApiResponse(responseCode = "409", description =
+                "Тег с таким именем без учета регистра уже существует", content = @Content)
     })
     @PostMapping("/create")
     public Tag createTag(@Valid @RequestBody Tag tag) {
@@ -68,6 +73,44 @@ public class TagController {
         return tagService.getTagById(id);
     }
 
+    @Operation(
+            summary = "Статистика кэша тегов",
+            description = "Возвращает для кэшей тегов по id (byId) и по имени (byName)"
+                    + " число попаданий и промахов, долю попаданий,"
+                    + " число вытеснений, число и среднее время загрузок из базы данных,"
+                    + " а также текущий и максимальный размер кэша."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    })
+    @GetMapping("/cache/stats")
+    public Map<String, CacheStats> getCacheStats() {
+        return tagService.getCacheStats();
+    }
+
+    @Operation(
+            summary = "Слияние тегов, различающихся только регистром",
+            description = "Находит теги, имена которых совпадают без учета регистра"
+                    + " (например, \"Java\" и \"java\"). В каждой группе остается тег"
+                    + " с наименьшим id, статьи остальных переносятся на него, а сами они"
+                    + " удаляются; затем создается уникальный индекс по lower(name),"
+                    + " который не дает таким дубликатам появиться снова."
+                    + " По умолчанию (dryRun=true) только возвращает группы без изменений."
+                    + " Слияние необратимо; после него остальные экземпляры приложения"
+                    + " нужно перезапустить, чтобы сбросить их кэши."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Отчет о слиянии успешно получен")
+    })
+    @PostMapping("/maintenance/merge-case-duplicates")
+    public TagCaseMergeReport mergeCaseDuplicates(
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Только показать группы, не меняя данные"
+            ) @RequestParam(defaultValue = "true") boolean dryRun) {
+        return tagService.mergeCaseDuplicates(dryRun);
+    }
+
     @Operation(
             summary = "Получение всех тегов",
             description = "Возвращает полный список всех тегов, доступных в системе. "
@@ -111,7 +154,9 @@ public class TagController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Тег успешно обновлён"),
-        @ApiResponse(responseCode = "404", description = "Тег не найден", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Тег не найден", content = @Content),
+        @ApiResponse(responseCode = "409", description =
+                "Другой тег с таким именем без учета регистра уже существует", content = @Content)
     })
     @PutMapping("/{id}")
     public Tag updateTag(
@@ -129,10 +174,13 @@ public class TagController {
             description = "Производит поиск тегов по подстроке в названии. "
                     + "Эта функция позволяет быстро находить теги,"
                     + " соответствующие заданному критерию,"
-                    + " даже если указана лишь их часть."
+                    + " даже если указана лишь их часть. "
+                    + "Самые популярные теги возвращаются первыми."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Список тегов успешно получен")
+        @ApiResponse(responseCode = "200", description = "Список тегов успешно получен"),
+        @ApiResponse(responseCode = "400", description =
+                "Недопустимый лимит", content = @Content)
     })
     @GetMapping("/search")
     public List<Tag> searchTags(
@@ -140,7 +188,35 @@ public class TagController {
                     in = ParameterIn.QUERY,
                     description = "Часть имени тега, используемая для поиска",
                     required = true
-            ) @RequestParam String name) {
-        return tagService.searchTagsByName(name);
+            ) @RequestParam String name,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Максимальное число тегов в ответе (от 1 до 100)"
+            ) @RequestParam(defaultValue = "50") int limit) {
+        return tagService.searchTagsByName(name, limit);
+    }
+
+    @Operation(
+            summary = "Автодополнение тегов",
+            description = "Возвращает теги, название которых начинается с заданного префикса,"
+                    + " без учета регистра. Теги упорядочены по популярности"
+                    + " (числу статей). Используется для подсказок при вводе."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Подсказки успешно получены"),
+        @ApiResponse(responseCode = "400", description =
+                "Недопустимый лимит", content = @Content)
+    })
+    @GetMapping("/autocomplete")
+    public List<Tag> autocompleteTags(
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Начало названия тега"
+            ) @RequestParam(defaultValue = "") String prefix,
+            @Parameter(
+                    in = ParameterIn.QUERY,
+                    description = "Максимальное число подсказок (от 1 до 100)"
+            ) @RequestParam(defaultValue = "10") int limit) {
+        return tagService.autocompleteTags(prefix, limit);
     }
 }
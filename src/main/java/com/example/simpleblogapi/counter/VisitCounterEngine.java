@@ -0,0 +1,188 @@
+package com.example.simpleblogapi.counter;
+
+import com.example.simpleblogapi.repositories.VisitCountRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Счетчик посещений в памяти: инкремент попадает в полосатый {@link LongAdder}
+ * без блокировок и без обращения к БД, а накопленные приращения периодически
+ * сбрасываются в {@code visit_counts} пакетными upsert-запросами.
+ *
+ * <p>Память ограничена: счетчик URL, у которого не было посещений два
+ * сброса подряд, убирается из карты. Убранный счетчик еще один сброс
+ * лежит в {@code retiring}: инкремент, успевший взять на него ссылку,
+ * будет перенесен в новый счетчик, а не потерян. Если отслеживается
+ * {@code visits.max-tracked-urls} адресов, посещение нового URL пишется в
+ * БД сразу, минуя память.
+ */
+@Component
+public class VisitCounterEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitCounterEngine.class);
+
+    private static final long UNKNOWN = -1L;
+    private static final int IDLE_FLUSHES_BEFORE_EVICTION = 2;
+
+    private final VisitCountRepository visitCountRepository;
+    private final int flushBatchSize;
+    private final int maxTrackedUrls;
+    private final Map<String, Cell> cells = new ConcurrentHashMap<>();
+    private final Map<String, Cell> retiring = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public VisitCounterEngine(VisitCountRepository visitCountRepository,
+                              @Value("${visits.flush-batch-size:500}") int flushBatchSize,
+                              @Value("${visits.max-tracked-urls:100000}") int maxTrackedUrls) {
+        this.visitCountRepository = visitCountRepository;
+        this.flushBatchSize = flushBatchSize;
+        this.maxTrackedUrls = maxTrackedUrls;
+    }
+
+    public long increment(String url) {
+        Cell cell = cells.get(url);
+        if (cell == null) {
+            if (cells.size() >= maxTrackedUrls) {
+                return writeThrough(url);
+            }
+            cell = cells.computeIfAbsent(url, key -> new Cell());
+        }
+        cell.hits.increment();
+
+        Snapshot snapshot = cell.snapshot.get();
+        if (snapshot.persisted == UNKNOWN) {
+            snapshot = loadPersisted(url, cell);
+        }
+        return snapshot.persisted + cell.hits.sum() - snapshot.flushed;
+    }
+
+    public long getVisitCount(String url) {
+        Long persisted = visitCountRepository.findCountByUrl(url);
+        return (persisted != null ? persisted : 0L) + getPendingDelta(url);
+    }
+
+    public long getPendingDelta(String url) {
+        Cell cell = cells.get(url);
+        Cell retired = retiring.get(url);
+        return (cell != null ? cell.pending() : 0L) + (retired != null ? retired.pending() : 0L);
+    }
+
+    public int trackedUrlCount() {
+        return cells.size();
+    }
+
+    @Scheduled(fixedDelayString = "${visits.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            // Приращения не списаны и будут отправлены при следующем сбросе.
+            logger.error("Failed to flush visit counters: {}", ex.getMessage(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        logger.info("Flushing pending visit counters before shutdown");
+        scheduledFlush();
+    }
+
+    public int flush() {
+        flushLock.lock();
+        try {
+            drainRetiring();
+            int flushed = 0;
+            Map<String, Long> deltas = new LinkedHashMap<>();
+            Map<String, Long> totals = new LinkedHashMap<>();
+            for (Map.Entry<String, Cell> entry : cells.entrySet()) {
+                Cell cell = entry.getValue();
+                long total = cell.hits.sum();
+                long delta = total - cell.snapshot.get().flushed;
+                if (delta <= 0) {
+                    if (++cell.idleFlushes >= IDLE_FLUSHES_BEFORE_EVICTION
+                            && cells.remove(entry.getKey(), cell)) {
+                        retiring.put(entry.getKey(), cell);
+                    }
+                    continue;
+                }
+                cell.idleFlushes = 0;
+                deltas.put(entry.getKey(), delta);
+                totals.put(entry.getKey(), total);
+                if (deltas.size() >= flushBatchSize) {
+                    flushed += writeBatch(deltas, totals);
+                    deltas = new LinkedHashMap<>();
+                    totals = new LinkedHashMap<>();
+                }
+            }
+            flushed += writeBatch(deltas, totals);
+            return flushed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Посещения, попавшие в убранный счетчик после его удаления из карты.
+    private void drainRetiring() {
+        for (Map.Entry<String, Cell> entry : retiring.entrySet()) {
+            Cell retired = entry.getValue();
+            long late = retired.pending();
+            if (late > 0) {
+                cells.computeIfAbsent(entry.getKey(), key -> new Cell()).hits.add(late);
+            }
+            retiring.remove(entry.getKey(), retired);
+        }
+    }
+
+    private long writeThrough(String url) {
+        Long count = visitCountRepository.addVisitCounts(Map.of(url, 1L)).get(url);
+        return count != null ? count : getVisitCount(url);
+    }
+
+    private int writeBatch(Map<String, Long> deltas, Map<String, Long> totals) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> counts = visitCountRepository.addVisitCounts(deltas);
+        for (Map.Entry<String, Long> entry : totals.entrySet()) {
+            Cell cell = cells.get(entry.getKey());
+            Long persisted = counts.get(entry.getKey());
+            long total = entry.getValue();
+            cell.snapshot.updateAndGet(current -> new Snapshot(
+                    persisted != null ? persisted : current.persisted, total));
+        }
+        return deltas.size();
+    }
+
+    private Snapshot loadPersisted(String url, Cell cell) {
+        Long count = visitCountRepository.findCountByUrl(url);
+        long persisted = count != null ? count : 0L;
+        return cell.snapshot.updateAndGet(current -> current.persisted == UNKNOWN
+                ? new Snapshot(persisted, current.flushed)
+                : current);
+    }
+
+    private record Snapshot(long persisted, long flushed) {
+    }
+
+    private static final class Cell {
+        private final LongAdder hits = new LongAdder();
+        private final AtomicReference<Snapshot> snapshot =
+                new AtomicReference<>(new Snapshot(UNKNOWN, 0L));
+        // Меняется только под flushLock.
+        private int idleFlushes;
+
+        private long pending() {
+            return hits.sum() - snapshot.get().flushed;
+        }
+    }
+}
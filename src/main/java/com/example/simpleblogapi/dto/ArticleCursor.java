@@ -0,0 +1,40 @@
+package com.example.simpleblogapi.dto;
+
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в ленте статей, упорядоченной по (createdAt, id) по убыванию.
+ * Передается клиенту непрозрачной base64url-строкой.
+ */
+public record ArticleCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ArticleCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidInputException("Некорректный курсор: " + token);
+            }
+            return new ArticleCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidInputException("Некорректный курсор: " + token);
+        }
+    }
+
+    public static ArticleCursor of(ArticleSummary summary) {
+        return new ArticleCursor(summary.createdAt(), summary.id());
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.simpleblogapi.dto;
+
+import com.example.simpleblogapi.entities.Article;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ArticleDetail(Long id, String title, String content, LocalDateTime createdAt,
+                            int likes, int dislikes, int commentCount, List<TagRef> tags) {
+
+    public record TagRef(Long id, String name) {
+    }
+
+    public static ArticleDetail of(Article article) {
+        List<TagRef> tags = article.getTags().stream()
+                .map(tag -> new TagRef(tag.getId(), tag.getName()))
+                .toList();
+        return new ArticleDetail(article.getId(), article.getTitle(), article.getContent(),
+                article.getCreatedAt(), article.getLikes(), article.getDislikes(),
+                article.getCommentCount(), tags);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.simpleblogapi.dto;
+
+import java.util.List;
+
+public record ArticlePage<T>(List<T> items, String nextCursor) {
+}
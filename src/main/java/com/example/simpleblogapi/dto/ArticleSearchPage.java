@@ -0,0 +1,6 @@
+package com.example.simpleblogapi.dto;
+
+import java.util.List;
+
+public record ArticleSearchPage(int total, int page, int size, List<ArticleSummary> items) {
+}
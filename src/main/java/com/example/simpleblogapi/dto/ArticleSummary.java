@@ -0,0 +1,24 @@
+package com.example.simpleblogapi.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Краткое представление статьи для списков: вместо полного текста
+ * передается только его начало, вместо комментариев — их число.
+ */
+public record ArticleSummary(Long id, String title, String excerpt, LocalDateTime createdAt,
+                             int likes, int dislikes, int commentCount, List<String> tags) {
+
+    public static final int EXCERPT_LENGTH = 200;
+
+    public ArticleSummary(Long id, String title, String excerpt, LocalDateTime createdAt,
+                          int likes, int dislikes, int commentCount) {
+        this(id, title, excerpt, createdAt, likes, dislikes, commentCount, List.of());
+    }
+
+    public ArticleSummary withTags(List<String> tagNames) {
+        return new ArticleSummary(id, title, excerpt, createdAt, likes, dislikes, commentCount,
+                tagNames);
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.simpleblogapi.dto;
+
+public record ArticleTagName(Long articleId, String tagName) {
+}
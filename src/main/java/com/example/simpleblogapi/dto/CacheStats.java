@@ -0,0 +1,7 @@
+package com.example.simpleblogapi.dto;
+
+public record CacheStats(long hitCount, long missCount, double hitRate, long evictionCount,
+                         long loadSuccessCount, long loadFailureCount,
+                         double averageLoadPenaltyMs, long size, long weightedSize,
+                         long maximumWeight) {
+}
@@ -0,0 +1,26 @@
+package com.example.simpleblogapi.dto;
+
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция в списке комментариев статьи, упорядоченном по id по возрастанию.
+ * Передается клиенту непрозрачной base64url-строкой.
+ */
+public record CommentCursor(Long id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CommentCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new CommentCursor(Long.parseLong(raw));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidInputException("Некорректный курсор: " + token);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.simpleblogapi.dto;
+
+public record EndpointLatency(String endpoint, long count, double meanMs, double p50Ms, double p90Ms,
+                              double p99Ms, double p999Ms, double maxMs) {
+}
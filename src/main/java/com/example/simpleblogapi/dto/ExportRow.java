@@ -0,0 +1,18 @@
+package com.example.simpleblogapi.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка общей выгрузки: сама статья, один из ее тегов или один из ее
+ * комментариев. Для тега {@code name} содержит имя тега, для статьи —
+ * заголовок; поля, не относящиеся к виду строки, равны null.
+ */
+public record ExportRow(Kind kind, long articleId, long id, String name, String content,
+                        LocalDateTime createdAt, int likes, int dislikes) {
+
+    public enum Kind {
+        ARTICLE,
+        TAG,
+        COMMENT
+    }
+}
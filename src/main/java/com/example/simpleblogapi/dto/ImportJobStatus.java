@@ -0,0 +1,11 @@
+package com.example.simpleblogapi.dto;
+
+import com.example.simpleblogapi.enums.TaskStatus;
+import java.util.List;
+
+public record ImportJobStatus(Long taskId, TaskStatus status, long rowsRead, long rowsCommitted,
+                              long rowsRejected, String failureReason, List<RowError> errors) {
+
+    public record RowError(long row, String message) {
+    }
+}
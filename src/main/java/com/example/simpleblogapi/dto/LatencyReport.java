@@ -0,0 +1,10 @@
+package com.example.simpleblogapi.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public record LatencyReport(long resetIntervalMs, Instant intervalStart,
+                            List<EndpointLatency> current, List<EndpointLatency> previous,
+                            Map<String, Long> errors) {
+}
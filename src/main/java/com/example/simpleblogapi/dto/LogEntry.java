@@ -0,0 +1,11 @@
+package com.example.simpleblogapi.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись лога: строка с отметкой времени и следующие за ней строки без нее
+ * (стек-трейс), которые входят в {@code message}.
+ */
+public record LogEntry(LocalDateTime timestamp, String thread, String level, String logger,
+                       String message) {
+}
@@ -0,0 +1,50 @@
+package com.example.simpleblogapi.dto;
+
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в результатах поиска по логу: время последней отданной записи и
+ * число отданных записей с этим временем. Не зависит от ротации файлов,
+ * поэтому остается верной, пока лог дописывается. Передается клиенту
+ * непрозрачной base64url-строкой. Пропускаемые записи поиск держит в
+ * памяти, поэтому их число ограничено при разборе.
+ */
+public record LogQueryCursor(LocalDateTime timestamp, int skip) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = timestamp + SEPARATOR + skip;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidInputException если курсор не разбирается или
+     *     пропускает больше {@code maxSkip} записей
+     */
+    public static LogQueryCursor decode(String token, int maxSkip) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidInputException("Некорректный курсор: " + token);
+            }
+            int skip = Integer.parseInt(raw.substring(separator + 1));
+            if (skip < 0) {
+                throw new InvalidInputException("Некорректный курсор: " + token);
+            }
+            if (skip > maxSkip) {
+                throw new InvalidInputException("Курсор пропускает больше " + maxSkip
+                        + " записей с одним временем; сузьте запрос фильтрами");
+            }
+            return new LogQueryCursor(LocalDateTime.parse(raw.substring(0, separator)), skip);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidInputException("Некорректный курсор: " + token);
+        }
+    }
+}
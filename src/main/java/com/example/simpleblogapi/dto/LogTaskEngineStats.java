@@ -0,0 +1,6 @@
+package com.example.simpleblogapi.dto;
+
+public record LogTaskEngineStats(int workers, int activeWorkers, int queued, int queueCapacity,
+                                 long submitted, long rejected, long completed, long failed,
+                                 long cancelled, long evicted, int trackedTasks) {
+}
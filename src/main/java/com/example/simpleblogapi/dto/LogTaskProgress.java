@@ -0,0 +1,7 @@
+package com.example.simpleblogapi.dto;
+
+import com.example.simpleblogapi.enums.TaskStatus;
+
+public record LogTaskProgress(Long taskId, TaskStatus status, long bytesScanned, long bytesTotal,
+                              long linesMatched, long bytesWritten, String failureReason) {
+}
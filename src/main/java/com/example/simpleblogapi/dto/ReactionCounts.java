@@ -0,0 +1,4 @@
+package com.example.simpleblogapi.dto;
+
+public record ReactionCounts(Long articleId, int likes, int dislikes) {
+}
@@ -0,0 +1,9 @@
+package com.example.simpleblogapi.dto;
+
+import java.util.List;
+
+public record TagCaseMergeReport(boolean dryRun, boolean uniqueIndexPresent, List<Merge> merges) {
+
+    public record Merge(Long keptId, String keptName, List<Long> mergedIds, List<String> mergedNames) {
+    }
+}
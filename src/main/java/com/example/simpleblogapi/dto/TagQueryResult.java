@@ -0,0 +1,10 @@
+package com.example.simpleblogapi.dto;
+
+import java.util.List;
+
+/**
+ * Результат запроса к индексу тегов: общее число подходящих статей
+ * и идентификаторы запрошенной страницы (от новых к старым).
+ */
+public record TagQueryResult(int total, List<Long> articleIds) {
+}
@@ -8,10 +8,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -23,10 +25,12 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 @Entity
-@Table(name = "articles")
+@Table(name = "articles", indexes = @Index(name = "idx_articles_created_at_id",
+        columnList = "created_at DESC, id DESC"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -35,8 +39,13 @@ import org.hibernate.annotations.CreationTimestamp;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Article {
 
+    public static final String ID_SEQUENCE = "articles_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "article_id")
+    @SequenceGenerator(name = "article_id", sequenceName = ID_SEQUENCE,
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -58,12 +67,20 @@ public class Article {
     @Column(nullable = false)
     private int dislikes = 0;
 
+    // Поддерживается триггером на таблице comments (см. ArticleRepositoryCustom),
+    // поэтому Hibernate колонку только читает.
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer default 0")
+    private int commentCount;
+
     @OneToMany(mappedBy = "article", cascade = CascadeType.ALL,
             fetch = FetchType.LAZY, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<Comment> comments;
 
     @Builder.Default
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.DETACH,
+    @BatchSize(size = 50)
+    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.DETACH,
         CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
     @JoinTable(
             name = "article_tags",
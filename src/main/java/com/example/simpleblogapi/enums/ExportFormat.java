@@ -0,0 +1,6 @@
+package com.example.simpleblogapi.enums;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV;
+}
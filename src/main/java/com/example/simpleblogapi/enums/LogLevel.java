@@ -0,0 +1,9 @@
+package com.example.simpleblogapi.enums;
+
+public enum LogLevel {
+    TRACE,
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR
+}
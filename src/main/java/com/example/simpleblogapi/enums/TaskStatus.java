@@ -1,7 +1,13 @@
 package com.example.simpleblogapi.enums;
 
 public enum TaskStatus {
+    QUEUED,
     IN_PROGRESS,
     COMPLETED,
-    FAILED;
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
 }
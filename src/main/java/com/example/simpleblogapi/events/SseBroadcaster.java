@@ -0,0 +1,402 @@
+package com.example.simpleblogapi.events;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Рассылка Server-Sent Events подписчикам, сгруппированным по теме.
+ *
+ * <p>Событие кодируется в байты один раз, и этот массив ставится в очереди
+ * всех подписчиков темы. Очередь подписчика ограничена: если клиент не
+ * успевает читать и очередь переполнилась, он отключается. Браузерный
+ * EventSource переподключится с заголовком Last-Event-ID, и пропущенное
+ * догрузится из backlog. Запись в соединения выполняет небольшой общий пул
+ * потоков, а не поток на подключение, поэтому простаивающие подключения
+ * обходятся в один объект подписчика. Периодический комментарий-heartbeat
+ * не дает прокси закрыть соединение и выявляет оборванные.
+ *
+ * <p>Клиент, который перестал читать при пустой очереди, держит поток пула
+ * в заблокированной записи в сокет. Если запись длится дольше
+ * {@code sendTimeoutMs}, подписчик отключается, а пул получает временный
+ * дополнительный поток, чтобы остальные темы не ждали; зависший поток
+ * освободится, когда запись оборвет таймаут записи контейнера.
+ */
+public class SseBroadcaster<K> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseBroadcaster.class);
+
+    private static final Frame HEARTBEAT = new Frame(0, ":\n\n".getBytes(StandardCharsets.UTF_8));
+    private static final Frame END = new Frame(0, new byte[0]);
+
+    private final String name;
+    private final int bufferSize;
+    private final Map<K, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor deliveryExecutor;
+    private final ScheduledExecutorService heartbeatExecutor;
+    private final long sendTimeoutNanos;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder slowConsumersDropped = new LongAdder();
+
+    public SseBroadcaster(String name, int bufferSize, int deliveryThreads, long heartbeatIntervalMs,
+                          long sendTimeoutMs) {
+        this.name = name;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        AtomicInteger threadCounter = new AtomicInteger();
+        // Подписчик ставит в очередь не более одной задачи разбора за раз,
+        // поэтому длина очереди пула ограничена числом подписчиков.
+        this.deliveryExecutor = new ThreadPoolExecutor(deliveryThreads, deliveryThreads,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat,
+                heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        long checkIntervalMs = Math.max(sendTimeoutMs / 2, 1);
+        heartbeatExecutor.scheduleWithFixedDelay(this::dropStalledSubscribers,
+                checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Кодирует событие в формат text/event-stream. Многострочные данные
+     * передаются несколькими строками {@code data:}; {@code id <= 0} не
+     * передается.
+     */
+    public static Frame frame(long id, String event, String data) {
+        StringBuilder text = new StringBuilder(data.length() + 32);
+        if (id > 0) {
+            text.append("id: ").append(id).append('\n');
+        }
+        text.append("event: ").append(event).append('\n');
+        int start = 0;
+        int newline;
+        while ((newline = data.indexOf('\n', start)) >= 0) {
+            text.append("data: ").append(data, start, newline).append('\n');
+            start = newline + 1;
+        }
+        text.append("data: ").append(data, start, data.length()).append("\n\n");
+        return new Frame(id, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Подписывает {@code emitter} на тему. Подписчик регистрируется до вызова
+     * {@code backlog}, поэтому события, опубликованные во время его загрузки,
+     * не теряются. Живые события с id не больше последнего в backlog уже
+     * отправлены из него и пропускаются; остальные живые события
+     * отправляются в порядке публикации, даже если их id идут не по порядку.
+     */
+    public void subscribe(K topic, ResponseBodyEmitter emitter, Supplier<List<Frame>> backlog) {
+        Subscriber subscriber = new Subscriber(topic, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        // Добавление атомарно с удалением набора темы в unsubscribe и
+        // complete: подписчик не может попасть в набор, которого уже нет в
+        // topics, и остаться без событий и завершения.
+        topics.compute(topic, (key, subscribers) -> {
+            Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        try {
+            subscriber.start(backlog.get());
+        } catch (RuntimeException ex) {
+            subscriber.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Рассылает событие подписчикам темы. {@code frame} вызывается, только
+     * если подписчики есть, и один раз на все соединения.
+     */
+    public void publish(K topic, Supplier<Frame> frame) {
+        Set<Subscriber> subscribers = topics.get(topic);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        Frame encoded = frame.get();
+        published.increment();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(encoded);
+        }
+    }
+
+    /**
+     * Завершает все подключения темы после отправки уже поставленных в
+     * очередь событий.
+     */
+    public void complete(K topic) {
+        List<Subscriber> removed = new ArrayList<>();
+        topics.compute(topic, (key, subscribers) -> {
+            if (subscribers != null) {
+                removed.addAll(subscribers);
+            }
+            return null;
+        });
+        // finish может закрыть подписчика, а close снова обращается к topics,
+        // поэтому вызывается после compute. Подписчик, добавленный позже,
+        // попадает в новый набор темы.
+        for (Subscriber subscriber : removed) {
+            subscriber.finish();
+        }
+    }
+
+    /**
+     * Темы, у которых сейчас есть подписчики (живое представление).
+     */
+    public Set<K> topics() {
+        return Collections.unmodifiableSet(topics.keySet());
+    }
+
+    public int subscriberCount() {
+        int count = 0;
+        for (Set<Subscriber> subscribers : topics.values()) {
+            count += subscribers.size();
+        }
+        return count;
+    }
+
+    public long publishedCount() {
+        return published.sum();
+    }
+
+    public long slowConsumersDropped() {
+        return slowConsumersDropped.sum();
+    }
+
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        for (K topic : List.copyOf(topics.keySet())) {
+            Set<Subscriber> subscribers = topics.remove(topic);
+            if (subscribers != null) {
+                subscribers.forEach(Subscriber::close);
+            }
+        }
+        deliveryExecutor.shutdown();
+    }
+
+    private void heartbeat() {
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                long started = subscriber.sendStartedNanos;
+                if (started != 0 && now - started > sendTimeoutNanos) {
+                    subscriber.stall();
+                }
+            }
+        }
+    }
+
+    // Поток, занятый зависшей записью, временно замещается новым.
+    private void addDeliveryThread() {
+        synchronized (deliveryExecutor) {
+            deliveryExecutor.setMaximumPoolSize(deliveryExecutor.getMaximumPoolSize() + 1);
+            deliveryExecutor.setCorePoolSize(deliveryExecutor.getCorePoolSize() + 1);
+        }
+    }
+
+    private void removeDeliveryThread() {
+        synchronized (deliveryExecutor) {
+            deliveryExecutor.setCorePoolSize(deliveryExecutor.getCorePoolSize() - 1);
+            deliveryExecutor.setMaximumPoolSize(deliveryExecutor.getMaximumPoolSize() - 1);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        topics.computeIfPresent(subscriber.topic, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * Закодированное событие; {@code id} используется для пропуска повторов
+     * между backlog и живыми событиями.
+     */
+    public record Frame(long id, byte[] bytes) {
+    }
+
+    private final class Subscriber {
+        private final K topic;
+        private final ResponseBodyEmitter emitter;
+        private final ArrayBlockingQueue<Frame> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        private final AtomicBoolean compensated = new AtomicBoolean();
+        private Queue<Frame> backlog = new ArrayDeque<>();
+        private volatile boolean started;
+        // Наибольший id в backlog; записывается до started и читается в drain после него.
+        private long backlogLastId;
+        // Момент начала текущей записи в сокет, 0 — записи нет.
+        private volatile long sendStartedNanos;
+
+        private Subscriber(K topic, ResponseBodyEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+
+        private void start(List<Frame> frames) {
+            Queue<Frame> initial = new ArrayDeque<>(frames.size() + 1);
+            // Комментарий сразу отправляет заголовки, и EventSource переходит в состояние open.
+            initial.add(HEARTBEAT);
+            initial.addAll(frames);
+            for (Frame frame : frames) {
+                backlogLastId = Math.max(backlogLastId, frame.id());
+            }
+            backlog = initial;
+            started = true;
+            scheduleDrain();
+        }
+
+        private void offer(Frame frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                slowConsumersDropped.increment();
+                logger.warn("{}: subscriber of {} is too slow, disconnecting", name, topic);
+                close();
+                return;
+            }
+            if (started) {
+                scheduleDrain();
+            }
+        }
+
+        private void finish() {
+            if (!queue.offer(END)) {
+                close();
+                return;
+            }
+            if (started) {
+                scheduleDrain();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                try {
+                    deliveryExecutor.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed.get()) {
+                    Frame frame = backlog.poll();
+                    if (frame == null) {
+                        frame = queue.poll();
+                        if (frame == null) {
+                            break;
+                        }
+                        if (frame.id() > 0 && frame.id() <= backlogLastId) {
+                            continue;
+                        }
+                    }
+                    if (frame == END) {
+                        close();
+                        break;
+                    }
+                    sendStartedNanos = System.nanoTime() | 1;
+                    try {
+                        emitter.send(frame.bytes());
+                    } finally {
+                        sendStartedNanos = 0;
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                close();
+            } finally {
+                draining.set(false);
+                if (compensated.getAndSet(false)) {
+                    removeDeliveryThread();
+                }
+            }
+            if (closed.get()) {
+                completeEmitter();
+                return;
+            }
+            // Событие могло прийти между последней проверкой очереди и сбросом флага.
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void stall() {
+            if (stalled.compareAndSet(false, true)) {
+                slowConsumersDropped.increment();
+                logger.warn("{}: send to subscriber of {} is stuck, disconnecting", name, topic);
+                addDeliveryThread();
+                compensated.set(true);
+                // Запись могла закончиться, пока поток добавлялся.
+                if (!draining.get() && compensated.getAndSet(false)) {
+                    removeDeliveryThread();
+                }
+                close();
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                unsubscribe(this);
+                queue.clear();
+                // Во время записи emitter занят; его завершит поток, выполняющий drain.
+                if (!draining.get()) {
+                    completeEmitter();
+                }
+            }
+        }
+
+        private void completeEmitter() {
+            if (completed.compareAndSet(false, true)) {
+                try {
+                    emitter.complete();
+                } catch (RuntimeException ex) {
+                    logger.debug("{}: failed to complete emitter: {}", name, ex.getMessage());
+                }
+            }
+        }
+    }
+}
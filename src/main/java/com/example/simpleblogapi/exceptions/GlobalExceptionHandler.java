@@ -1,8 +1,10 @@
 package com.example.simpleblogapi.exceptions;
 
+import com.example.simpleblogapi.metrics.LatencyRecorder;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -16,8 +18,15 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final LatencyRecorder latencyRecorder;
+
+    public GlobalExceptionHandler(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
     @ExceptionHandler(InvalidInputException.class)
     public ResponseEntity<ApiErrorResponse> handleInvalidInput(InvalidInputException ex) {
+        latencyRecorder.recordError(ex);
         logger.error("Ошибка неверного ввода: ", ex);
         ApiErrorResponse response = new ApiErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
@@ -29,6 +38,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiErrorResponse>
         handleValidationExceptions(MethodArgumentNotValidException ex) {
+        latencyRecorder.recordError(ex);
         logger.error("Ошибка валидации: ", ex);
         String errorMessage = ex.getBindingResult().getFieldErrors().stream()
                 .map(FieldError::getDefaultMessage)
@@ -42,6 +52,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ApiErrorResponse> handleResourceNotFound(ResourceNotFoundException ex) {
+        latencyRecorder.recordError(ex);
         logger.error("Ресурс не найден: ", ex);
         ApiErrorResponse response = new ApiErrorResponse(
                 HttpStatus.NOT_FOUND.value(),
@@ -50,9 +61,46 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ResourceConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleResourceConflict(ResourceConflictException ex) {
+        latencyRecorder.recordError(ex);
+        logger.warn("Конфликт данных: {}", ex.getMessage());
+        ApiErrorResponse response = new ApiErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                ex.toString());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    // Нарушение уникальности, которое не поймала проверка в сервисе, например
+    // при параллельном создании одинаковых имен.
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiErrorResponse>
+        handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        latencyRecorder.recordError(ex);
+        logger.warn("Нарушение ограничения целостности: {}", ex.getMostSpecificCause().getMessage());
+        ApiErrorResponse response = new ApiErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Данные конфликтуют с уже существующими",
+                ex.getMostSpecificCause().getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiErrorResponse> handleServiceBusy(ServiceBusyException ex) {
+        latencyRecorder.recordError(ex);
+        logger.warn("Сервис перегружен: {}", ex.getMessage());
+        ApiErrorResponse response = new ApiErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage(),
+                ex.toString());
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ApiErrorResponse>
         handleMethodArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        latencyRecorder.recordError(ex);
         logger.error("Ошибка преобразования типа: ", ex);
 
         if (ex.getRequiredType() != null && ex.getRequiredType().equals(Long.class)) {
@@ -77,6 +125,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorResponse> handleAllExceptions(Exception ex) {
+        latencyRecorder.recordError(ex);
         logger.error("Произошло непредвиденное исключение: ", ex);
         ApiErrorResponse response = new ApiErrorResponse(
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
@@ -0,0 +1,10 @@
+package com.example.simpleblogapi.exceptions;
+
+public class ResourceConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ResourceConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.simpleblogapi.exceptions;
+
+public class ServiceBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.simpleblogapi.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Множество идентификаторов статей одного тега. Битовая карта занимает
+ * {@code maxId / 8} байт независимо от числа статей, поэтому редкий тег
+ * хранится отсортированным массивом (4 байта на статью), а в битовую карту
+ * переходит, только когда она становится меньше массива. Обратно в массив
+ * множество возвращается при вдвое меньшей плотности, чтобы не переключаться
+ * на каждом изменении у границы. Не потокобезопасно.
+ */
+public final class ArticleIdSet {
+
+    // Мелкие множества всегда массивом: выигрыш битовой карты там ничтожен.
+    private static final int MIN_BITMAP_SIZE = 64;
+
+    private int[] ids = new int[4];
+    private int size;
+    private BitSet bits;
+
+    public boolean contains(int id) {
+        return bits != null ? bits.get(id) : Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    public boolean add(int id) {
+        if (bits != null) {
+            if (bits.get(id)) {
+                return false;
+            }
+            bits.set(id);
+            size++;
+            return true;
+        }
+        // Статьи чаще всего добавляются по возрастанию id: вставка в конец без поиска.
+        int position = size == 0 || id > ids[size - 1] ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return false;
+        }
+        int insert = -(position + 1);
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+        ids[insert] = id;
+        size++;
+        if (size >= MIN_BITMAP_SIZE && (long) size * Integer.SIZE > ids[size - 1]) {
+            toBitmap();
+        }
+        return true;
+    }
+
+    public boolean remove(int id) {
+        if (bits != null) {
+            if (!bits.get(id)) {
+                return false;
+            }
+            bits.clear(id);
+            size--;
+            if (size < MIN_BITMAP_SIZE / 2 || (long) size * Integer.SIZE * 2 < bits.length()) {
+                toArray();
+            }
+            return true;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isBitmap() {
+        return bits != null;
+    }
+
+    /**
+     * Добавляет идентификаторы множества в {@code target}.
+     */
+    public void orInto(BitSet target) {
+        if (bits != null) {
+            target.or(bits);
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            target.set(ids[i]);
+        }
+    }
+
+    public void forEach(IntConsumer action) {
+        if (bits != null) {
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                action.accept(i);
+            }
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            action.accept(ids[i]);
+        }
+    }
+
+    private void toBitmap() {
+        BitSet bitmap = new BitSet(ids[size - 1] + 1);
+        for (int i = 0; i < size; i++) {
+            bitmap.set(ids[i]);
+        }
+        bits = bitmap;
+        ids = null;
+    }
+
+    private void toArray() {
+        int[] array = new int[Math.max(size, 4)];
+        int count = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            array[count++] = i;
+        }
+        ids = array;
+        bits = null;
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.simpleblogapi.index;
+
+import com.example.simpleblogapi.dto.ArticleTagId;
+import com.example.simpleblogapi.dto.TagQueryResult;
+import com.example.simpleblogapi.entities.Tag;
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import com.example.simpleblogapi.repositories.TagRepository;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Инвертированный индекс «тег → множество статей» в памяти. Множества тегов
+ * хранятся в {@link ArticleIdSet}, память которого растет с числом статей
+ * тега, а не с наибольшим id; запрос собирает их во временные битовые карты,
+ * и условия «все из / любой из / ни одного из» сводятся к AND/OR/ANDNOT.
+ * Индекс строится из БД при старте и обновляется сервисами после коммита;
+ * число статей по каждому тегу передается в {@link TagNameIndex} для
+ * ранжирования подсказок.
+ */
+@Component
+public class TagArticleIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagArticleIndex.class);
+
+    private final ArticleRepository articleRepository;
+    private final TagRepository tagRepository;
+    private final TagNameIndex tagNameIndex;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, ArticleIdSet> articlesByTag = new HashMap<>();
+    private final Map<Integer, Set<Long>> tagsByArticle = new HashMap<>();
+    private final Map<String, Set<Long>> tagIdsByName = new HashMap<>();
+    private final Map<Long, String> tagNames = new HashMap<>();
+    private final BitSet allArticles = new BitSet();
+    private final Map<Long, Integer> articleCounts = new HashMap<>();
+
+    public TagArticleIndex(ArticleRepository articleRepository, TagRepository tagRepository,
+                           TagNameIndex tagNameIndex) {
+        this.articleRepository = articleRepository;
+        this.tagRepository = tagRepository;
+        this.tagNameIndex = tagNameIndex;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<Tag> tags = tagRepository.findAll();
+        List<Long> articleIds = articleRepository.findAllIds();
+        List<ArticleTagId> links = articleRepository.findAllArticleTagIds();
+
+        lock.writeLock().lock();
+        try {
+            articlesByTag.clear();
+            tagsByArticle.clear();
+            tagIdsByName.clear();
+            tagNames.clear();
+            allArticles.clear();
+            articleCounts.clear();
+            for (Tag tag : tags) {
+                putTagName(tag.getId(), tag.getName());
+            }
+            for (Long articleId : articleIds) {
+                allArticles.set(toIndex(articleId));
+            }
+            for (ArticleTagId link : links) {
+                link(toIndex(link.articleId()), link.tagId());
+            }
+            tagNameIndex.replacePopularity(articleCounts);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Tag index rebuilt: {} tags, {} articles, {} links in {} ms",
+                tags.size(), articleIds.size(), links.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void indexArticle(Long articleId, Collection<Long> tagIds) {
+        Set<Long> newTags = new HashSet<>(tagIds);
+        afterCommit(() -> {
+            int index = toIndex(articleId);
+            lock.writeLock().lock();
+            try {
+                Set<Long> changed = unlinkAll(index);
+                allArticles.set(index);
+                for (Long tagId : newTags) {
+                    link(index, tagId);
+                }
+                changed.addAll(newTags);
+                publishPopularity(changed);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void removeArticle(Long articleId) {
+        afterCommit(() -> {
+            int index = toIndex(articleId);
+            lock.writeLock().lock();
+            try {
+                publishPopularity(unlinkAll(index));
+                allArticles.clear(index);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void indexTag(Long tagId, String name) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeTagName(tagId);
+                putTagName(tagId, name);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void removeTag(Long tagId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeTagName(tagId);
+                articleCounts.remove(tagId);
+                ArticleIdSet articles = articlesByTag.remove(tagId);
+                if (articles != null) {
+                    articles.forEach(index -> {
+                        Set<Long> tags = tagsByArticle.get(index);
+                        if (tags != null) {
+                            tags.remove(tagId);
+                        }
+                    });
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Возвращает статьи, у которых есть все теги из {@code all}, хотя бы один
+     * из {@code any} и ни одного из {@code none}. Пустой список условия не
+     * ограничивает; неизвестный тег в {@code all} дает пустой результат.
+     */
+    public TagQueryResult query(Collection<String> all, Collection<String> any,
+                                Collection<String> none, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet result;
+            if (!all.isEmpty()) {
+                result = null;
+                for (String name : all) {
+                    BitSet tagged = articlesForName(name);
+                    if (result == null) {
+                        result = tagged;
+                    } else {
+                        result.and(tagged);
+                    }
+                }
+            } else {
+                result = (BitSet) allArticles.clone();
+            }
+            if (!any.isEmpty()) {
+                BitSet union = new BitSet();
+                for (String name : any) {
+                    union.or(articlesForName(name));
+                }
+                result.and(union);
+            }
+            for (String name : none) {
+                result.andNot(articlesForName(name));
+            }
+            return page(result, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static TagQueryResult page(BitSet result, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+        int skipped = 0;
+        for (int i = result.length() - 1; i >= 0 && ids.size() < limit;
+             i = result.previousSetBit(i - 1)) {
+            if (skipped++ >= offset) {
+                ids.add((long) i);
+            }
+        }
+        return new TagQueryResult(result.cardinality(), ids);
+    }
+
+    // Возвращает копию, которую вызывающий может изменять.
+    private BitSet articlesForName(String name) {
+        BitSet union = new BitSet();
+        Set<Long> tagIds = tagIdsByName.get(normalize(name));
+        if (tagIds != null) {
+            for (Long tagId : tagIds) {
+                ArticleIdSet articles = articlesByTag.get(tagId);
+                if (articles != null) {
+                    articles.orInto(union);
+                }
+            }
+        }
+        return union;
+    }
+
+    private void link(int articleIndex, Long tagId) {
+        if (articlesByTag.computeIfAbsent(tagId, key -> new ArticleIdSet()).add(articleIndex)) {
+            articleCounts.merge(tagId, 1, Integer::sum);
+        }
+        tagsByArticle.computeIfAbsent(articleIndex, key -> new HashSet<>()).add(tagId);
+    }
+
+    // Возвращает изменяемое множество тегов, с которыми была связана статья.
+    private Set<Long> unlinkAll(int articleIndex) {
+        Set<Long> tags = tagsByArticle.remove(articleIndex);
+        if (tags == null) {
+            return new HashSet<>();
+        }
+        for (Long tagId : tags) {
+            ArticleIdSet articles = articlesByTag.get(tagId);
+            if (articles != null && articles.remove(articleIndex)) {
+                articleCounts.computeIfPresent(tagId, (key, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+        return tags;
+    }
+
+    private void publishPopularity(Collection<Long> tagIds) {
+        for (Long tagId : tagIds) {
+            tagNameIndex.updatePopularity(tagId, articleCounts.getOrDefault(tagId, 0));
+        }
+    }
+
+    private void putTagName(Long tagId, String name) {
+        tagNames.put(tagId, name);
+        tagIdsByName.computeIfAbsent(normalize(name), key -> new HashSet<>()).add(tagId);
+    }
+
+    private void removeTagName(Long tagId) {
+        String previous = tagNames.remove(tagId);
+        if (previous == null) {
+            return;
+        }
+        String key = normalize(previous);
+        Set<Long> ids = tagIdsByName.get(key);
+        if (ids != null) {
+            ids.remove(tagId);
+            if (ids.isEmpty()) {
+                tagIdsByName.remove(key);
+            }
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int toIndex(Long articleId) {
+        return Math.toIntExact(articleId);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.simpleblogapi.index;
+
+import com.example.simpleblogapi.entities.Tag;
+import com.example.simpleblogapi.repositories.TagRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Индекс имен тегов в памяти для поиска по подстроке и автодополнения.
+ * Префиксное дерево хранится в сжатом виде — массивом нормализованных имен,
+ * отсортированным лексикографически: имена с общим префиксом лежат подряд,
+ * и их диапазон находится двоичным поиском. Для поиска по подстроке
+ * поддерживается триграммный индекс.
+ *
+ * <p>Результаты упорядочены по популярности тега (числу статей), которую
+ * сообщает {@link TagArticleIndex}. Небольшой набор кандидатов ранжируется
+ * целиком; для большого (короткий префикс, частая триграмма) теги
+ * перебираются в порядке популярности до первых {@code limit} совпадений,
+ * поэтому время ответа не растет с числом тегов.
+ * Индекс строится из БД при старте и обновляется {@code TagService}.
+ */
+@Component
+public class TagNameIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagNameIndex.class);
+
+    private static final int GRAM = 3;
+    private static final int SCAN_THRESHOLD = 1024;
+    private static final Comparator<Entry> BY_KEY =
+            Comparator.comparing((Entry entry) -> entry.key).thenComparingLong(entry -> entry.id);
+    // Сначала популярные, при равенстве — более короткие (ближе к запросу).
+    private static final Comparator<Entry> BY_RANK =
+            Comparator.comparingInt((Entry entry) -> entry.popularity).reversed()
+                    .thenComparingInt(entry -> entry.key.length())
+                    .thenComparing(BY_KEY);
+
+    private final TagRepository tagRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, List<Entry>> postings = new HashMap<>();
+    private final TreeSet<Entry> byRank = new TreeSet<>(BY_RANK);
+    // Переживает перестроение: порядок инициализации индексов не важен.
+    private final Map<Long, Integer> popularity = new HashMap<>();
+    private Entry[] sorted = new Entry[0];
+    private int size;
+
+    public TagNameIndex(TagRepository tagRepository) {
+        this.tagRepository = tagRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<Tag> tags = tagRepository.findAll();
+        int trigramCount;
+
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+            byRank.clear();
+            Entry[] all = new Entry[tags.size()];
+            int count = 0;
+            for (Tag tag : tags) {
+                Entry entry = newEntry(tag.getId(), tag.getName());
+                entries.put(entry.id, entry);
+                addTrigrams(entry);
+                byRank.add(entry);
+                all[count++] = entry;
+            }
+            Arrays.sort(all, 0, count, BY_KEY);
+            sorted = all;
+            size = count;
+            trigramCount = postings.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Tag name index rebuilt: {} tags, {} trigrams in {} ms",
+                tags.size(), trigramCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void put(Long tagId, String name) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(tagId);
+            if (previous != null) {
+                if (previous.name.equals(name)) {
+                    return;
+                }
+                unlink(previous);
+            }
+            Entry entry = newEntry(tagId, name);
+            entries.put(tagId, entry);
+            addTrigrams(entry);
+            byRank.add(entry);
+            insertSorted(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long tagId) {
+        lock.writeLock().lock();
+        try {
+            popularity.remove(tagId);
+            Entry previous = entries.get(tagId);
+            if (previous != null) {
+                unlink(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Задает популярность тега — число статей с ним.
+     */
+    public void updatePopularity(Long tagId, int articleCount) {
+        lock.writeLock().lock();
+        try {
+            setPopularity(tagId, articleCount);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Заменяет популярность всех тегов; тегам вне {@code articleCounts}
+     * назначается ноль.
+     */
+    public void replacePopularity(Map<Long, Integer> articleCounts) {
+        lock.writeLock().lock();
+        try {
+            for (Long tagId : new ArrayList<>(popularity.keySet())) {
+                if (!articleCounts.containsKey(tagId)) {
+                    setPopularity(tagId, 0);
+                }
+            }
+            articleCounts.forEach(this::setPopularity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает до {@code limit} самых популярных тегов, имя которых
+     * начинается с {@code prefix} (без учета регистра). Пустой префикс
+     * дает самые популярные теги вообще.
+     */
+    public List<Tag> autocomplete(String prefix, int limit) {
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(key);
+            int to = prefixEnd(key, from);
+            if (to - from > SCAN_THRESHOLD) {
+                return walkByRank(entry -> entry.key.startsWith(key), limit);
+            }
+            PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, BY_RANK.reversed());
+            for (int i = from; i < to; i++) {
+                offer(top, limit, sorted[i]);
+            }
+            return toTags(top);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает до {@code limit} самых популярных тегов, имя которых
+     * содержит {@code query} (без учета регистра). Запросы короче трех
+     * символов не покрываются триграммами и проверяются перебором тегов
+     * в порядке популярности.
+     */
+    public List<Tag> search(String query, int limit) {
+        String key = normalize(query);
+        lock.readLock().lock();
+        try {
+            List<Entry> candidates = null;
+            for (int i = 0; i + GRAM <= key.length(); i++) {
+                List<Entry> posting = postings.get(trigram(key, i));
+                if (posting == null) {
+                    return List.of();
+                }
+                if (candidates == null || posting.size() < candidates.size()) {
+                    candidates = posting;
+                }
+            }
+            if (candidates == null || candidates.size() > SCAN_THRESHOLD) {
+                return walkByRank(entry -> entry.key.contains(key), limit);
+            }
+            PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, BY_RANK.reversed());
+            for (Entry entry : candidates) {
+                if (entry.key.contains(key)) {
+                    offer(top, limit, entry);
+                }
+            }
+            return toTags(top);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Tag> walkByRank(Predicate<Entry> matches, int limit) {
+        List<Tag> tags = new ArrayList<>(limit);
+        for (Entry entry : byRank) {
+            if (matches.test(entry)) {
+                tags.add(entry.toTag());
+                if (tags.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return tags;
+    }
+
+    private static void offer(PriorityQueue<Entry> top, int limit, Entry entry) {
+        if (top.size() < limit) {
+            top.add(entry);
+        } else if (BY_RANK.compare(entry, top.peek()) < 0) {
+            top.poll();
+            top.add(entry);
+        }
+    }
+
+    private static List<Tag> toTags(PriorityQueue<Entry> top) {
+        Entry[] ranked = top.toArray(new Entry[0]);
+        Arrays.sort(ranked, BY_RANK);
+        List<Tag> tags = new ArrayList<>(ranked.length);
+        for (Entry entry : ranked) {
+            tags.add(entry.toTag());
+        }
+        return tags;
+    }
+
+    private Entry newEntry(Long tagId, String name) {
+        Entry entry = new Entry(tagId, name);
+        entry.popularity = popularity.getOrDefault(tagId, 0);
+        return entry;
+    }
+
+    private void setPopularity(Long tagId, int articleCount) {
+        if (articleCount > 0) {
+            popularity.put(tagId, articleCount);
+        } else {
+            popularity.remove(tagId);
+        }
+        Entry entry = entries.get(tagId);
+        if (entry != null && entry.popularity != articleCount) {
+            // Позиция в TreeSet зависит от популярности: переставляем запись.
+            byRank.remove(entry);
+            entry.popularity = articleCount;
+            byRank.add(entry);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        entries.remove(entry.id);
+        byRank.remove(entry);
+        removeTrigrams(entry);
+        int position = Arrays.binarySearch(sorted, 0, size, entry, BY_KEY);
+        if (position >= 0) {
+            System.arraycopy(sorted, position + 1, sorted, position, size - position - 1);
+            sorted[--size] = null;
+        }
+    }
+
+    private void insertSorted(Entry entry) {
+        int position = Arrays.binarySearch(sorted, 0, size, entry, BY_KEY);
+        position = position < 0 ? -(position + 1) : position;
+        if (size == sorted.length) {
+            sorted = Arrays.copyOf(sorted, Math.max(16, size * 2));
+        }
+        System.arraycopy(sorted, position, sorted, position + 1, size - position);
+        sorted[position] = entry;
+        size++;
+    }
+
+    // Первая позиция, ключ в которой не меньше заданного.
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].key.compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Первая позиция после from, ключ в которой уже не начинается с prefix.
+    private int prefixEnd(String prefix, int from) {
+        int low = from;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].key.startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void addTrigrams(Entry entry) {
+        for (int i = 0; i + GRAM <= entry.key.length(); i++) {
+            List<Entry> posting = postings.computeIfAbsent(trigram(entry.key, i), key -> new ArrayList<>());
+            // Повтор триграммы в том же имени: запись уже добавлена последней.
+            if (posting.isEmpty() || posting.get(posting.size() - 1) != entry) {
+                posting.add(entry);
+            }
+        }
+    }
+
+    private void removeTrigrams(Entry entry) {
+        for (int i = 0; i + GRAM <= entry.key.length(); i++) {
+            long gram = trigram(entry.key, i);
+            List<Entry> posting = postings.get(gram);
+            if (posting != null && posting.remove(entry) && posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static long trigram(String key, int offset) {
+        return ((long) key.charAt(offset) << 32)
+                | ((long) key.charAt(offset + 1) << 16)
+                | key.charAt(offset + 2);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final String name;
+        private final String key;
+        private int popularity;
+
+        private Entry(long id, String name) {
+            this.id = id;
+            this.name = name;
+            this.key = normalize(name);
+        }
+
+        private Tag toTag() {
+            return new Tag(id, name, null);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.simpleblogapi.logs;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Кодирует событие лога в одну строку JSON:
+ * {@code {"ts":"2025-04-13T10:00:00.123+03:00","level":"INFO","thread":"main",
+ * "logger":"...","correlationId":"...","msg":"...","stack":"..."}}.
+ * Поля {@code correlationId} и {@code stack} пишутся, только если есть.
+ *
+ * <p>Кодировщик пишет UTF-8 сам в переиспользуемый буфер, без
+ * промежуточных строк и JSON-библиотеки: на событие создается только
+ * итоговый массив байт. Префикс времени с точностью до секунды
+ * пересчитывается раз в секунду. Рассчитан на вызов из одного потока
+ * {@code AsyncAppender}; параллельные вызовы сериализуются.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+
+    /**
+     * Ключ MDC с идентификатором запроса.
+     */
+    public static final String CORRELATION_ID = "correlationId";
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final DateTimeFormatter SECOND_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    // Буфер, выросший на огромном стек-трейсе, не держится дольше одного события.
+    private static final int RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int length;
+    private long cachedSecond = Long.MIN_VALUE;
+    private byte[] cachedSecondText = EMPTY;
+    private byte[] cachedOffsetText = EMPTY;
+
+    @Override
+    public byte[] headerBytes() {
+        return EMPTY;
+    }
+
+    @Override
+    public synchronized byte[] encode(ILoggingEvent event) {
+        length = 0;
+        ascii("{\"ts\":\"");
+        timestamp(event.getTimeStamp());
+        ascii("\",\"level\":\"");
+        ascii(event.getLevel().toString());
+        ascii("\",\"thread\":\"");
+        escaped(event.getThreadName());
+        ascii("\",\"logger\":\"");
+        escaped(event.getLoggerName());
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        String correlationId = mdc != null ? mdc.get(CORRELATION_ID) : null;
+        if (correlationId != null) {
+            ascii("\",\"correlationId\":\"");
+            escaped(correlationId);
+        }
+        ascii("\",\"msg\":\"");
+        escaped(event.getFormattedMessage());
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            ascii("\",\"stack\":\"");
+            escaped(ThrowableProxyUtil.asString(throwable));
+        }
+        ascii("\"}\n");
+        byte[] encoded = Arrays.copyOf(buffer, length);
+        if (buffer.length > RETAINED_BUFFER_SIZE) {
+            buffer = new byte[INITIAL_BUFFER_SIZE];
+        }
+        return encoded;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return EMPTY;
+    }
+
+    private void timestamp(long epochMillis) {
+        long second = Math.floorDiv(epochMillis, 1000);
+        if (second != cachedSecond) {
+            Instant instant = Instant.ofEpochSecond(second);
+            ZoneOffset offset = zone.getRules().getOffset(instant);
+            cachedSecondText = SECOND_FORMAT.format(LocalDateTime.ofEpochSecond(second, 0, offset))
+                    .getBytes(StandardCharsets.US_ASCII);
+            cachedOffsetText = offset.getId().getBytes(StandardCharsets.US_ASCII);
+            cachedSecond = second;
+        }
+        raw(cachedSecondText);
+        int millis = Math.floorMod(epochMillis, 1000);
+        ensure(4);
+        buffer[length++] = '.';
+        buffer[length++] = (byte) ('0' + millis / 100);
+        buffer[length++] = (byte) ('0' + millis / 10 % 10);
+        buffer[length++] = (byte) ('0' + millis % 10);
+        raw(cachedOffsetText);
+    }
+
+    private void raw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    // Только для констант и имен уровней: символы ASCII без экранирования.
+    private void ascii(String text) {
+        int size = text.length();
+        ensure(size);
+        for (int i = 0; i < size; i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void escaped(String text) {
+        if (text == null) {
+            return;
+        }
+        int size = text.length();
+        // Худший случай — шесть байт на управляющий символ.
+        ensure(size * 6);
+        for (int i = 0; i < size; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[length++] = '\\';
+                }
+                buffer[length++] = (byte) c;
+            } else if (c < 0x20) {
+                buffer[length++] = '\\';
+                switch (c) {
+                    case '\n' -> buffer[length++] = 'n';
+                    case '\r' -> buffer[length++] = 'r';
+                    case '\t' -> buffer[length++] = 't';
+                    default -> {
+                        buffer[length++] = 'u';
+                        buffer[length++] = '0';
+                        buffer[length++] = '0';
+                        buffer[length++] = HEX[c >> 4];
+                        buffer[length++] = HEX[c & 0xF];
+                    }
+                }
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | (c >> 6));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < size
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Непарный суррогат не кодируется в UTF-8.
+                buffer[length++] = '?';
+            } else {
+                buffer[length++] = (byte) (0xE0 | (c >> 12));
+                buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
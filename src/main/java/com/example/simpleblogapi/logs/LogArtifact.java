@@ -0,0 +1,22 @@
+package com.example.simpleblogapi.logs;
+
+import java.nio.file.Path;
+
+/**
+ * Готовый файл со строками лога за дату. Запечатанный файл построен после
+ * окончания дня и больше не меняется. Рядом лежит его сжатая gzip-копия,
+ * записанная одновременно с ним; у файлов, построенных до появления
+ * сжатия, ее нет и {@code compressedFile} равен null.
+ */
+public record LogArtifact(String date, Path file, long size, Path compressedFile,
+                          long compressedSize, boolean sealed) {
+
+    private static final String COMPRESSED_SUFFIX = ".gz";
+
+    /**
+     * Имя сжатой копии файла: к имени добавляется {@code .gz}.
+     */
+    public static Path compressedSibling(Path file) {
+        return file.resolveSibling(file.getFileName() + COMPRESSED_SUFFIX);
+    }
+}
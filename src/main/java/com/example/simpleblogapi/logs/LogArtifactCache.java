@@ -0,0 +1,432 @@
+package com.example.simpleblogapi.logs;
+
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Общий для синхронной выгрузки и фоновых задач кэш файлов со строками
+ * лога за дату.
+ *
+ * <p>Файл за прошедший день, построенный после его окончания (с запасом
+ * {@code logs.artifacts.seal-delay-ms} на запоздавшие строки и ротацию),
+ * запечатывается: {@code daily-log-<дата>.log} отдается с диска без
+ * обращения к логам. Файл за текущий день помечается отпечатком
+ * источников — идентификатора файла (inode), границ участка несжатого
+ * файла, размера и времени изменения архива — и перестраивается, только
+ * когда отпечаток меняется. Одновременные запросы одного файла ждут одно и
+ * то же построение. Вскоре после полуночи файл за вчера строится заранее.
+ *
+ * <p>Строки пишутся сразу в два файла: обычный и его gzip-копию
+ * ({@link LogArtifact#compressedSibling}) с уровнем сжатия
+ * {@code logs.artifacts.compression-level}, так что сжатая выгрузка не
+ * требует ни второго прохода, ни сжатия на лету при каждом запросе.
+ */
+@Component
+public class LogArtifactCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogArtifactCache.class);
+
+    private static final String PREFIX = "daily-log-";
+    private static final Pattern ARTIFACT_NAME =
+            Pattern.compile(Pattern.quote(PREFIX)
+                    + "(\\d{4}-\\d{2}-\\d{2})(?:@([0-9a-f]+))?\\.log(\\.gz)?");
+    private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+
+    private final LogFileExtractor extractor;
+    private final Path directory;
+    private final Duration sealDelay;
+    private final int retentionDays;
+    private final int compressionLevel;
+    private final Map<String, Generation> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+
+    public LogArtifactCache(LogFileExtractor extractor,
+                            @Value("${logs.artifacts.directory:logs/artifacts}") String directory,
+                            @Value("${logs.artifacts.seal-delay-ms:300000}") long sealDelayMs,
+                            @Value("${logs.artifacts.retention-days:30}") int retentionDays,
+                            @Value("${logs.artifacts.compression-level:1}") int compressionLevel) {
+        this.extractor = extractor;
+        this.directory = Path.of(directory);
+        this.sealDelay = Duration.ofMillis(sealDelayMs);
+        this.retentionDays = retentionDays;
+        this.compressionLevel = compressionLevel;
+    }
+
+    public LogArtifact get(String date) throws IOException {
+        return get(date, progress -> { });
+    }
+
+    /**
+     * Возвращает файл строк лога за дату, при необходимости строя его.
+     * {@code onProgress} получает прогресс построения, которое выполняет
+     * или ждет вызывающий.
+     *
+     * @throws InvalidInputException если дата не разбирается
+     * @throws ResourceNotFoundException если логов за дату нет
+     */
+    public LogArtifact get(String date, Consumer<LogScanProgress> onProgress) throws IOException {
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException ex) {
+            throw new InvalidInputException("Неверный формат даты.");
+        }
+        LocalDateTime sealAt = day.plusDays(1).atStartOfDay().plus(sealDelay);
+        while (true) {
+            boolean sealed = !LocalDateTime.now().isBefore(sealAt);
+            Path sealedFile = directory.resolve(PREFIX + date + ".log");
+            LogArtifact cached = existing(date, sealedFile, true);
+            if (cached != null) {
+                return cached;
+            }
+            LogExtract extract = extractor.findDay(date);
+            Path target = sealed ? sealedFile
+                    : directory.resolve(PREFIX + date + "@" + fingerprint(extract) + ".log");
+            if (!sealed) {
+                cached = existing(date, target, false);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+
+            Generation generation = new Generation();
+            Generation running = inFlight.putIfAbsent(target.toString(), generation);
+            if (running != null) {
+                joined.increment();
+                onProgress.accept(running.progress);
+                LogArtifact result = running.await();
+                if (result != null) {
+                    return result;
+                }
+                // Построение прервала отмена его владельца: попробуем сами.
+                continue;
+            }
+            try {
+                onProgress.accept(generation.progress);
+                LogArtifact result = generate(date, extract, target, sealed, generation.progress);
+                generation.result.complete(result);
+                return result;
+            } catch (InterruptedIOException | ClosedByInterruptException ex) {
+                generation.result.cancel(false);
+                throw ex;
+            } catch (IOException | RuntimeException ex) {
+                generation.result.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(target.toString(), generation);
+            }
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long generatedCount() {
+        return generated.sum();
+    }
+
+    public long joinedCount() {
+        return joined.sum();
+    }
+
+    /**
+     * Заранее строит файл за вчера, чтобы первый запрос утром не ждал.
+     */
+    @Scheduled(cron = "${logs.artifacts.precompute-cron:0 10 0 * * *}")
+    public void precomputeYesterday() {
+        String yesterday = LocalDate.now().minusDays(1).toString();
+        try {
+            LogArtifact artifact = get(yesterday);
+            logger.info("Precomputed log artifact for {}: {} bytes", yesterday, artifact.size());
+        } catch (ResourceNotFoundException ex) {
+            logger.info("No logs to precompute for {}", yesterday);
+        } catch (IOException ex) {
+            logger.warn("Failed to precompute log artifact for {}: {}", yesterday, ex.getMessage());
+        }
+    }
+
+    /**
+     * Удаляет файлы за дни старше срока хранения, устаревшие версии файлов
+     * текущего дня и файлы дней, для которых уже есть запечатанный файл, а
+     * также брошенные временные файлы.
+     */
+    @Scheduled(fixedDelayString = "${logs.artifacts.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        Map<String, Path> latest = new HashMap<>();
+        Instant staleTemporary = Instant.now().minus(Duration.ofHours(1));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(staleTemporary)) {
+                        deleteQuietly(file);
+                    }
+                    continue;
+                }
+                Matcher matcher = ARTIFACT_NAME.matcher(name);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                String date = matcher.group(1);
+                if (LocalDate.parse(date).isBefore(oldest)) {
+                    deleteQuietly(file);
+                } else if (matcher.group(2) != null) {
+                    if (Files.exists(directory.resolve(PREFIX + date + ".log"))) {
+                        deleteQuietly(file);
+                        continue;
+                    }
+                    // Обычные файлы и сжатые копии сравниваются отдельно.
+                    String key = matcher.group(3) != null ? date + matcher.group(3) : date;
+                    Path previous = latest.get(key);
+                    if (previous == null || isNewer(file, previous)) {
+                        latest.put(key, file);
+                        if (previous != null) {
+                            deleteQuietly(previous);
+                        }
+                    } else {
+                        deleteQuietly(file);
+                    }
+                }
+            }
+        } catch (IOException | DateTimeParseException ex) {
+            logger.warn("Failed to clean up log artifacts: {}", ex.getMessage());
+        }
+    }
+
+    private LogArtifact existing(String date, Path file, boolean sealed) throws IOException {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+        hits.increment();
+        // Сжатая копия переносится на место раньше обычного файла.
+        Path compressed = LogArtifact.compressedSibling(file);
+        try {
+            return new LogArtifact(date, file, size, compressed, Files.size(compressed), sealed);
+        } catch (NoSuchFileException ex) {
+            return new LogArtifact(date, file, size, null, 0, sealed);
+        }
+    }
+
+    private LogArtifact generate(String date, LogExtract extract, Path target, boolean sealed,
+                                 LogScanProgress progress) throws IOException {
+        Files.createDirectories(directory);
+        progress.setBytesTotal(extract.bytesTotal());
+        Path temporary = Files.createTempFile(directory, "." + PREFIX + date + "-", ".tmp");
+        Path compressedTemporary = null;
+        try {
+            compressedTemporary = Files.createTempFile(directory, "." + PREFIX + date + "-", ".gz.tmp");
+            long written;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 FileChannel compressedChannel = FileChannel.open(compressedTemporary,
+                         StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 OutputStream compressed = new LeveledGzipOutputStream(
+                         Channels.newOutputStream(compressedChannel), compressionLevel)) {
+                written = extractor.write(extract, new CompressingChannel(channel, compressed),
+                        progress);
+            }
+            long compressedSize = Files.size(compressedTemporary);
+            Path compressedTarget = LogArtifact.compressedSibling(target);
+            move(compressedTemporary, compressedTarget);
+            move(temporary, target);
+            generated.increment();
+            logger.info("Built {} log artifact for {}: {} bytes, {} compressed",
+                    sealed ? "sealed" : "current", date, written, compressedSize);
+            if (!sealed) {
+                deleteSuperseded(date, target);
+            }
+            return new LogArtifact(date, target, written, compressedTarget, compressedSize, sealed);
+        } finally {
+            deleteQuietly(temporary);
+            if (compressedTemporary != null) {
+                deleteQuietly(compressedTemporary);
+            }
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Уже открытые предыдущие версии дочитываются: файл удаляется только из каталога.
+    private void deleteSuperseded(String date, Path current) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                PREFIX + date + "@*.log{,.gz}")) {
+            Path currentCompressed = LogArtifact.compressedSibling(current);
+            for (Path file : files) {
+                if (!file.equals(current) && !file.equals(currentCompressed)) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to remove superseded log artifacts for {}: {}", date, ex.getMessage());
+        }
+    }
+
+    /**
+     * Отпечаток источников выборки: участки несжатых файлов задаются
+     * идентификатором файла и границами, так что дописывание строк за
+     * другие дни его не меняет; архивы — идентификатором, размером и
+     * временем изменения.
+     */
+    private static String fingerprint(LogExtract extract) throws IOException {
+        StringBuilder sources = new StringBuilder();
+        for (LogSlice slice : extract.slices()) {
+            sources.append(slice.fileId()).append(':')
+                    .append(slice.start()).append('-').append(slice.end());
+            if (slice.compressed()) {
+                try {
+                    sources.append('@').append(Files.getLastModifiedTime(slice.file()).toMillis());
+                } catch (NoSuchFileException ex) {
+                    // Удален очисткой истории; отпечаток все равно изменился.
+                }
+            }
+            sources.append(';');
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(sources.toString().getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(checksum.getValue());
+    }
+
+    private static boolean isNewer(Path file, Path other) throws IOException {
+        return Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(other)) > 0;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            logger.warn("Failed to delete log artifact {}: {}", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Пишет каждый блок строк в обычный файл и тут же сжимает его в копию.
+     */
+    private static final class CompressingChannel implements WritableByteChannel {
+        private final WritableByteChannel plain;
+        private final OutputStream compressed;
+        private byte[] scratch = new byte[0];
+
+        private CompressingChannel(WritableByteChannel plain, OutputStream compressed) {
+            this.plain = plain;
+            this.compressed = compressed;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            int length = source.remaining();
+            ByteBuffer block = source.duplicate();
+            while (source.hasRemaining()) {
+                plain.write(source);
+            }
+            if (block.hasArray()) {
+                compressed.write(block.array(), block.arrayOffset() + block.position(), length);
+            } else {
+                if (scratch.length < length) {
+                    scratch = new byte[length];
+                }
+                block.get(scratch, 0, length);
+                compressed.write(scratch, 0, length);
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return plain.isOpen();
+        }
+
+        // Потоки закрывает владелец.
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        private LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, COMPRESSION_BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+
+    private static final class Generation {
+        private final CompletableFuture<LogArtifact> result = new CompletableFuture<>();
+        private final LogScanProgress progress = new LogScanProgress();
+
+        // null, если владелец построения был отменен.
+        private LogArtifact await() throws IOException {
+            try {
+                return result.get();
+            } catch (CancellationException ex) {
+                return null;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for log artifact");
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof IOException io) {
+                    throw io;
+                }
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new UncheckedIOException(new IOException(cause));
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.simpleblogapi.logs;
+
+import java.util.List;
+
+/**
+ * Выборка строк лога за диапазон дат {@code [from, to]}: участки файлов в
+ * хронологическом порядке. Строка попадает в выборку, если ее первые десять
+ * байт — дата из диапазона; строки без даты (продолжения стек-трейсов)
+ * отбрасываются.
+ */
+public record LogExtract(byte[] from, byte[] to, List<LogSlice> slices) {
+
+    /**
+     * Сколько байт предстоит прочитать: для архивов — сжатый размер.
+     */
+    public long bytesTotal() {
+        long total = 0;
+        for (LogSlice slice : slices) {
+            total += slice.end() - slice.start();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,642 @@
+package com.example.simpleblogapi.logs;
+
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Выборка строк лога за диапазон дат без загрузки файлов в память.
+ *
+ * <p>Источники — сжатые архивы ротации {@code <имя>.yyyy-MM-dd.N.log.gz},
+ * ротированные копии {@code <имя>.log.N} и основной файл. Архивы выбираются
+ * по дате в имени и распаковываются потоком параллельно в общем
+ * fork-join пуле, каждый во временный файл; результаты отдаются в
+ * приемник строго по порядку архивов, как только готов очередной, поэтому
+ * выгрузка за много дней идет на всех ядрах, а порядок строк сохраняется.
+ *
+ * <p>Нужный участок несжатых файлов находится по {@link LogTimeIndex};
+ * внутри участка дата в начале строки сравнивается как байты, без
+ * декодирования, а подряд идущие подходящие строки копируются одним
+ * {@link FileChannel#transferTo} прямо из файла.
+ */
+@Component
+public class LogFileExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogFileExtractor.class);
+
+    private static final byte NEWLINE = '\n';
+    private static final int DATE_LENGTH = 10;
+    // Строки пишутся почти по порядку: запись, начатая до полуночи, может
+    // попасть в файл сразу после первой строки следующего дня.
+    private static final long TAIL_SLACK = 64 * 1024;
+
+    private final Path logFile;
+    private final int bufferSize;
+    private final Pattern archivePattern;
+    private final ForkJoinPool archivePool;
+    private final Map<Path, LogTimeIndex> indexes = new ConcurrentHashMap<>();
+
+    public LogFileExtractor(@Value("${logs.file:logs/app.log}") String logFile,
+                            @Value("${logs.extract.buffer-size:262144}") int bufferSize,
+                            @Value("${logs.extract.parallelism:0}") int parallelism) {
+        this.logFile = Path.of(logFile);
+        this.bufferSize = Math.max(bufferSize, 64);
+        String name = this.logFile.getFileName().toString();
+        String base = name.endsWith(".log") ? name.substring(0, name.length() - 4) : name;
+        this.archivePattern = Pattern.compile(
+                Pattern.quote(base) + "\\.(\\d{4}-\\d{2}-\\d{2})(?:\\.(\\d+))?\\.log\\.gz");
+        this.archivePool = new ForkJoinPool(parallelism > 0
+                ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public Path logFile() {
+        return logFile;
+    }
+
+    /**
+     * Находит строки за дату {@code date}.
+     *
+     * @throws ResourceNotFoundException если лог-файла нет или строк за
+     *     дату в нем нет
+     */
+    public LogExtract findDay(String date) throws IOException {
+        return find(date, date);
+    }
+
+    /**
+     * Находит строки с датами от {@code from} до {@code to} включительно в
+     * архивах, ротированных копиях и основном лог-файле.
+     *
+     * @throws InvalidInputException если дата не разбирается или конец
+     *     диапазона раньше начала
+     * @throws ResourceNotFoundException если логов нет вовсе или строк за
+     *     диапазон в них нет
+     */
+    public LogExtract find(String from, String to) throws IOException {
+        LocalDate first = parseDate(from);
+        LocalDate last = parseDate(to);
+        if (last.isBefore(first)) {
+            throw new InvalidInputException("Конечная дата раньше начальной.");
+        }
+        LocalDate next = last.plusDays(1);
+        return find(first, last, hourKey(first.atStartOfDay()), hourKey(next.atStartOfDay()));
+    }
+
+    /**
+     * Находит строки за дни интервала {@code [from, to]}; участки несжатых
+     * файлов сужаются по индексу до часов интервала. Отбор по времени
+     * внутри часа остается вызывающему.
+     *
+     * @throws InvalidInputException если конец интервала раньше начала
+     * @throws ResourceNotFoundException если логов нет вовсе или строк за
+     *     интервал в них нет
+     */
+    public LogExtract find(LocalDateTime from, LocalDateTime to) throws IOException {
+        if (to.isBefore(from)) {
+            throw new InvalidInputException("Конец интервала раньше начала.");
+        }
+        return find(from.toLocalDate(), to.toLocalDate(), hourKey(from),
+                hourKey(to.truncatedTo(ChronoUnit.HOURS).plusHours(1)));
+    }
+
+    private LogExtract find(LocalDate first, LocalDate last, long fromKey, long toKey)
+            throws IOException {
+        TreeMap<String, Path> archives = archives(first, last);
+        if (!Files.exists(logFile) && archives.isEmpty()) {
+            throw new ResourceNotFoundException("Основной лог-файл не найден.");
+        }
+        byte[] fromBytes = first.toString().getBytes(StandardCharsets.US_ASCII);
+        byte[] toBytes = last.toString().getBytes(StandardCharsets.US_ASCII);
+
+        List<Path> plainFiles = logFiles();
+        List<LogSlice> slices = new ArrayList<>();
+        // Копии прежней ротации по номеру старше архивов по дате.
+        for (Path file : plainFiles.subList(0, plainFiles.size() - 1)) {
+            addPlainSlice(slices, file, fromKey, toKey, fromBytes, toBytes);
+        }
+        for (Path archive : archives.values()) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+                slices.add(new LogSlice(archive, LogTimeIndex.fileId(attributes), true,
+                        0, attributes.size()));
+            } catch (NoSuchFileException ex) {
+                // Удален очисткой истории между поиском и чтением атрибутов.
+            }
+        }
+        addPlainSlice(slices, logFile, fromKey, toKey, fromBytes, toBytes);
+
+        if (slices.isEmpty()) {
+            throw new ResourceNotFoundException("Логи за указанную дату не найдены.");
+        }
+        return new LogExtract(fromBytes, toBytes, slices);
+    }
+
+    /**
+     * Копирует строки выборки в {@code out}.
+     *
+     * @return число записанных байт
+     */
+    public long write(LogExtract extract, OutputStream out) throws IOException {
+        return write(extract, Channels.newChannel(out));
+    }
+
+    public long write(LogExtract extract, WritableByteChannel target) throws IOException {
+        return write(extract, target, null);
+    }
+
+    /**
+     * Копирует строки выборки в {@code target}, по ходу учитывая в
+     * {@code progress} прочитанные байты и найденные строки.
+     *
+     * @param progress прогресс выборки или {@code null}
+     * @return число записанных байт
+     */
+    public long write(LogExtract extract, WritableByteChannel target, LogScanProgress progress)
+            throws IOException {
+        List<LogSlice> slices = extract.slices();
+        ForkJoinTask<Path>[] unpacked = newTaskArray(slices.size());
+        AtomicBoolean aborted = new AtomicBoolean();
+        // Распаковка идет с опережением выдачи не больше чем на окно архивов,
+        // чтобы медленный клиент не заставил распаковать на диск все сразу.
+        int window = archivePool.getParallelism() * 2;
+        int submitted = 0;
+        long written = 0;
+        try {
+            for (int i = 0; i < slices.size(); i++) {
+                for (; submitted < slices.size() && submitted <= i + window; submitted++) {
+                    LogSlice slice = slices.get(submitted);
+                    if (slice.compressed()) {
+                        unpacked[submitted] = archivePool.submit(
+                                () -> unpack(slice, extract, aborted, progress));
+                    }
+                }
+                LogSlice slice = slices.get(i);
+                if (slice.compressed()) {
+                    ForkJoinTask<Path> task = unpacked[i];
+                    unpacked[i] = null;
+                    written += transferUnpacked(join(task), target);
+                } else {
+                    try (FileChannel channel = open(slice)) {
+                        written += scan(channel, slice.start(), slice.end(),
+                                extract.from(), extract.to(), target, progress);
+                    }
+                }
+            }
+            return written;
+        } finally {
+            aborted.set(true);
+            for (ForkJoinTask<Path> task : unpacked) {
+                if (task != null) {
+                    discard(task);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ForkJoinTask<T>[] newTaskArray(int size) {
+        return (ForkJoinTask<T>[]) new ForkJoinTask<?>[size];
+    }
+
+    // Пул и буфер выборки общие для поиска по логам.
+    ForkJoinPool pool() {
+        return archivePool;
+    }
+
+    int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Дочитывает индексы по мере роста лога, чтобы запрос не ждал
+     * индексации, и забывает индексы удаленных файлов.
+     */
+    @Scheduled(fixedDelayString = "${logs.index.refresh-interval-ms:5000}")
+    public void refreshIndexes() {
+        List<Path> files = logFiles();
+        for (Path file : files) {
+            try {
+                index(file).refresh();
+            } catch (NoSuchFileException ex) {
+                // Файл удалила ротация — уберем индекс ниже.
+            } catch (IOException ex) {
+                logger.warn("Failed to refresh log index for {}: {}", file, ex.getMessage());
+            }
+        }
+        indexes.keySet().removeIf(file -> !Files.exists(file));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        archivePool.shutdownNow();
+    }
+
+    /**
+     * Несжатые файлы лога: ротированные копии {@code <имя>.N} от старых к
+     * новым, затем основной файл.
+     */
+    List<Path> logFiles() {
+        String name = logFile.getFileName().toString();
+        TreeMap<Integer, Path> rotated = new TreeMap<>(Comparator.reverseOrder());
+        for (Path path : listDirectory(name + ".*")) {
+            String suffix = path.getFileName().toString().substring(name.length() + 1);
+            if (!suffix.isEmpty() && suffix.length() < 10 && suffix.chars().allMatch(Character::isDigit)) {
+                rotated.put(Integer.parseInt(suffix), path);
+            }
+        }
+        List<Path> files = new ArrayList<>(rotated.values());
+        files.add(logFile);
+        return files;
+    }
+
+    /**
+     * Сжатые архивы с датой в имени из {@code [from, to]}, упорядоченные по
+     * дате и номеру части.
+     */
+    private TreeMap<String, Path> archives(LocalDate from, LocalDate to) {
+        TreeMap<String, Path> archives = new TreeMap<>();
+        for (Path path : listDirectory("*.gz")) {
+            Matcher matcher = archivePattern.matcher(path.getFileName().toString());
+            if (!matcher.matches()) {
+                continue;
+            }
+            LocalDate date;
+            try {
+                date = LocalDate.parse(matcher.group(1));
+            } catch (DateTimeParseException ex) {
+                continue;
+            }
+            if (!date.isBefore(from) && !date.isAfter(to)) {
+                String part = matcher.group(2) == null ? "0" : matcher.group(2);
+                // Номер части дополняется нулями, чтобы часть 10 шла после 9.
+                archives.put(matcher.group(1) + "#" + "0".repeat(Math.max(0, 10 - part.length())) + part,
+                        path);
+            }
+        }
+        return archives;
+    }
+
+    private List<Path> listDirectory(String glob) {
+        Path directory = logFile.toAbsolutePath().getParent();
+        List<Path> paths = new ArrayList<>();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return paths;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path path : stream) {
+                paths.add(logFile.resolveSibling(path.getFileName()));
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to list log files: {}", ex.getMessage());
+        }
+        return paths;
+    }
+
+    private void addPlainSlice(List<LogSlice> slices, Path file, long fromKey, long toKey,
+                               byte[] from, byte[] to) throws IOException {
+        LogTimeIndex index = index(file);
+        String fileId;
+        try {
+            fileId = index.refresh();
+        } catch (NoSuchFileException ex) {
+            return;
+        }
+        long[] range = index.range(fromKey, toKey);
+        long indexedLength = index.indexedLength();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (range == null) {
+                // Недописанная последняя строка еще не в индексе.
+                if (indexedLength >= size) {
+                    return;
+                }
+                range = new long[] {indexedLength, Long.MAX_VALUE};
+            }
+            long end = range[1] == Long.MAX_VALUE ? size : Math.min(size, range[1] + TAIL_SLACK);
+            long start = scan(channel, range[0], end, from, to, null, null);
+            if (start >= 0) {
+                slices.add(new LogSlice(file, fileId, false, start, end));
+            }
+        } catch (NoSuchFileException ex) {
+            // Удален ротацией после обновления индекса.
+        }
+    }
+
+    private LogTimeIndex index(Path file) {
+        return indexes.computeIfAbsent(file, path -> new LogTimeIndex(path, bufferSize));
+    }
+
+    /**
+     * Распаковывает архив потоком, оставляя подходящие строки, во временный
+     * файл. Прерывается, если выдача уже завершилась.
+     */
+    private Path unpack(LogSlice slice, LogExtract extract, AtomicBoolean aborted,
+                        LogScanProgress progress) {
+        Path temporary = null;
+        try (InputStream file = Files.newInputStream(slice.file());
+             InputStream in = new GZIPInputStream(
+                     progress != null ? new ProgressInputStream(file, progress) : file, 64 * 1024)) {
+            temporary = Files.createTempFile("log-extract-", ".log");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024)) {
+                copyMatching(in, out, extract.from(), extract.to(), aborted, progress);
+            }
+            return temporary;
+        } catch (IOException ex) {
+            deleteQuietly(temporary);
+            throw new UncheckedIOException("Failed to read log archive " + slice.file(), ex);
+        } catch (RuntimeException ex) {
+            deleteQuietly(temporary);
+            throw ex;
+        }
+    }
+
+    private void copyMatching(InputStream in, OutputStream out, byte[] from, byte[] to,
+                              AtomicBoolean aborted, LogScanProgress progress) throws IOException {
+        byte[] bytes = new byte[bufferSize];
+        int available = 0;
+        boolean lineStart = true;
+        boolean matching = false;
+        boolean eof = false;
+        while (!eof || available > 0) {
+            if (aborted.get()) {
+                return;
+            }
+            if (!eof) {
+                int read = in.read(bytes, available, bytes.length - available);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    available += read;
+                }
+            }
+            int i = 0;
+            int matched = 0;
+            while (i < available) {
+                if (lineStart) {
+                    // Дата не поместилась целиком: дочитать, сдвинув остаток в начало.
+                    if (available - i < DATE_LENGTH && !eof) {
+                        break;
+                    }
+                    matching = inRange(bytes, i, available, from, to);
+                    if (matching) {
+                        matched++;
+                    }
+                    lineStart = false;
+                }
+                int newline = indexOf(bytes, i, available);
+                int end = newline < 0 ? available : newline + 1;
+                if (matching) {
+                    out.write(bytes, i, end - i);
+                }
+                lineStart = newline >= 0;
+                i = end;
+            }
+            if (progress != null) {
+                progress.addMatched(matched);
+            }
+            System.arraycopy(bytes, i, bytes, 0, available - i);
+            available -= i;
+        }
+    }
+
+    // Учитывает сжатые байты архива по мере того, как их забирает распаковщик.
+    private static final class ProgressInputStream extends FilterInputStream {
+        private final LogScanProgress progress;
+
+        private ProgressInputStream(InputStream in, LogScanProgress progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                progress.addScanned(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = in.read(bytes, offset, length);
+            if (read > 0) {
+                progress.addScanned(read);
+            }
+            return read;
+        }
+    }
+
+    private static long transferUnpacked(Path file, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return transfer(channel, 0, channel.size(), target);
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private static Path join(ForkJoinTask<Path> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    // Дожидается прерванной распаковки и удаляет ее файл.
+    private static void discard(ForkJoinTask<Path> task) {
+        try {
+            deleteQuietly(task.join());
+        } catch (RuntimeException ex) {
+            // Ошибка распаковки уже не важна: выдача завершилась.
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            logger.warn("Failed to delete temporary log file {}: {}", file, ex.getMessage());
+        }
+    }
+
+    // Ротация могла переименовать файл после поиска: ищем его по идентификатору.
+    FileChannel open(LogSlice slice) throws IOException {
+        List<Path> candidates = new ArrayList<>();
+        candidates.add(slice.file());
+        candidates.addAll(logFiles());
+        for (Path candidate : candidates) {
+            try {
+                if (slice.fileId().equals(LogTimeIndex.fileId(
+                        Files.readAttributes(candidate, BasicFileAttributes.class)))) {
+                    return FileChannel.open(candidate, StandardOpenOption.READ);
+                }
+            } catch (NoSuchFileException ex) {
+                // Проверим следующий.
+            }
+        }
+        throw new IOException("Log file " + slice.file() + " was rotated away");
+    }
+
+    /**
+     * Проходит строки в диапазоне {@code [from, end)}. Без приемника
+     * возвращает смещение первой строки с датой из {@code [fromDate, toDate]}
+     * или -1; с приемником копирует все такие строки и возвращает число байт.
+     * Смещения строк абсолютные, поэтому диапазоны копируются из того же
+     * канала позиционным {@code transferTo}, не сбивая чтение.
+     */
+    private long scan(FileChannel channel, long from, long end, byte[] fromDate, byte[] toDate,
+                      WritableByteChannel target, LogScanProgress progress) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(bufferSize, Math.max(end - from, 1)));
+        byte[] bytes = buffer.array();
+        long position = from;
+        long runStart = -1;
+        long copied = 0;
+        boolean lineStart = true;
+
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            int i = 0;
+            int matched = 0;
+            while (i < read) {
+                if (lineStart) {
+                    // Начало строки не поместилось в блок: перечитать блок с него.
+                    if (read - i < DATE_LENGTH && position + read < end && i > 0) {
+                        break;
+                    }
+                    long offset = position + i;
+                    if (inRange(bytes, i, read, fromDate, toDate)) {
+                        if (target == null) {
+                            return offset;
+                        }
+                        matched++;
+                        if (runStart < 0) {
+                            runStart = offset;
+                        }
+                    } else if (runStart >= 0) {
+                        copied += transfer(channel, runStart, offset, target);
+                        runStart = -1;
+                    }
+                    lineStart = false;
+                }
+                int newline = indexOf(bytes, i, read);
+                if (newline < 0) {
+                    i = read;
+                } else {
+                    i = newline + 1;
+                    lineStart = true;
+                }
+            }
+            position += i;
+            if (progress != null) {
+                progress.addScanned(i);
+                progress.addMatched(matched);
+            }
+        }
+        if (target == null) {
+            return -1;
+        }
+        if (runStart >= 0) {
+            copied += transfer(channel, runStart, position, target);
+        }
+        return copied;
+    }
+
+    private static long transfer(FileChannel channel, long from, long to,
+                                 WritableByteChannel target) throws IOException {
+        long position = from;
+        while (position < to) {
+            long transferred = channel.transferTo(position, to - position, target);
+            if (transferred <= 0) {
+                throw new IOException("Log file was truncated while copying");
+            }
+            position += transferred;
+        }
+        return to - from;
+    }
+
+    // Первые десять байт строки — дата из [from, to]; даты сравниваются как строки.
+    private static boolean inRange(byte[] bytes, int offset, int limit, byte[] from, byte[] to) {
+        if (limit - offset < DATE_LENGTH) {
+            return false;
+        }
+        return compare(bytes, offset, from) >= 0 && compare(bytes, offset, to) <= 0;
+    }
+
+    private static int compare(byte[] bytes, int offset, byte[] date) {
+        for (int i = 0; i < DATE_LENGTH; i++) {
+            int difference = bytes[offset + i] - date[i];
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (bytes[i] == NEWLINE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long hourKey(LocalDateTime time) {
+        return LogTimeIndex.hourKey(time.getYear(), time.getMonthValue(), time.getDayOfMonth(),
+                time.getHour());
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException ex) {
+            throw new InvalidInputException("Неверный формат даты.");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.simpleblogapi.logs;
+
+import com.example.simpleblogapi.enums.LogLevel;
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+
+/**
+ * Условия поиска по логу. Время задано включительно с точностью до секунды;
+ * {@code level} — минимальный уровень, {@code logger} — префикс имени
+ * логгера в том виде, в каком оно записано в лог (сокращенном
+ * {@code %logger{36}}), {@code regex} ищется в тексте сообщения вместе со
+ * стек-трейсом. {@code skip} — сколько первых записей со временем
+ * {@code from} уже отдано на прошлых страницах.
+ */
+public record LogQuery(LocalDateTime from, LocalDateTime to, LogLevel level, String logger,
+                       Pattern regex, int limit, int skip) {
+}
@@ -0,0 +1,41 @@
+package com.example.simpleblogapi.logs;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Прогресс выборки строк лога. Сканирующий поток обновляет счетчики раз на
+ * прочитанный блок, а не на строку, поэтому учет стоит пару атомарных
+ * сложений на блок; читатели видят согласованные по отдельности значения.
+ */
+public class LogScanProgress {
+
+    private final AtomicLong bytesTotal = new AtomicLong();
+    private final AtomicLong bytesScanned = new AtomicLong();
+    private final AtomicLong linesMatched = new AtomicLong();
+
+    public void setBytesTotal(long total) {
+        bytesTotal.set(total);
+    }
+
+    void addScanned(long bytes) {
+        bytesScanned.addAndGet(bytes);
+    }
+
+    void addMatched(long lines) {
+        if (lines > 0) {
+            linesMatched.addAndGet(lines);
+        }
+    }
+
+    public long bytesTotal() {
+        return bytesTotal.get();
+    }
+
+    public long bytesScanned() {
+        return bytesScanned.get();
+    }
+
+    public long linesMatched() {
+        return linesMatched.get();
+    }
+}
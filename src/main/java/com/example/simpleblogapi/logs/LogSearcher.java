@@ -0,0 +1,566 @@
+package com.example.simpleblogapi.logs;
+
+import com.example.simpleblogapi.dto.LogEntry;
+import com.example.simpleblogapi.dto.LogQueryCursor;
+import com.example.simpleblogapi.enums.LogLevel;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.zip.GZIPInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Поиск записей лога по времени, уровню, логгеру и регулярному выражению.
+ *
+ * <p>Строки разбираются по шаблону логов приложения
+ * {@code %d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n}
+ * прямо в байтах: время, уровень и логгер сравниваются без декодирования,
+ * строки создаются только для подходящих записей. Строки без отметки
+ * времени (стек-трейсы) относятся к предыдущей записи.
+ *
+ * <p>Участки файлов из {@link LogFileExtractor} режутся на куски
+ * {@code logs.query.chunk-size}, которые просматриваются параллельно в пуле
+ * выборки с ограниченным опережением; результаты отдаются строго по порядку
+ * кусков. Кусок собирает не больше записей, чем нужно странице, и как
+ * только страница набрана, просмотр останавливается, а клиент получает
+ * курсор для продолжения.
+ */
+@Component
+public class LogSearcher {
+
+    private static final int TIMESTAMP_LENGTH = 19;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    private static final byte[][] LEVEL_NAMES = new byte[LEVELS.length][];
+
+    static {
+        for (LogLevel level : LEVELS) {
+            LEVEL_NAMES[level.ordinal()] = level.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final LogFileExtractor extractor;
+    private final long chunkSize;
+    private final int maxLimit;
+
+    public LogSearcher(LogFileExtractor extractor,
+                       @Value("${logs.query.chunk-size:4194304}") long chunkSize,
+                       @Value("${logs.query.max-limit:10000}") int maxLimit) {
+        this.extractor = extractor;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Приемник найденных записей.
+     */
+    @FunctionalInterface
+    public interface EntrySink {
+        void accept(LogEntry entry) throws IOException;
+    }
+
+    /**
+     * Проверяет параметры поиска. Время принимается как {@code yyyy-MM-dd},
+     * {@code yyyy-MM-dd HH:mm:ss} или {@code yyyy-MM-ddTHH:mm:ss}; дата без
+     * времени означает начало дня для {@code from} и конец дня для
+     * {@code to}. Без {@code to} поиск идет до текущего момента. Курсор
+     * сдвигает начало интервала на время последней отданной записи.
+     *
+     * @throws InvalidInputException если параметр не разбирается
+     */
+    public LogQuery query(String from, String to, String level, String logger, String regex,
+                          int limit, String cursor) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new InvalidInputException("Лимит должен быть от 1 до " + maxLimit);
+        }
+        LocalDateTime start = parseTime(from, false);
+        LocalDateTime end = to != null
+                ? parseTime(to, true)
+                : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LogLevel minimum = parseLevel(level);
+        Pattern pattern = null;
+        if (regex != null && !regex.isEmpty()) {
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (PatternSyntaxException ex) {
+                throw new InvalidInputException("Некорректное регулярное выражение: "
+                        + ex.getDescription());
+            }
+        }
+        int skip = 0;
+        if (cursor != null) {
+            // Каждый кусок собирает до limit + skip записей: skip ограничен
+            // так же, как limit, иначе поддельный курсор исчерпает память.
+            LogQueryCursor position = LogQueryCursor.decode(cursor, maxLimit);
+            if (!position.timestamp().isBefore(start)) {
+                start = position.timestamp();
+                skip = position.skip();
+            }
+        }
+        return new LogQuery(start, end, minimum,
+                logger != null && !logger.isEmpty() ? logger : null, pattern, limit, skip);
+    }
+
+    /**
+     * Минимальный уровень из параметра запроса; null, если он не задан.
+     *
+     * @throws InvalidInputException если уровень неизвестен
+     */
+    static LogLevel parseLevel(String level) {
+        if (level == null || level.isBlank()) {
+            return null;
+        }
+        try {
+            return LogLevel.valueOf(level.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidInputException("Неизвестный уровень логирования: " + level);
+        }
+    }
+
+    /**
+     * Находит участки файлов, где могут быть записи интервала запроса.
+     *
+     * @throws ResourceNotFoundException если логов за интервал нет
+     */
+    public LogExtract find(LogQuery query) throws IOException {
+        return extractor.find(query.from(), query.to());
+    }
+
+    /**
+     * Передает в {@code sink} подходящие записи по порядку, не больше
+     * {@code limit}.
+     *
+     * @return курсор следующей страницы или {@code null}, если записи
+     *     кончились раньше, чем набралась страница
+     */
+    public String search(LogQuery query, LogExtract extract, EntrySink sink) throws IOException {
+        List<Chunk> chunks = chunks(extract);
+        Filter filter = new Filter(query);
+        ForkJoinPool pool = extractor.pool();
+        ForkJoinTask<List<LogEntry>>[] scanned = LogFileExtractor.newTaskArray(chunks.size());
+        AtomicBoolean stopped = new AtomicBoolean();
+        int window = pool.getParallelism() * 2;
+        int submitted = 0;
+        int skip = query.skip();
+        int emitted = 0;
+        LocalDateTime lastTimestamp = query.from();
+        int sameTimestamp = skip;
+        try {
+            for (int i = 0; i < chunks.size(); i++) {
+                for (; submitted < chunks.size() && submitted <= i + window; submitted++) {
+                    Chunk chunk = chunks.get(submitted);
+                    scanned[submitted] = pool.submit(() -> scan(chunk, filter, stopped));
+                }
+                List<LogEntry> entries = join(scanned[i]);
+                scanned[i] = null;
+                for (LogEntry entry : entries) {
+                    if (skip > 0) {
+                        if (entry.timestamp().equals(query.from())) {
+                            skip--;
+                            continue;
+                        }
+                        skip = 0;
+                    }
+                    sink.accept(entry);
+                    emitted++;
+                    if (entry.timestamp().equals(lastTimestamp)) {
+                        sameTimestamp++;
+                    } else {
+                        lastTimestamp = entry.timestamp();
+                        sameTimestamp = 1;
+                    }
+                    if (emitted == query.limit()) {
+                        return new LogQueryCursor(lastTimestamp, sameTimestamp).encode();
+                    }
+                }
+            }
+            return null;
+        } finally {
+            // Куски, просмотренные с опережением, больше не нужны.
+            stopped.set(true);
+        }
+    }
+
+    private List<Chunk> chunks(LogExtract extract) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (LogSlice slice : extract.slices()) {
+            if (slice.compressed()) {
+                chunks.add(new Chunk(slice, 0, Long.MAX_VALUE));
+                continue;
+            }
+            for (long start = slice.start(); start < slice.end(); start += chunkSize) {
+                chunks.add(new Chunk(slice, start, Math.min(slice.end(), start + chunkSize)));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Собирает подходящие записи, строка с отметкой времени которых
+     * начинается в куске; стек-трейс последней записи дочитывается за
+     * границей куска. Останавливается, набрав записей на страницу.
+     */
+    private List<LogEntry> scan(Chunk chunk, Filter filter, AtomicBoolean stopped) {
+        LogSlice slice = chunk.slice();
+        List<LogEntry> entries = new ArrayList<>();
+        try (FileChannel channel = extractor.open(slice);
+             InputStream in = open(channel, chunk)) {
+            LineReader reader = new LineReader(in, extractor.bufferSize());
+            long base = slice.compressed() ? 0 : channel.position();
+            if (!slice.compressed() && chunk.start() > slice.start()) {
+                // Строка, начатая в предыдущем куске, — его.
+                reader.next();
+            }
+            Header header = new Header();
+            // Подходящая по заголовку запись копируется целиком, а строки из нее
+            // создаются, только если подойдет и сообщение.
+            Header pendingHeader = new Header();
+            EntryBuffer pending = new EntryBuffer();
+            boolean hasPending = false;
+            while (!stopped.get() && reader.next()) {
+                byte[] bytes = reader.bytes;
+                if (!header.parse(bytes, reader.start, reader.end)) {
+                    if (hasPending) {
+                        pending.append('\n');
+                        pending.append(bytes, reader.start, reader.end - reader.start);
+                    }
+                    continue;
+                }
+                if (hasPending && filter.accept(pendingHeader, pending, entries)) {
+                    return entries;
+                }
+                hasPending = false;
+                if (base + reader.offset >= chunk.end()) {
+                    return entries;
+                }
+                if (filter.matches(bytes, reader.start, header)) {
+                    pending.reset();
+                    pending.append(bytes, reader.start, reader.end - reader.start);
+                    pendingHeader.copyShifted(header, reader.start);
+                    hasPending = true;
+                }
+            }
+            if (hasPending) {
+                filter.accept(pendingHeader, pending, entries);
+            }
+            return entries;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to search log file " + slice.file(), ex);
+        }
+    }
+
+    private static InputStream open(FileChannel channel, Chunk chunk) throws IOException {
+        if (chunk.slice().compressed()) {
+            return new GZIPInputStream(Channels.newInputStream(channel), 64 * 1024);
+        }
+        // С предыдущего байта: по переводу строки перед началом куска видно,
+        // начинается ли кусок с новой строки.
+        channel.position(chunk.start() > chunk.slice().start() ? chunk.start() - 1 : chunk.start());
+        return Channels.newInputStream(channel);
+    }
+
+    private static List<LogEntry> join(ForkJoinTask<List<LogEntry>> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static LocalDateTime parseTime(String value, boolean end) {
+        String text = value.trim();
+        try {
+            if (text.length() == 10) {
+                LocalDate date = LocalDate.parse(text);
+                return end ? date.atTime(23, 59, 59) : date.atStartOfDay();
+            }
+            return LocalDateTime.parse(text.replace(' ', 'T')).truncatedTo(ChronoUnit.SECONDS);
+        } catch (DateTimeParseException ex) {
+            throw new InvalidInputException("Неверный формат времени: " + value);
+        }
+    }
+
+    private record Chunk(LogSlice slice, long start, long end) {
+    }
+
+    /**
+     * Условия запроса в байтах. Время сравнивается как строка: в шаблоне
+     * лога поля времени идут от старших к младшим и дополнены нулями.
+     */
+    private static final class Filter {
+        private final byte[] from;
+        private final byte[] to;
+        private final int level;
+        private final byte[] logger;
+        private final Pattern regex;
+        private final int capacity;
+
+        private Filter(LogQuery query) {
+            this.from = TIMESTAMP_FORMAT.format(query.from()).getBytes(StandardCharsets.US_ASCII);
+            this.to = TIMESTAMP_FORMAT.format(query.to()).getBytes(StandardCharsets.US_ASCII);
+            this.level = query.level() != null ? query.level().ordinal() : -1;
+            this.logger = query.logger() != null
+                    ? query.logger().getBytes(StandardCharsets.UTF_8) : null;
+            this.regex = query.regex();
+            // Записи, пропускаемые по курсору, тоже занимают место на странице.
+            this.capacity = query.limit() + query.skip();
+        }
+
+        private boolean matches(byte[] bytes, int start, Header header) {
+            if (compare(bytes, start, from) < 0 || compare(bytes, start, to) > 0) {
+                return false;
+            }
+            if (level >= 0 && header.level < level) {
+                return false;
+            }
+            if (logger != null) {
+                if (header.loggerEnd - header.loggerStart < logger.length) {
+                    return false;
+                }
+                for (int i = 0; i < logger.length; i++) {
+                    if (bytes[header.loggerStart + i] != logger[i]) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        // Добавляет запись, если сообщение подходит; true, когда кусок набрал страницу.
+        private boolean accept(Header header, EntryBuffer entry, List<LogEntry> entries) {
+            String message = new String(entry.bytes, header.messageStart,
+                    entry.length - header.messageStart, StandardCharsets.UTF_8);
+            if (regex != null && !regex.matcher(message).find()) {
+                return false;
+            }
+            entries.add(header.toEntry(entry.bytes, message));
+            return entries.size() >= capacity;
+        }
+
+        private static int compare(byte[] bytes, int offset, byte[] timestamp) {
+            for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+                int difference = bytes[offset + i] - timestamp[i];
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Границы полей строки с отметкой времени; переиспользуется для всех
+     * строк куска.
+     */
+    private static final class Header {
+        private int threadStart;
+        private int threadEnd;
+        private int levelStart;
+        private int levelEnd;
+        private int level;
+        private int loggerStart;
+        private int loggerEnd;
+        private int messageStart;
+
+        private boolean parse(byte[] bytes, int start, int end) {
+            if (end - start < TIMESTAMP_LENGTH + 2 || !timestamp(bytes, start)
+                    || bytes[start + TIMESTAMP_LENGTH] != ' '
+                    || bytes[start + TIMESTAMP_LENGTH + 1] != '[') {
+                return false;
+            }
+            threadStart = start + TIMESTAMP_LENGTH + 2;
+            int i = threadStart;
+            while (i + 1 < end && (bytes[i] != ']' || bytes[i + 1] != ' ')) {
+                i++;
+            }
+            if (i + 1 >= end) {
+                return false;
+            }
+            threadEnd = i;
+            levelStart = i + 2;
+            i = levelStart;
+            while (i < end && bytes[i] != ' ') {
+                i++;
+            }
+            levelEnd = i;
+            while (i < end && bytes[i] == ' ') {
+                i++;
+            }
+            loggerStart = i;
+            while (i < end && bytes[i] != ' ') {
+                i++;
+            }
+            loggerEnd = i;
+            if (i + 1 >= end || bytes[i + 1] != '-') {
+                return false;
+            }
+            if (i + 2 == end) {
+                // Пустое сообщение, пробел в конце строки обрезан.
+                messageStart = end;
+            } else if (bytes[i + 2] == ' ') {
+                messageStart = i + 3;
+            } else {
+                return false;
+            }
+            level = level(bytes, levelStart, levelEnd);
+            return true;
+        }
+
+        // Поля той же строки, скопированной в начало другого буфера.
+        private void copyShifted(Header source, int lineStart) {
+            threadStart = source.threadStart - lineStart;
+            threadEnd = source.threadEnd - lineStart;
+            levelStart = source.levelStart - lineStart;
+            levelEnd = source.levelEnd - lineStart;
+            level = source.level;
+            loggerStart = source.loggerStart - lineStart;
+            loggerEnd = source.loggerEnd - lineStart;
+            messageStart = source.messageStart - lineStart;
+        }
+
+        // Строка записи лежит с начала bytes.
+        private LogEntry toEntry(byte[] bytes, String message) {
+            return new LogEntry(
+                    LocalDateTime.parse(new String(bytes, 0, TIMESTAMP_LENGTH,
+                            StandardCharsets.US_ASCII), TIMESTAMP_FORMAT),
+                    new String(bytes, threadStart, threadEnd - threadStart, StandardCharsets.UTF_8),
+                    new String(bytes, levelStart, levelEnd - levelStart, StandardCharsets.US_ASCII),
+                    new String(bytes, loggerStart, loggerEnd - loggerStart, StandardCharsets.UTF_8),
+                    message);
+        }
+
+        private static boolean timestamp(byte[] bytes, int start) {
+            for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+                byte b = bytes[start + i];
+                boolean valid = switch (i) {
+                    case 4, 7 -> b == '-';
+                    case 10 -> b == ' ';
+                    case 13, 16 -> b == ':';
+                    default -> b >= '0' && b <= '9';
+                };
+                if (!valid) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int level(byte[] bytes, int start, int end) {
+            for (int ordinal = 0; ordinal < LEVEL_NAMES.length; ordinal++) {
+                byte[] name = LEVEL_NAMES[ordinal];
+                if (Arrays.equals(bytes, start, end, name, 0, name.length)) {
+                    return ordinal;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Байты записи: строка с отметкой времени и ее продолжения.
+     */
+    private static final class EntryBuffer {
+        private byte[] bytes = new byte[512];
+        private int length;
+
+        private void reset() {
+            length = 0;
+        }
+
+        private void append(int b) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) b;
+        }
+
+        private void append(byte[] source, int offset, int count) {
+            ensureCapacity(count);
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+
+    /**
+     * Читает поток по строкам в общий буфер; строка длиннее буфера
+     * увеличивает его. {@code offset} — смещение начала строки от начала
+     * потока.
+     */
+    private static final class LineReader {
+        private final InputStream in;
+        private byte[] bytes;
+        private int limit;
+        private int position;
+        private long consumed;
+        private boolean eof;
+        private int start;
+        private int end;
+        private long offset;
+
+        private LineReader(InputStream in, int bufferSize) {
+            this.in = in;
+            this.bytes = new byte[bufferSize];
+        }
+
+        private boolean next() throws IOException {
+            int scanFrom = position;
+            while (true) {
+                for (int i = scanFrom; i < limit; i++) {
+                    if (bytes[i] == '\n') {
+                        return line(i, i + 1);
+                    }
+                }
+                if (eof) {
+                    return position < limit && line(limit, limit);
+                }
+                scanFrom = limit - position;
+                if (position > 0) {
+                    System.arraycopy(bytes, position, bytes, 0, limit - position);
+                    consumed += position;
+                    limit -= position;
+                    position = 0;
+                } else if (limit == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int read = in.read(bytes, limit, bytes.length - limit);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    limit += read;
+                }
+            }
+        }
+
+        private boolean line(int lineEnd, int next) {
+            start = position;
+            end = lineEnd;
+            offset = consumed + position;
+            position = next;
+            return true;
+        }
+    }
+}
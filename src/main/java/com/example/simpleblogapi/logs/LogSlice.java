@@ -0,0 +1,12 @@
+package com.example.simpleblogapi.logs;
+
+import java.nio.file.Path;
+
+/**
+ * Участок лог-файла {@code [start, end)}, в котором лежат строки выборки.
+ * Для сжатого архива участок — весь файл: смещения внутри gzip не
+ * индексируются. {@code fileId} позволяет найти файл, если до копирования
+ * его переименовала ротация.
+ */
+public record LogSlice(Path file, String fileId, boolean compressed, long start, long end) {
+}
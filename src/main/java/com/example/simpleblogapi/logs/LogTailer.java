@@ -0,0 +1,385 @@
+package com.example.simpleblogapi.logs;
+
+import com.example.simpleblogapi.enums.LogLevel;
+import com.example.simpleblogapi.events.SseBroadcaster;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Живой хвост основного лога для подписчиков Server-Sent Events.
+ *
+ * <p>Все подписчики делят один читающий поток: раз в
+ * {@code logs.tail.poll-interval-ms} он сверяет размер и идентификатор
+ * файла и дочитывает новые байты; каждая строка декодируется один раз и
+ * раскладывается по пакетам фильтров (минимальный уровень и префикс
+ * логгера), а пакет рассылается всем подписчикам фильтра через
+ * {@link SseBroadcaster}. Строки без отметки времени (стек-трейсы)
+ * относятся к предыдущей записи. Пока подписчиков нет, файл не читается, а
+ * новый подписчик получает строки с текущего конца файла.
+ *
+ * <p>При ротации старый файл дочитывается через уже открытый канал, после
+ * чего чтение переходит к новому файлу с начала; укороченный файл читается
+ * с начала. Отставшие отбрасываются на двух уровнях: если непрочитанный
+ * хвост больше {@code logs.tail.max-lag-bytes}, читатель перескакивает на
+ * конец файла и рассылает событие {@code skipped} с числом пропущенных
+ * байт, а подписчик, чья очередь переполнилась, отключается.
+ */
+@Component
+public class LogTailer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogTailer.class);
+
+    public static final String LINES_EVENT = "lines";
+    public static final String SKIPPED_EVENT = "skipped";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final int MAX_FRAME_CHARS = 32 * 1024;
+    private static final long HEARTBEAT_INTERVAL_MS = 15_000;
+    private static final long SEND_TIMEOUT_MS = 10_000;
+    private static final int TIMESTAMP_LENGTH = 19;
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private final Path logFile;
+    private final long maxLagBytes;
+    private final long timeoutMs;
+    private final SseBroadcaster<Filter> events;
+    private final ScheduledExecutorService reader;
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesSkipped = new LongAdder();
+
+    // Состояние чтения меняется только внутри poll.
+    private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private boolean discardLine;
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+    private LogLevel entryLevel;
+    private String entryLogger;
+
+    public LogTailer(LogFileExtractor extractor,
+                     @Value("${logs.tail.poll-interval-ms:250}") long pollIntervalMs,
+                     @Value("${logs.tail.buffer-size:256}") int bufferSize,
+                     @Value("${logs.tail.max-lag-bytes:8388608}") long maxLagBytes,
+                     @Value("${logs.tail.timeout-ms:3600000}") long timeoutMs) {
+        this.logFile = extractor.logFile();
+        this.maxLagBytes = maxLagBytes;
+        this.timeoutMs = timeoutMs;
+        this.events = new SseBroadcaster<>("log-tail-events", bufferSize, 1, HEARTBEAT_INTERVAL_MS,
+                SEND_TIMEOUT_MS);
+        this.reader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-tail");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reader.scheduleWithFixedDelay(this::pollQuietly, pollIntervalMs, pollIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Открывает поток строк лога, дописанных после подключения.
+     *
+     * @throws InvalidInputException если уровень неизвестен
+     */
+    public ResponseBodyEmitter subscribe(String level, String loggerPrefix) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMs);
+        subscribe(level, loggerPrefix, emitter);
+        return emitter;
+    }
+
+    public void subscribe(String level, String loggerPrefix, ResponseBodyEmitter emitter) {
+        Filter filter = new Filter(LogSearcher.parseLevel(level),
+                loggerPrefix != null && !loggerPrefix.isEmpty() ? loggerPrefix : null);
+        events.subscribe(filter, emitter, List::of);
+    }
+
+    public int subscriberCount() {
+        return events.subscriberCount();
+    }
+
+    public long bytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long bytesSkipped() {
+        return bytesSkipped.sum();
+    }
+
+    public long slowConsumersDropped() {
+        return events.slowConsumersDropped();
+    }
+
+    /**
+     * Дочитывает новые строки и рассылает их подписчикам. Вызывается
+     * читающим потоком по расписанию.
+     */
+    public synchronized void poll() throws IOException {
+        Set<Filter> filters = events.topics();
+        if (filters.isEmpty()) {
+            close();
+            return;
+        }
+        if (channel == null) {
+            open(true);
+            return;
+        }
+        Map<Filter, StringBuilder> batches = new HashMap<>();
+        for (Filter filter : filters) {
+            batches.put(filter, new StringBuilder());
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(logFile, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            // Файл переименован, новый еще не создан: дочитываем старый.
+            attributes = null;
+        }
+        if (attributes != null && fileKey != null && !fileKey.equals(attributes.fileKey())) {
+            read(batches);
+            flush(batches);
+            logger.info("Log file {} was rotated, tailing the new file", logFile);
+            open(false);
+        } else if (attributes != null && attributes.size() < position) {
+            logger.info("Log file {} was truncated, tailing from the start", logFile);
+            position = 0;
+            resetLine();
+        }
+        if (channel != null) {
+            read(batches);
+        }
+        flush(batches);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reader.shutdownNow();
+        events.shutdown();
+        synchronized (this) {
+            close();
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Failed to tail log file {}: {}", logFile, ex.getMessage());
+            synchronized (this) {
+                close();
+            }
+        }
+    }
+
+    private void open(boolean atEnd) throws IOException {
+        close();
+        try {
+            channel = FileChannel.open(logFile);
+        } catch (NoSuchFileException ex) {
+            return;
+        }
+        fileKey = Files.readAttributes(logFile, BasicFileAttributes.class).fileKey();
+        position = atEnd ? channel.size() : 0;
+        resetLine();
+    }
+
+    private void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                logger.debug("Failed to close tailed log file: {}", ex.getMessage());
+            }
+            channel = null;
+            fileKey = null;
+        }
+    }
+
+    private void resetLine() {
+        lineLength = 0;
+        discardLine = false;
+        entryLevel = null;
+        entryLogger = null;
+    }
+
+    private void read(Map<Filter, StringBuilder> batches) throws IOException {
+        long size = channel.size();
+        if (size - position > maxLagBytes) {
+            long skipped = size - position;
+            flush(batches);
+            bytesSkipped.add(skipped);
+            position = size;
+            // Остаток строки, на которую попал переход, отбрасывается.
+            lineLength = 0;
+            discardLine = !followsNewline(size);
+            entryLevel = null;
+            entryLogger = null;
+            SseBroadcaster.Frame frame = SseBroadcaster.frame(0, SKIPPED_EVENT, Long.toString(skipped));
+            for (Filter filter : batches.keySet()) {
+                events.publish(filter, () -> frame);
+            }
+            logger.warn("Log tail fell behind by {} bytes, skipping to the end", skipped);
+            return;
+        }
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+            bytesRead.add(read);
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (b == '\n') {
+                    if (!discardLine) {
+                        dispatch(batches);
+                    }
+                    lineLength = 0;
+                    discardLine = false;
+                } else if (!discardLine && lineLength < MAX_LINE_LENGTH) {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, Math.min(line.length * 2, MAX_LINE_LENGTH));
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+        }
+    }
+
+    private boolean followsNewline(long offset) throws IOException {
+        if (offset == 0) {
+            return true;
+        }
+        ByteBuffer previous = ByteBuffer.allocate(1);
+        return channel.read(previous, offset - 1) == 1 && previous.get(0) == '\n';
+    }
+
+    private void dispatch(Map<Filter, StringBuilder> batches) {
+        int length = lineLength;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        String text = new String(line, 0, length, StandardCharsets.UTF_8);
+        parseHeader(text);
+        for (Map.Entry<Filter, StringBuilder> batch : batches.entrySet()) {
+            if (!batch.getKey().matches(entryLevel, entryLogger)) {
+                continue;
+            }
+            StringBuilder lines = batch.getValue();
+            if (!lines.isEmpty()) {
+                lines.append('\n');
+            }
+            lines.append(text);
+            if (lines.length() >= MAX_FRAME_CHARS) {
+                publish(batch.getKey(), lines);
+            }
+        }
+    }
+
+    private void flush(Map<Filter, StringBuilder> batches) {
+        for (Map.Entry<Filter, StringBuilder> batch : batches.entrySet()) {
+            if (!batch.getValue().isEmpty()) {
+                publish(batch.getKey(), batch.getValue());
+            }
+        }
+    }
+
+    private void publish(Filter filter, StringBuilder lines) {
+        String data = lines.toString();
+        lines.setLength(0);
+        events.publish(filter, () -> SseBroadcaster.frame(0, LINES_EVENT, data));
+    }
+
+    /**
+     * Запоминает уровень и логгер строки с отметкой времени по шаблону
+     * {@code %d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg};
+     * строка без нее остается в предыдущей записи.
+     */
+    private void parseHeader(String text) {
+        if (text.length() < TIMESTAMP_LENGTH + 2 || !isTimestamp(text)
+                || text.charAt(TIMESTAMP_LENGTH) != ' ' || text.charAt(TIMESTAMP_LENGTH + 1) != '[') {
+            return;
+        }
+        int threadEnd = text.indexOf("] ", TIMESTAMP_LENGTH + 2);
+        if (threadEnd < 0) {
+            return;
+        }
+        int levelStart = threadEnd + 2;
+        int levelEnd = text.indexOf(' ', levelStart);
+        if (levelEnd < 0) {
+            return;
+        }
+        int loggerStart = levelEnd;
+        while (loggerStart < text.length() && text.charAt(loggerStart) == ' ') {
+            loggerStart++;
+        }
+        int loggerEnd = text.indexOf(' ', loggerStart);
+        if (loggerEnd < 0) {
+            return;
+        }
+        entryLevel = null;
+        for (LogLevel level : LEVELS) {
+            if (level.name().length() == levelEnd - levelStart
+                    && text.startsWith(level.name(), levelStart)) {
+                entryLevel = level;
+                break;
+            }
+        }
+        entryLogger = text.substring(loggerStart, loggerEnd);
+    }
+
+    private static boolean isTimestamp(String text) {
+        for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+            char c = text.charAt(i);
+            boolean valid = switch (i) {
+                case 4, 7 -> c == '-';
+                case 10 -> c == ' ';
+                case 13, 16 -> c == ':';
+                default -> c >= '0' && c <= '9';
+            };
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Условия подписки: минимальный уровень и префикс логгера; null — без
+     * условия. Подписчики с одинаковыми условиями получают одни и те же
+     * закодированные события.
+     */
+    record Filter(LogLevel level, String logger) {
+
+        private boolean matches(LogLevel entryLevel, String entryLogger) {
+            if (level != null && (entryLevel == null || entryLevel.compareTo(level) < 0)) {
+                return false;
+            }
+            return logger == null || (entryLogger != null && entryLogger.startsWith(logger));
+        }
+    }
+}
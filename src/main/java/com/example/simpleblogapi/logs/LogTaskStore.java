@@ -0,0 +1,74 @@
+package com.example.simpleblogapi.logs;
+
+import com.example.simpleblogapi.enums.TaskStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Хранит метаданные задач генерации лог-файлов в JSON-файле рядом с самими
+ * файлами, чтобы статусы и готовые файлы переживали перезапуск. Файлы
+ * задач лежат на локальном диске узла, поэтому и метаданные хранятся там
+ * же, а не в общей БД. Запись атомарная: новый файл пишется рядом и
+ * переименовывается поверх старого.
+ */
+public class LogTaskStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogTaskStore.class);
+    private static final TypeReference<List<Entry>> ENTRIES = new TypeReference<>() {
+    };
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public LogTaskStore(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    public List<Entry> load() {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), ENTRIES);
+        } catch (IOException ex) {
+            logger.warn("Ignoring unreadable log task store {}: {}", file, ex.getMessage());
+            return List.of();
+        }
+    }
+
+    public synchronized void save(Collection<Entry> entries) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            objectMapper.writeValue(temporary.toFile(), entries);
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            // Задачи продолжают работать из памяти; сохраним при следующем изменении.
+            logger.warn("Failed to save log task store {}: {}", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Сохраняемое состояние задачи; {@code file} — путь к готовому файлу.
+     */
+    public record Entry(Long taskId, String date, TaskStatus status, String file,
+                        long bytesWritten, String failureReason, Instant createdAt,
+                        Instant finishedAt) {
+    }
+}
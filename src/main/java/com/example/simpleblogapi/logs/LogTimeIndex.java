@@ -0,0 +1,355 @@
+package com.example.simpleblogapi.logs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Разреженный индекс лог-файла: для каждого часа — смещение первой строки
+ * с этим часом. Строки лога идут по времени, поэтому смещения растут вместе
+ * с ключами, и диапазон строк за дату или интервал времени находится
+ * двоичным поиском, а не чтением файла целиком.
+ *
+ * <p>Индекс хранится рядом с логом в скрытом файле {@code .<имя>.idx} и
+ * дополняется по мере роста лога: читаются только байты после
+ * проиндексированной части. Если файл подменили (ротация, усечение), это
+ * видно по идентификатору файла, размеру и первой строке — тогда индекс
+ * строится заново. Экземпляр потокобезопасен.
+ */
+public class LogTimeIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogTimeIndex.class);
+
+    private static final int MAGIC = 0x4c4f4749;
+    private static final int VERSION = 1;
+    private static final int HEAD_LENGTH = 64;
+    private static final int TIMESTAMP_LENGTH = 13;
+
+    private final Path file;
+    private final Path sidecar;
+    private final int bufferSize;
+
+    private String fileId;
+    private byte[] head = new byte[0];
+    private long indexedLength;
+    private long[] keys = new long[64];
+    private long[] offsets = new long[64];
+    private int count;
+    private boolean loaded;
+    private boolean dirty;
+
+    public LogTimeIndex(Path file, int bufferSize) {
+        this.file = file;
+        Path name = file.getFileName();
+        this.sidecar = file.resolveSibling("." + name + ".idx");
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Ключ часа вида {@code yyyyMMddHH}.
+     */
+    public static long hourKey(int year, int month, int day, int hour) {
+        return ((year * 100L + month) * 100L + day) * 100L + hour;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Идентификатор файла, по которому индекс узнает свой файл после
+     * переименования при ротации.
+     */
+    public static String fileId(BasicFileAttributes attributes) {
+        Object key = attributes.fileKey();
+        return key != null ? key.toString() : String.valueOf(attributes.creationTime().toMillis());
+    }
+
+    /**
+     * Дочитывает в индекс строки, дописанные после прошлого обновления, и
+     * сохраняет индекс на диск, если он изменился.
+     *
+     * @return идентификатор проиндексированного файла
+     */
+    public synchronized String refresh() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            String id = fileId(Files.readAttributes(file, BasicFileAttributes.class));
+            long size = channel.size();
+            if (!loaded) {
+                loaded = true;
+                load();
+            }
+            if (!id.equals(fileId) || size < indexedLength || !sameHead(channel)) {
+                if (fileId != null) {
+                    logger.info("Log file {} was replaced, rebuilding its time index", file);
+                }
+                reset(id, channel);
+            }
+            if (size > indexedLength) {
+                scan(channel, size);
+            }
+            if (dirty) {
+                save();
+            }
+            return fileId;
+        }
+    }
+
+    /**
+     * Возвращает диапазон смещений {@code [start, end)}, в котором лежат
+     * строки с ключом часа в {@code [fromKey, toKey)}, или {@code null}, если
+     * таких строк нет. Конец — начало первого часа не меньше {@code toKey};
+     * если такого часа в файле еще нет, конец равен {@link Long#MAX_VALUE}.
+     */
+    public synchronized long[] range(long fromKey, long toKey) {
+        int from = lowerBound(fromKey);
+        if (from == count || keys[from] >= toKey) {
+            return null;
+        }
+        int to = lowerBound(toKey);
+        long end = to == count ? Long.MAX_VALUE : offsets[to];
+        return new long[] {offsets[from], end};
+    }
+
+    public synchronized int entryCount() {
+        return count;
+    }
+
+    public synchronized long indexedLength() {
+        return indexedLength;
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void reset(String id, FileChannel channel) throws IOException {
+        fileId = id;
+        ByteBuffer buffer = ByteBuffer.allocate(HEAD_LENGTH);
+        channel.read(buffer, 0);
+        head = Arrays.copyOf(buffer.array(), buffer.position());
+        indexedLength = 0;
+        count = 0;
+        dirty = true;
+    }
+
+    private boolean sameHead(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(head.length);
+        channel.read(buffer, 0);
+        // Первые байты лога могли дописаться после прошлого чтения.
+        return buffer.position() >= head.length && Arrays.equals(buffer.array(), head);
+    }
+
+    /**
+     * Индексирует полные строки в {@code [indexedLength, size)}. Незаконченная
+     * последняя строка остается на следующий раз.
+     */
+    private void scan(FileChannel channel, long size) throws IOException {
+        if (head.length < HEAD_LENGTH) {
+            reset(fileId, channel);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(bufferSize, size - indexedLength));
+        byte[] bytes = buffer.array();
+        long lastKey = count == 0 ? Long.MIN_VALUE : keys[count - 1];
+        long position = indexedLength;
+        while (position < size) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), size - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            int lineStart = 0;
+            int newline;
+            while ((newline = indexOf(bytes, lineStart, read)) >= 0) {
+                long key = parseHourKey(bytes, lineStart, newline);
+                if (key >= 0 && key > lastKey) {
+                    add(key, position + lineStart);
+                    lastKey = key;
+                }
+                lineStart = newline + 1;
+            }
+            if (lineStart == 0) {
+                if (read < buffer.capacity()) {
+                    // Последняя строка еще дописывается.
+                    break;
+                }
+                // Строка длиннее буфера: ее начало уже проверено, идем дальше по ней.
+                long key = parseHourKey(bytes, 0, read);
+                if (key >= 0 && key > lastKey) {
+                    add(key, position);
+                    lastKey = key;
+                }
+                long next = skipLine(channel, buffer, position + read, size);
+                if (next < 0) {
+                    break;
+                }
+                position = next;
+                indexedLength = position;
+                continue;
+            }
+            position += lineStart;
+            indexedLength = position;
+        }
+        dirty = true;
+    }
+
+    // Пропускает продолжение длинной строки; возвращает смещение после нее
+    // или -1, если строка еще не закончена.
+    private static long skipLine(FileChannel channel, ByteBuffer buffer, long position, long size)
+            throws IOException {
+        byte[] bytes = buffer.array();
+        while (position < size) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), size - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            int newline = indexOf(bytes, 0, read);
+            if (newline >= 0) {
+                return position + newline + 1;
+            }
+            position += read;
+        }
+        return -1;
+    }
+
+    /**
+     * Ключ часа строки, начинающейся с {@code yyyy-MM-dd HH}, или -1.
+     * Строка только с датой получает нулевой час; строки без даты
+     * (продолжения стек-трейсов) не индексируются.
+     */
+    static long parseHourKey(byte[] bytes, int from, int limit) {
+        if (limit - from < 10 || bytes[from + 4] != '-' || bytes[from + 7] != '-') {
+            return -1;
+        }
+        int year = digits(bytes, from, 4);
+        int month = digits(bytes, from + 5, 2);
+        int day = digits(bytes, from + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return -1;
+        }
+        int hour = 0;
+        if (limit - from >= TIMESTAMP_LENGTH && bytes[from + 10] == ' ') {
+            hour = Math.max(digits(bytes, from + 11, 2), 0);
+        }
+        return hourKey(year, month, day, hour);
+    }
+
+    private static int digits(byte[] bytes, int from, int length) {
+        int value = 0;
+        for (int i = from; i < from + length; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void add(long key, long offset) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        keys[count] = key;
+        offsets[count] = offset;
+        count++;
+    }
+
+    private void load() {
+        if (!Files.exists(sidecar)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            String id = in.readUTF();
+            byte[] storedHead = new byte[in.readUnsignedShort()];
+            in.readFully(storedHead);
+            long length = in.readLong();
+            int entries = in.readInt();
+            long[] storedKeys = new long[Math.max(entries, 64)];
+            long[] storedOffsets = new long[storedKeys.length];
+            for (int i = 0; i < entries; i++) {
+                storedKeys[i] = in.readLong();
+                storedOffsets[i] = in.readLong();
+            }
+            fileId = id;
+            head = storedHead;
+            indexedLength = length;
+            keys = storedKeys;
+            offsets = storedOffsets;
+            count = entries;
+        } catch (NoSuchFileException ex) {
+            // Удален между проверкой и чтением — построим заново.
+        } catch (IOException ex) {
+            logger.warn("Ignoring unreadable log index {}: {}", sidecar, ex.getMessage());
+        }
+    }
+
+    private void save() {
+        Path temporary = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(fileId);
+                out.writeShort(head.length);
+                out.write(head);
+                out.writeLong(indexedLength);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    out.writeLong(keys[i]);
+                    out.writeLong(offsets[i]);
+                }
+            }
+            try {
+                Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING);
+            }
+            dirty = false;
+        } catch (IOException ex) {
+            // Индекс в памяти остается рабочим; сохранить попробуем при следующем обновлении.
+            logger.warn("Failed to save log index {}: {}", sidecar, ex.getMessage());
+        }
+    }
+}
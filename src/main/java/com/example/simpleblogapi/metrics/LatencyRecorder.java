@@ -0,0 +1,109 @@
+package com.example.simpleblogapi.metrics;
+
+import com.example.simpleblogapi.dto.EndpointLatency;
+import com.example.simpleblogapi.dto.LatencyReport;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Задержки обработчиков запросов по эндпоинтам и число ошибок по типам
+ * исключений.
+ *
+ * <p>Гистограммы работают интервалами: раз в
+ * {@code metrics.latency.reset-interval-ms} текущая гистограмма каждого
+ * эндпоинта становится предыдущей, а запись начинается в новую, так что
+ * отчет показывает и идущий интервал, и последний полный. Новые
+ * гистограммы создаются в потоке планировщика; в потоке запроса после
+ * первого вызова эндпоинта — только поиск в {@link ConcurrentHashMap} по
+ * {@link Method} и запись в гистограмму, без выделения памяти. Счетчики
+ * ошибок накапливаются с запуска приложения.
+ */
+@Component
+public class LatencyRecorder {
+
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    private final long resetIntervalMs;
+    private final Map<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Map<Class<?>, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile Instant intervalStart = Instant.now();
+
+    public LatencyRecorder(@Value("${metrics.latency.reset-interval-ms:60000}") long resetIntervalMs) {
+        this.resetIntervalMs = resetIntervalMs;
+    }
+
+    public void record(Method method, long nanos) {
+        Endpoint endpoint = endpoints.get(method);
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(method, LatencyRecorder::newEndpoint);
+        }
+        endpoint.current.record(nanos);
+    }
+
+    public void recordError(Throwable error) {
+        LongAdder counter = errors.get(error.getClass());
+        if (counter == null) {
+            counter = errors.computeIfAbsent(error.getClass(), type -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Scheduled(fixedRateString = "${metrics.latency.reset-interval-ms:60000}",
+            initialDelayString = "${metrics.latency.reset-interval-ms:60000}")
+    public void rotate() {
+        for (Endpoint endpoint : endpoints.values()) {
+            endpoint.previous = endpoint.current;
+            endpoint.current = new LatencyHistogram();
+        }
+        intervalStart = Instant.now();
+    }
+
+    public LatencyReport report() {
+        List<EndpointLatency> current = new ArrayList<>();
+        List<EndpointLatency> previous = new ArrayList<>();
+        for (Endpoint endpoint : endpoints.values()) {
+            current.add(toLatency(endpoint.name, endpoint.current.snapshot()));
+            previous.add(toLatency(endpoint.name, endpoint.previous.snapshot()));
+        }
+        current.sort(Comparator.comparing(EndpointLatency::endpoint));
+        previous.sort(Comparator.comparing(EndpointLatency::endpoint));
+
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((type, counter) -> errorCounts.merge(type.getName(), counter.sum(), Long::sum));
+        return new LatencyReport(resetIntervalMs, intervalStart, current, previous, errorCounts);
+    }
+
+    private static Endpoint newEndpoint(Method method) {
+        return new Endpoint(method.getDeclaringClass().getSimpleName() + "." + method.getName());
+    }
+
+    private static EndpointLatency toLatency(String name, LatencyHistogram.Snapshot snapshot) {
+        return new EndpointLatency(name, snapshot.count(),
+                snapshot.mean() / NANOS_PER_MS,
+                snapshot.valueAt(0.50) / NANOS_PER_MS,
+                snapshot.valueAt(0.90) / NANOS_PER_MS,
+                snapshot.valueAt(0.99) / NANOS_PER_MS,
+                snapshot.valueAt(0.999) / NANOS_PER_MS,
+                snapshot.max() / NANOS_PER_MS);
+    }
+
+    private static final class Endpoint {
+        final String name;
+        volatile LatencyHistogram current = new LatencyHistogram();
+        volatile LatencyHistogram previous = new LatencyHistogram();
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+    }
+}
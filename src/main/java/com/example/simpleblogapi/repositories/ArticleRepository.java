@@ -1,16 +1,66 @@
 package com.example.simpleblogapi.repositories;
 
+import com.example.simpleblogapi.dto.ArticleSummary;
+import com.example.simpleblogapi.dto.ArticleTagId;
+import com.example.simpleblogapi.dto.ArticleTagName;
 import com.example.simpleblogapi.entities.Article;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
 @Repository
-public interface ArticleRepository extends JpaRepository<Article, Long> {
+public interface ArticleRepository extends JpaRepository<Article, Long>,
+        ArticleRepositoryCustom {
 
-    @Query("SELECT a FROM Article a JOIN a.tags t WHERE LOWER(t.name) = LOWER(:tagName)")
-    List<Article> findArticlesByTagName(@Param("tagName") String tagName);
+    String STREAM_FETCH_SIZE = "500";
+
+    String SUMMARY_SELECT = "SELECT new com.example.simpleblogapi.dto.ArticleSummary("
+            + "a.id, a.title, SUBSTRING(a.content, 1, " + ArticleSummary.EXCERPT_LENGTH + "),"
+            + " a.createdAt, a.likes, a.dislikes, a.commentCount) FROM Article a";
+
+    @Query(SUMMARY_SELECT + " ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummary> findSummaryFirstPage(Limit limit);
+
+    @Query(SUMMARY_SELECT + " WHERE a.createdAt < :createdAt"
+            + " OR (a.createdAt = :createdAt AND a.id < :id)"
+            + " ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummary> findSummaryPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id, Limit limit);
+
+    @Query("SELECT new com.example.simpleblogapi.dto.ArticleTagName(a.id, t.name)"
+            + " FROM Article a JOIN a.tags t WHERE a.id IN :ids ORDER BY t.name")
+    List<ArticleTagName> findTagNamesByArticleIds(@Param("ids") Collection<Long> ids);
+
+    @Query(SUMMARY_SELECT + " WHERE a.id IN :ids")
+    List<ArticleSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.id FROM Article a")
+    List<Long> findAllIds();
+
+    // По возрастанию id статьи: множества тегов в индексе дописываются в конец.
+    @Query("SELECT new com.example.simpleblogapi.dto.ArticleTagId(a.id, t.id)"
+            + " FROM Article a JOIN a.tags t ORDER BY a.id")
+    List<ArticleTagId> findAllArticleTagIds();
+
+    @EntityGraph(attributePaths = "tags")
+    Optional<Article> findWithTagsById(Long id);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SUMMARY_SELECT + " ORDER BY a.createdAt DESC, a.id DESC")
+    Stream<ArticleSummary> streamAllSummaries();
 }
@@ -0,0 +1,50 @@
+package com.example.simpleblogapi.repositories;
+
+import com.example.simpleblogapi.dto.ExportRow;
+import com.example.simpleblogapi.dto.ReactionCounts;
+import com.example.simpleblogapi.entities.Article;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface ArticleRepositoryCustom {
+
+    /**
+     * Атомарно применяет к лайкам и дизлайкам статьи пачку реакций и
+     * возвращает новые значения. Каждый счетчик становится
+     * {@code max(значение + delta, floor)}: так пачка дает тот же результат,
+     * что и ее реакции по одной с отсечением на нуле. Пусто, если статьи нет.
+     */
+    Optional<ReactionCounts> applyReactionDelta(Long articleId, int likesDelta, int likesFloor,
+                                                int dislikesDelta, int dislikesFloor);
+
+    /**
+     * Вставляет статьи и их связи с тегами JDBC-пакетами, минуя контекст
+     * персистентности. Идентификаторы выделяются блоками из последовательности
+     * и проставляются в переданные объекты. Теги должны быть уже сохранены.
+     * Выполняется в текущей транзакции или, если ее нет, в собственной.
+     */
+    void bulkInsert(List<Article> articles);
+
+    /**
+     * Сдвигает последовательность идентификаторов статей за максимальный
+     * существующий id (нужно для строк, созданных до перехода с IDENTITY).
+     */
+    void alignIdSequence();
+
+    /**
+     * Передает все статьи с тегами и комментариями одним серверным курсором.
+     * Строки упорядочены по статье: сначала сама статья, затем ее теги, затем
+     * комментарии. Вызывать внутри транзакции, иначе драйвер прочитает весь
+     * результат в память.
+     */
+    void streamExportRows(Consumer<ExportRow> consumer);
+
+    /**
+     * Создает триггеры, которые меняют {@code articles.comment_count} в той же
+     * транзакции, что вставку, удаление (в том числе orphanRemoval) или перенос
+     * комментария, и исправляет счетчики, разошедшиеся с таблицей comments.
+     * Возвращает число исправленных статей.
+     */
+    int installCommentCountTriggers();
+}
@@ -0,0 +1,188 @@
+package com.example.simpleblogapi.repositories;
+
+import com.example.simpleblogapi.dto.ExportRow;
+import com.example.simpleblogapi.dto.ReactionCounts;
+import com.example.simpleblogapi.entities.Article;
+import com.example.simpleblogapi.entities.Tag;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ArticleRepositoryCustomImpl implements ArticleRepositoryCustom {
+
+    private static final String REACTION_SQL =
+            "UPDATE articles SET likes = GREATEST(likes + ?, ?), "
+            + "dislikes = GREATEST(dislikes + ?, ?) "
+            + "WHERE id = ? RETURNING likes, dislikes";
+
+    private static final String INSERT_ARTICLE_SQL =
+            "INSERT INTO articles (id, title, content, created_at, likes, dislikes)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ARTICLE_TAG_SQL =
+            "INSERT INTO article_tags (article_id, tag_id) VALUES (?, ?)";
+
+    private static final String NEXT_ID_BLOCKS_SQL =
+            "SELECT nextval('" + Article.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+
+    private static final String ALIGN_SEQUENCE_SQL =
+            "SELECT setval('" + Article.ID_SEQUENCE + "', GREATEST("
+            + "(SELECT COALESCE(MAX(id), 0) FROM articles), ?)) "
+            + "WHERE (SELECT last_value FROM " + Article.ID_SEQUENCE + ") < GREATEST("
+            + "(SELECT COALESCE(MAX(id), 0) FROM articles), ?)";
+
+    // Один проход вместо запроса комментариев и тегов на каждую статью.
+    private static final String EXPORT_SQL =
+            "SELECT 0 AS kind, a.id AS article_id, a.id, a.title AS name, a.content,"
+            + " a.created_at, a.likes, a.dislikes FROM articles a"
+            + " UNION ALL"
+            + " SELECT 1, at.article_id, t.id, t.name, NULL, NULL, 0, 0"
+            + " FROM article_tags at JOIN tags t ON t.id = at.tag_id"
+            + " UNION ALL"
+            + " SELECT 2, c.article_id, c.id, NULL, c.content, NULL, 0, 0"
+            + " FROM comments c WHERE c.article_id IS NOT NULL"
+            + " ORDER BY article_id, kind, id";
+
+    private static final String COMMENT_COUNT_FUNCTION_SQL =
+            "CREATE OR REPLACE FUNCTION articles_comment_count() RETURNS trigger AS $$"
+            + " BEGIN"
+            + " IF TG_OP <> 'DELETE' AND NEW.article_id IS NOT NULL THEN"
+            + " UPDATE articles SET comment_count = comment_count + 1 WHERE id = NEW.article_id;"
+            + " END IF;"
+            + " IF TG_OP <> 'INSERT' AND OLD.article_id IS NOT NULL THEN"
+            + " UPDATE articles SET comment_count = comment_count - 1 WHERE id = OLD.article_id;"
+            + " END IF;"
+            + " RETURN NULL;"
+            + " END $$ LANGUAGE plpgsql";
+
+    private static final String[] COMMENT_COUNT_TRIGGER_SQL = {
+        "DROP TRIGGER IF EXISTS comments_count_insert_delete ON comments",
+        "CREATE TRIGGER comments_count_insert_delete AFTER INSERT OR DELETE ON comments"
+                + " FOR EACH ROW EXECUTE FUNCTION articles_comment_count()",
+        "DROP TRIGGER IF EXISTS comments_count_move ON comments",
+        "CREATE TRIGGER comments_count_move AFTER UPDATE OF article_id ON comments"
+                + " FOR EACH ROW WHEN (OLD.article_id IS DISTINCT FROM NEW.article_id)"
+                + " EXECUTE FUNCTION articles_comment_count()"
+    };
+
+    private static final String RECONCILE_COMMENT_COUNTS_SQL =
+            "UPDATE articles a SET comment_count = actual.count"
+            + " FROM (SELECT a2.id, COUNT(c.id) AS count FROM articles a2"
+            + " LEFT JOIN comments c ON c.article_id = a2.id GROUP BY a2.id) actual"
+            + " WHERE a.id = actual.id AND a.comment_count <> actual.count";
+
+    private static final ExportRow.Kind[] EXPORT_KINDS = ExportRow.Kind.values();
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ArticleRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public Optional<ReactionCounts> applyReactionDelta(Long articleId, int likesDelta, int likesFloor,
+                                                       int dislikesDelta, int dislikesFloor) {
+        List<ReactionCounts> rows = jdbcTemplate.query(REACTION_SQL,
+                (rs, rowNum) -> new ReactionCounts(articleId,
+                        rs.getInt("likes"), rs.getInt("dislikes")),
+                likesDelta, likesFloor, dislikesDelta, dislikesFloor, articleId);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public void bulkInsert(List<Article> articles) {
+        if (articles.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> insertArticles(articles));
+    }
+
+    private void insertArticles(List<Article> articles) {
+        assignIds(articles);
+
+        jdbcTemplate.batchUpdate(INSERT_ARTICLE_SQL, articles, BATCH_SIZE, (statement, article) -> {
+            statement.setLong(1, article.getId());
+            statement.setString(2, article.getTitle());
+            statement.setString(3, article.getContent());
+            statement.setTimestamp(4, Timestamp.valueOf(article.getCreatedAt()));
+            statement.setInt(5, article.getLikes());
+            statement.setInt(6, article.getDislikes());
+        });
+
+        List<long[]> links = new ArrayList<>();
+        for (Article article : articles) {
+            for (Tag tag : article.getTags()) {
+                links.add(new long[] {article.getId(), tag.getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ARTICLE_TAG_SQL, links, BATCH_SIZE, (statement, link) -> {
+            statement.setLong(1, link[0]);
+            statement.setLong(2, link[1]);
+        });
+    }
+
+    @Override
+    public void alignIdSequence() {
+        jdbcTemplate.query(ALIGN_SEQUENCE_SQL, rs -> { },
+                Article.ID_ALLOCATION_SIZE, Article.ID_ALLOCATION_SIZE);
+    }
+
+    // Каждое значение последовательности, как и в pooled-оптимизаторе Hibernate,
+    // резервирует диапазон (value - allocationSize, value].
+    private void assignIds(List<Article> articles) {
+        int blocks = (articles.size() + Article.ID_ALLOCATION_SIZE - 1) / Article.ID_ALLOCATION_SIZE;
+        List<Long> highValues = jdbcTemplate.queryForList(NEXT_ID_BLOCKS_SQL, Long.class, blocks);
+        int index = 0;
+        for (Long high : highValues) {
+            for (long id = high - Article.ID_ALLOCATION_SIZE + 1;
+                 id <= high && index < articles.size(); id++) {
+                articles.get(index++).setId(id);
+            }
+        }
+    }
+
+    @Override
+    public void streamExportRows(Consumer<ExportRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_SQL);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            consumer.accept(new ExportRow(
+                    EXPORT_KINDS[rs.getInt("kind")],
+                    rs.getLong("article_id"),
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getString("content"),
+                    createdAt != null ? createdAt.toLocalDateTime() : null,
+                    rs.getInt("likes"),
+                    rs.getInt("dislikes")));
+        });
+    }
+
+    @Override
+    public int installCommentCountTriggers() {
+        Integer fixed = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(COMMENT_COUNT_FUNCTION_SQL);
+            for (String sql : COMMENT_COUNT_TRIGGER_SQL) {
+                jdbcTemplate.execute(sql);
+            }
+            return jdbcTemplate.update(RECONCILE_COMMENT_COUNTS_SQL);
+        });
+        return fixed != null ? fixed : 0;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.simpleblogapi.repositories;
 
 import com.example.simpleblogapi.entities.Comment;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +14,14 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @Query("SELECT c FROM Comment c WHERE c.article.id = :articleId")
     List<Comment> findCommentsByArticleId(@Param("articleId") Long articleId);
 
+    @Query("SELECT c FROM Comment c WHERE c.article.id = :articleId ORDER BY c.id")
+    List<Comment> findPageByArticleId(@Param("articleId") Long articleId, Limit limit);
+
+    @Query("SELECT c FROM Comment c WHERE c.article.id = :articleId AND c.id > :afterId"
+            + " ORDER BY c.id")
+    List<Comment> findPageByArticleIdAfter(@Param("articleId") Long articleId,
+                                           @Param("afterId") Long afterId, Limit limit);
+
     @Query(value = "SELECT * FROM comments WHERE article_id = :articleId", nativeQuery = true)
     List<Comment> findCommentsByArticleIdNative(@Param("articleId") Long articleId);
 }
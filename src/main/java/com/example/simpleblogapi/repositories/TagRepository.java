@@ -1,7 +1,6 @@
 package com.example.simpleblogapi.repositories;
 
 import com.example.simpleblogapi.entities.Tag;
-import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -9,9 +8,10 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TagRepository extends JpaRepository<Tag, Long> {
+public interface TagRepository extends JpaRepository<Tag, Long>, TagRepositoryCustom {
     Optional<Tag> findByName(String name);
 
-    @Query("SELECT t FROM Tag t WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Tag> searchTagsByName(@Param("name") String name);
+    @Query(value = "SELECT * FROM tags WHERE lower(name) = lower(:name) ORDER BY id LIMIT 1",
+            nativeQuery = true)
+    Optional<Tag> findByNameIgnoreCase(@Param("name") String name);
 }
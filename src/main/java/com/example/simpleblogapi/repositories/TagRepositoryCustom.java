@@ -0,0 +1,41 @@
+package com.example.simpleblogapi.repositories;
+
+import com.example.simpleblogapi.dto.TagCaseMergeReport;
+import com.example.simpleblogapi.entities.Tag;
+import java.util.Collection;
+import java.util.List;
+
+public interface TagRepositoryCustom {
+
+    /**
+     * Возвращает по одному тегу на каждое имя без учета регистра, создавая
+     * недостающие одним запросом {@code INSERT ... ON CONFLICT DO NOTHING
+     * RETURNING}. Если тег с тем же именем в другом регистре уже есть,
+     * возвращается он. Созданные теги фиксируются в отдельной транзакции,
+     * чтобы их id можно было сразу отдавать другим потокам.
+     */
+    List<Tag> upsertByNames(Collection<String> names);
+
+    /**
+     * Есть ли уникальный индекс по {@code lower(name)}. Без него теги,
+     * различающиеся только регистром, могут создаваться параллельно.
+     */
+    boolean hasLowerNameUniqueIndex();
+
+    /**
+     * Группы тегов, имена которых различаются только регистром. В каждой
+     * остается тег с наименьшим id, остальные перечислены как сливаемые.
+     * Данные не меняются.
+     */
+    List<TagCaseMergeReport.Merge> findCaseDuplicates();
+
+    /**
+     * Сливает группы из {@link #findCaseDuplicates()}: статьи переносятся на
+     * остающийся тег, остальные теги удаляются; затем создается уникальный
+     * индекс по {@code lower(name)}. Выполняется в отдельной транзакции под
+     * блокировкой записи в таблицу тегов. Изменение необратимо.
+     *
+     * @return слитые группы
+     */
+    List<TagCaseMergeReport.Merge> mergeCaseDuplicates();
+}
@@ -0,0 +1,175 @@
+package com.example.simpleblogapi.repositories;
+
+import com.example.simpleblogapi.dto.TagCaseMergeReport;
+import com.example.simpleblogapi.entities.Tag;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class TagRepositoryCustomImpl implements TagRepositoryCustom {
+
+    // Имена вставляются в порядке сортировки, чтобы встречные вставки
+    // одинаковых наборов тегов не могли взаимно заблокироваться. ON CONFLICT
+    // без цели пропускает нарушение любого уникального индекса: после
+    // mergeCaseDuplicates это uk_tags_lower_name, и "Java" и "java" из
+    // параллельных запросов не создадут два тега, а до слияния запрос
+    // работает на ограничении по name.
+    private static final String UPSERT_SQL =
+            "WITH input AS ("
+            + " SELECT DISTINCT ON (lower(n)) n AS name FROM unnest(?::text[]) n"
+            + " ORDER BY lower(n), n),"
+            + " existing AS ("
+            + " SELECT DISTINCT ON (lower(t.name)) t.id, t.name FROM tags t"
+            + " JOIN input i ON lower(t.name) = lower(i.name)"
+            + " ORDER BY lower(t.name), t.id),"
+            + " inserted AS ("
+            + " INSERT INTO tags (name) SELECT i.name FROM input i"
+            + " WHERE NOT EXISTS (SELECT 1 FROM existing e WHERE lower(e.name) = lower(i.name))"
+            + " ORDER BY i.name"
+            + " ON CONFLICT DO NOTHING RETURNING id, name)"
+            + " SELECT id, name FROM existing UNION ALL SELECT id, name FROM inserted";
+
+    private static final String FIND_BY_LOWER_NAMES_SQL =
+            "SELECT DISTINCT ON (lower(name)) id, name FROM tags"
+            + " WHERE lower(name) = ANY(?::text[]) ORDER BY lower(name), id";
+
+    private static final String LOWER_NAME_INDEX_EXISTS_SQL =
+            "SELECT to_regclass('uk_tags_lower_name') IS NOT NULL";
+
+    private static final String FIND_CASE_DUPLICATES_SQL =
+            "SELECT id, name, name_key FROM ("
+            + " SELECT id, name, lower(name) AS name_key,"
+            + " count(*) OVER (PARTITION BY lower(name)) AS copies FROM tags) t"
+            + " WHERE copies > 1 ORDER BY name_key, id";
+
+    private static final String LOCK_TAGS_SQL = "LOCK TABLE tags IN SHARE ROW EXCLUSIVE MODE";
+
+    // Для каждой группы имен, различающихся только регистром, остается тег
+    // с наименьшим id; статьи остальных тегов переносятся на него.
+    private static final String DUPLICATES_CTE =
+            "WITH duplicates AS ("
+            + " SELECT id, keep_id FROM ("
+            + " SELECT id, min(id) OVER (PARTITION BY lower(name)) AS keep_id FROM tags) t"
+            + " WHERE id <> keep_id) ";
+
+    private static final String MOVE_DUPLICATE_LINKS_SQL = DUPLICATES_CTE
+            + "INSERT INTO article_tags (article_id, tag_id)"
+            + " SELECT DISTINCT at.article_id, d.keep_id FROM article_tags at"
+            + " JOIN duplicates d ON at.tag_id = d.id"
+            + " WHERE NOT EXISTS (SELECT 1 FROM article_tags k"
+            + " WHERE k.article_id = at.article_id AND k.tag_id = d.keep_id)";
+
+    private static final String DELETE_DUPLICATE_LINKS_SQL = DUPLICATES_CTE
+            + "DELETE FROM article_tags WHERE tag_id IN (SELECT id FROM duplicates)";
+
+    private static final String DELETE_DUPLICATE_TAGS_SQL = DUPLICATES_CTE
+            + "DELETE FROM tags WHERE id IN (SELECT id FROM duplicates)";
+
+    private static final String DROP_PLAIN_LOWER_NAME_INDEX_SQL =
+            "DROP INDEX IF EXISTS idx_tags_lower_name";
+
+    private static final String CREATE_LOWER_NAME_INDEX_SQL =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_tags_lower_name ON tags (lower(name))";
+
+    private static final RowMapper<Tag> TAG_MAPPER =
+            (rs, rowNum) -> new Tag(rs.getLong("id"), rs.getString("name"), null);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+
+    public TagRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public List<Tag> upsertByNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        List<Tag> tags = new ArrayList<>(requiresNew.execute(status ->
+                queryByNames(UPSERT_SQL, names.toArray(String[]::new))));
+        if (tags.size() >= names.size()) {
+            return tags;
+        }
+
+        // Вставку, проигравшую гонку с другой транзакцией, ON CONFLICT пропускает
+        // без строки в RETURNING; к этому моменту победитель уже зафиксирован.
+        Set<String> found = new HashSet<>();
+        for (Tag tag : tags) {
+            found.add(tag.getName().toLowerCase(Locale.ROOT));
+        }
+        String[] missing = names.stream()
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .filter(name -> !found.contains(name))
+                .distinct()
+                .toArray(String[]::new);
+        if (missing.length > 0) {
+            tags.addAll(queryByNames(FIND_BY_LOWER_NAMES_SQL, missing));
+        }
+        return tags;
+    }
+
+    @Override
+    public boolean hasLowerNameUniqueIndex() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOWER_NAME_INDEX_EXISTS_SQL, Boolean.class));
+    }
+
+    @Override
+    public List<TagCaseMergeReport.Merge> findCaseDuplicates() {
+        // Строки отсортированы по lower(name) и id: первая в группе остается.
+        Map<String, List<Tag>> groups = new LinkedHashMap<>();
+        jdbcTemplate.query(FIND_CASE_DUPLICATES_SQL, (RowCallbackHandler) rs -> groups
+                .computeIfAbsent(rs.getString("name_key"), key -> new ArrayList<>())
+                .add(TAG_MAPPER.mapRow(rs, rs.getRow())));
+        List<TagCaseMergeReport.Merge> merges = new ArrayList<>(groups.size());
+        for (List<Tag> group : groups.values()) {
+            Tag kept = group.get(0);
+            List<Tag> merged = group.subList(1, group.size());
+            merges.add(new TagCaseMergeReport.Merge(kept.getId(), kept.getName(),
+                    merged.stream().map(Tag::getId).toList(),
+                    merged.stream().map(Tag::getName).toList()));
+        }
+        return merges;
+    }
+
+    @Override
+    public List<TagCaseMergeReport.Merge> mergeCaseDuplicates() {
+        // Блокировка не дает вставить новый дубликат между слиянием и
+        // созданием индекса; чтение тегов при этом не блокируется.
+        return requiresNew.execute(status -> {
+            jdbcTemplate.execute(LOCK_TAGS_SQL);
+            List<TagCaseMergeReport.Merge> merges = findCaseDuplicates();
+            if (!merges.isEmpty()) {
+                jdbcTemplate.update(MOVE_DUPLICATE_LINKS_SQL);
+                jdbcTemplate.update(DELETE_DUPLICATE_LINKS_SQL);
+                jdbcTemplate.update(DELETE_DUPLICATE_TAGS_SQL);
+            }
+            jdbcTemplate.execute(CREATE_LOWER_NAME_INDEX_SQL);
+            jdbcTemplate.execute(DROP_PLAIN_LOWER_NAME_INDEX_SQL);
+            return merges;
+        });
+    }
+
+    private List<Tag> queryByNames(String sql, String[] names) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("text", names));
+            return statement;
+        }, TAG_MAPPER);
+    }
+}
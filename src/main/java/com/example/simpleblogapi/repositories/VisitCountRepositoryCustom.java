@@ -0,0 +1,12 @@
+package com.example.simpleblogapi.repositories;
+
+import java.util.Map;
+
+public interface VisitCountRepositoryCustom {
+
+    /**
+     * Одним запросом прибавляет накопленные приращения к счетчикам
+     * (создавая отсутствующие строки) и возвращает новые значения по URL.
+     */
+    Map<String, Long> addVisitCounts(Map<String, Long> deltas);
+}
@@ -0,0 +1,47 @@
+package com.example.simpleblogapi.repositories;
+
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class VisitCountRepositoryCustomImpl implements VisitCountRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO visit_counts (url, count) "
+            + "SELECT * FROM unnest(?::text[], ?::bigint[]) "
+            + "ON CONFLICT (url) DO UPDATE SET count = visit_counts.count + EXCLUDED.count "
+            + "RETURNING url, count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VisitCountRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<String, Long> addVisitCounts(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return Map.of();
+        }
+        String[] urls = new String[deltas.size()];
+        Long[] counts = new Long[deltas.size()];
+        int i = 0;
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            urls[i] = entry.getKey();
+            counts[i] = entry.getValue();
+            i++;
+        }
+
+        Map<String, Long> result = new HashMap<>(deltas.size() * 2);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_SQL);
+            statement.setArray(1, connection.createArrayOf("text", urls));
+            statement.setArray(2, connection.createArrayOf("bigint", counts));
+            return statement;
+        }, rs -> {
+            result.put(rs.getString("url"), rs.getLong("count"));
+        });
+        return result;
+    }
+}
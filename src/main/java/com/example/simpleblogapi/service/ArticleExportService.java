@@ -0,0 +1,210 @@
+package com.example.simpleblogapi.service;
+
+import com.example.simpleblogapi.dto.ExportRow;
+import com.example.simpleblogapi.enums.ExportFormat;
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Полная выгрузка статей вместе с тегами и комментариями. Строки приходят из
+ * одного серверного курсора уже сгруппированными по статье и сразу пишутся в
+ * выходной поток, поэтому в памяти не накапливается ни одна статья целиком.
+ */
+@Service
+public class ArticleExportService {
+
+    private static final String CSV_HEADER =
+            "record_type,article_id,id,name,content,created_at,likes,dislikes";
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final ArticleRepository articleRepository;
+    private final ObjectMapper objectMapper;
+
+    public ArticleExportService(ArticleRepository articleRepository, ObjectMapper objectMapper) {
+        this.articleRepository = articleRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : out;
+        ExportWriter writer = format == ExportFormat.CSV
+                ? new CsvExportWriter(target)
+                : new NdjsonExportWriter(objectMapper.getFactory().createGenerator(target));
+        try {
+            articleRepository.streamExportRows(row -> {
+                try {
+                    writer.write(row);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.finish();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+    }
+
+    private interface ExportWriter {
+        void write(ExportRow row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Каждая статья — отдельный JSON-объект в строке с вложенными массивами
+     * tags и comments. Объект открывается строкой статьи и закрывается, когда
+     * курсор переходит к следующей статье.
+     */
+    private static final class NdjsonExportWriter implements ExportWriter {
+
+        private final JsonGenerator generator;
+        private boolean inArticle;
+        private boolean inComments;
+
+        private NdjsonExportWriter(JsonGenerator generator) {
+            this.generator = generator;
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Объекты разделяются переводом строки, пробел между ними не нужен.
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            switch (row.kind()) {
+                case ARTICLE -> {
+                    closeArticle();
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", row.id());
+                    generator.writeStringField("title", row.name());
+                    generator.writeStringField("content", row.content());
+                    generator.writeStringField("createdAt", formatDate(row.createdAt()));
+                    generator.writeNumberField("likes", row.likes());
+                    generator.writeNumberField("dislikes", row.dislikes());
+                    generator.writeArrayFieldStart("tags");
+                    inArticle = true;
+                    inComments = false;
+                }
+                case TAG -> {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", row.id());
+                    generator.writeStringField("name", row.name());
+                    generator.writeEndObject();
+                }
+                case COMMENT -> {
+                    if (!inComments) {
+                        generator.writeEndArray();
+                        generator.writeArrayFieldStart("comments");
+                        inComments = true;
+                    }
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", row.id());
+                    generator.writeStringField("content", row.content());
+                    generator.writeEndObject();
+                }
+                default -> throw new IllegalStateException("Unknown row kind: " + row.kind());
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            closeArticle();
+            generator.close();
+        }
+
+        private void closeArticle() throws IOException {
+            if (!inArticle) {
+                return;
+            }
+            generator.writeEndArray();
+            if (!inComments) {
+                generator.writeArrayFieldStart("comments");
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            inArticle = false;
+        }
+    }
+
+    /**
+     * Плоский CSV: одна строка на статью, тег или комментарий, различаемые по
+     * record_type. Для тега в name пишется имя тега, для статьи — заголовок.
+     */
+    private static final class CsvExportWriter implements ExportWriter {
+
+        private final Writer writer;
+
+        private CsvExportWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            boolean article = row.kind() == ExportRow.Kind.ARTICLE;
+            writer.write(row.kind().name().toLowerCase(Locale.ROOT));
+            writer.write(',');
+            writer.write(Long.toString(row.articleId()));
+            writer.write(',');
+            writer.write(Long.toString(row.id()));
+            writer.write(',');
+            writeField(row.name());
+            writer.write(',');
+            writeField(row.content());
+            writer.write(',');
+            writeField(formatDate(row.createdAt()));
+            writer.write(',');
+            writer.write(article ? Integer.toString(row.likes()) : "");
+            writer.write(',');
+            writer.write(article ? Integer.toString(row.dislikes()) : "");
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static String formatDate(LocalDateTime value) {
+        return value != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value) : null;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.simpleblogapi.service;
+
+import com.example.simpleblogapi.dto.ImportJobStatus;
+import com.example.simpleblogapi.entities.Article;
+import com.example.simpleblogapi.enums.TaskStatus;
+import com.example.simpleblogapi.exceptions.ServiceBusyException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Фоновый импорт статей из NDJSON или JSON-массива. Тело запроса сначала
+ * копируется во временный файл, после чего задача читает его потоковым
+ * парсером Jackson и сохраняет статьи пачками по
+ * {@code articles.import.chunk-size}, каждая пачка в своей транзакции.
+ * Парсер читает следующую пачку только после коммита предыдущей, поэтому в
+ * памяти находится не больше одной пачки независимо от размера файла.
+ * Завершенные задачи забываются через {@code articles.import.ttl-ms}.
+ */
+@Service
+public class ArticleImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleImportService.class);
+
+    private final ArticleService articleService;
+    private final Validator validator;
+    private final ObjectReader articleReader;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+    private final Map<Long, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+
+    public ArticleImportService(
+            ArticleService articleService,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${articles.import.chunk-size:500}") int chunkSize,
+            @Value("${articles.import.max-errors:1000}") int maxErrors,
+            @Value("${articles.import.max-concurrent-jobs:2}") int maxConcurrentJobs,
+            @Value("${articles.import.queue-capacity:8}") int queueCapacity,
+            @Value("${articles.import.ttl-ms:3600000}") long ttlMs) {
+        this.articleService = articleService;
+        this.validator = validator;
+        this.articleReader = objectMapper.readerFor(Article.class);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.ttl = Duration.ofMillis(ttlMs);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "article-import-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public Long startImport(InputStream body) throws IOException {
+        Path file = Files.createTempFile("article-import-", ".json");
+        long size;
+        try {
+            size = Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+
+        Long taskId = idGenerator.getAndIncrement();
+        ImportJob job = new ImportJob(taskId);
+        jobs.put(taskId, job);
+        try {
+            executor.execute(() -> runImport(job, file));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(taskId);
+            Files.deleteIfExists(file);
+            throw new ServiceBusyException("Слишком много задач импорта, повторите запрос позже");
+        }
+        logger.info("Import task {} queued ({} bytes)", taskId, size);
+        return taskId;
+    }
+
+    public ImportJobStatus getStatus(Long taskId) {
+        ImportJob job = jobs.get(taskId);
+        return job != null ? job.toStatus() : null;
+    }
+
+    private void runImport(ImportJob job, Path file) {
+        logger.info("Import task {} started", job.taskId);
+        List<Article> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkRows = new ArrayList<>(chunkSize);
+        try (InputStream in = Files.newInputStream(file);
+             MappingIterator<Article> rows = articleReader.readValues(in)) {
+            long row = 0;
+            while (true) {
+                Article article;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    article = rows.nextValue();
+                } catch (JsonMappingException ex) {
+                    // Итератор сам пропустит остаток ошибочного значения.
+                    job.rowsRead.incrementAndGet();
+                    job.reject(row, ex.getOriginalMessage(), maxErrors);
+                    continue;
+                }
+                job.rowsRead.incrementAndGet();
+
+                String violations = validate(article);
+                if (violations != null) {
+                    job.reject(row, violations, maxErrors);
+                    continue;
+                }
+                chunk.add(article);
+                chunkRows.add(row);
+                if (chunk.size() >= chunkSize) {
+                    commitChunk(job, chunk, chunkRows);
+                    chunk = new ArrayList<>(chunkSize);
+                    chunkRows = new ArrayList<>(chunkSize);
+                }
+            }
+            commitChunk(job, chunk, chunkRows);
+            job.finishedAt = Instant.now();
+            job.status = TaskStatus.COMPLETED;
+            logger.info("Import task {} completed: {} read, {} committed, {} rejected",
+                    job.taskId, job.rowsRead.get(), job.rowsCommitted.get(),
+                    job.rowsRejected.get());
+        } catch (IOException | RuntimeException ex) {
+            // Синтаксическая ошибка не позволяет найти начало следующей строки,
+            // поэтому задача останавливается; уже закоммиченные пачки остаются.
+            job.failureReason = ex.getMessage();
+            job.finishedAt = Instant.now();
+            job.status = TaskStatus.FAILED;
+            logger.error("Import task {} failed after {} rows: {}",
+                    job.taskId, job.rowsRead.get(), ex.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                logger.warn("Failed to delete import file {}: {}", file, ex.getMessage());
+            }
+        }
+    }
+
+    private void commitChunk(ImportJob job, List<Article> chunk, List<Long> chunkRows) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            articleService.bulkCreateArticles(chunk);
+            job.rowsCommitted.addAndGet(chunk.size());
+            return;
+        } catch (RuntimeException ex) {
+            logger.warn("Import task {}: chunk of {} rows failed ({}), retrying row by row",
+                    job.taskId, chunk.size(), ex.getMessage());
+        }
+        // Пачка откатилась целиком; построчный повтор отделяет ошибочные строки от корректных.
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                articleService.bulkCreateArticles(List.of(chunk.get(i)));
+                job.rowsCommitted.incrementAndGet();
+            } catch (RuntimeException ex) {
+                job.reject(chunkRows.get(i), ex.getMessage(), maxErrors);
+            }
+        }
+    }
+
+    private String validate(Article article) {
+        if (article == null) {
+            return "Пустая строка импорта";
+        }
+        Set<ConstraintViolation<Article>> violations = validator.validate(article);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Удаляет статусы задач, завершенных раньше TTL.
+     */
+    @Scheduled(fixedDelayString = "${articles.import.cleanup-interval-ms:600000}")
+    public void evictExpired() {
+        Instant threshold = Instant.now().minus(ttl);
+        int removed = 0;
+        for (ImportJob job : List.copyOf(jobs.values())) {
+            Instant finishedAt = job.finishedAt;
+            if (finishedAt != null && !finishedAt.isAfter(threshold) && jobs.remove(job.taskId, job)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            logger.info("Evicted {} expired import tasks", removed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class ImportJob {
+        private final Long taskId;
+        private volatile TaskStatus status = TaskStatus.IN_PROGRESS;
+        private volatile String failureReason;
+        private volatile Instant finishedAt;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsCommitted = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final Queue<ImportJobStatus.RowError> errors = new ConcurrentLinkedQueue<>();
+
+        ImportJob(Long taskId) {
+            this.taskId = taskId;
+        }
+
+        // Храним не больше maxErrors описаний, чтобы файл из одних ошибок не занял всю память.
+        private void reject(long row, String message, int maxErrors) {
+            if (rowsRejected.getAndIncrement() < maxErrors) {
+                errors.add(new ImportJobStatus.RowError(row, message));
+            }
+        }
+
+        private ImportJobStatus toStatus() {
+            return new ImportJobStatus(taskId, status, rowsRead.get(), rowsCommitted.get(),
+                    rowsRejected.get(), failureReason, List.copyOf(errors));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.simpleblogapi.service;
+
+import com.example.simpleblogapi.dto.ReactionCounts;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.exceptions.ServiceBusyException;
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Лайки и дизлайки. Реакции на одну статью, пришедшие в пределах окна
+ * {@code articles.reactions.coalesce-window-ms}, складываются в памяти и
+ * применяются одним атомарным UPDATE; все ожидающие запросы получают
+ * итоговые значения счетчиков.
+ *
+ * <p>Счетчик не опускается ниже нуля после каждой реакции, поэтому пачку
+ * нельзя свести к сумме приращений: снятие лайка и лайк при нуле дают 1, а
+ * не 0. Для последовательности ±1 с суммами префиксов {@code S_k}
+ * результат равен {@code max(x + S_n, S_n - min S_k)}, где минимум берется
+ * и по пустому префиксу; пачка хранит {@code S_n} и {@code min S_k}.
+ *
+ * <p>Запрос ждет применения пачки не дольше
+ * {@code articles.reactions.wait-timeout-ms}: если UPDATE задерживается
+ * блокировкой или потоки flush заняты, запрос получает 503, а не занимает
+ * поток сервера. Реакция при этом остается в пачке и может быть применена
+ * позже.
+ */
+@Service
+public class ArticleReactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleReactionService.class);
+
+    private final ArticleRepository articleRepository;
+    private final long coalesceWindowMs;
+    private final long waitTimeoutMs;
+    private final Map<Long, PendingReaction> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public ArticleReactionService(
+            ArticleRepository articleRepository,
+            @Value("${articles.reactions.coalesce-window-ms:20}") long coalesceWindowMs,
+            @Value("${articles.reactions.flush-threads:2}") int flushThreads,
+            @Value("${articles.reactions.wait-timeout-ms:5000}") long waitTimeoutMs) {
+        this.articleRepository = articleRepository;
+        this.coalesceWindowMs = coalesceWindowMs;
+        this.waitTimeoutMs = waitTimeoutMs;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.flusher = Executors.newScheduledThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable,
+                    "reaction-flusher-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ReactionCounts likeArticle(Long id) {
+        return react(id, 1, 0);
+    }
+
+    public ReactionCounts dislikeArticle(Long id) {
+        return react(id, 0, 1);
+    }
+
+    public ReactionCounts removeLike(Long id) {
+        return react(id, -1, 0);
+    }
+
+    public ReactionCounts removeDislike(Long id) {
+        return react(id, 0, -1);
+    }
+
+    private ReactionCounts react(Long articleId, int likesDelta, int dislikesDelta) {
+        if (coalesceWindowMs <= 0) {
+            return apply(articleId, likesDelta, Math.max(likesDelta, 0),
+                    dislikesDelta, Math.max(dislikesDelta, 0));
+        }
+
+        // compute выполняется под блокировкой ключа, поэтому приращение не может
+        // попасть в пачку, которую flush уже забрал из карты.
+        PendingReaction batch = pending.compute(articleId, (id, current) -> {
+            PendingReaction target = current;
+            if (target == null) {
+                target = new PendingReaction();
+                flusher.schedule(() -> flush(id), coalesceWindowMs, TimeUnit.MILLISECONDS);
+            }
+            target.likesDelta += likesDelta;
+            target.likesMinPrefix = Math.min(target.likesMinPrefix, target.likesDelta);
+            target.dislikesDelta += dislikesDelta;
+            target.dislikesMinPrefix = Math.min(target.dislikesMinPrefix, target.dislikesDelta);
+            return target;
+        });
+
+        try {
+            return batch.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            logger.warn("Reaction batch for article {} not applied within {} ms",
+                    articleId, waitTimeoutMs);
+            throw new ServiceBusyException("Реакция не применена вовремя, повторите запрос позже");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Ожидание применения реакции прервано");
+        }
+    }
+
+    private void flush(Long articleId) {
+        PendingReaction batch = pending.remove(articleId);
+        if (batch == null) {
+            return;
+        }
+        try {
+            batch.result.complete(apply(articleId,
+                    batch.likesDelta, batch.likesDelta - batch.likesMinPrefix,
+                    batch.dislikesDelta, batch.dislikesDelta - batch.dislikesMinPrefix));
+        } catch (RuntimeException ex) {
+            batch.result.completeExceptionally(ex);
+        }
+    }
+
+    private ReactionCounts apply(Long articleId, int likesDelta, int likesFloor,
+                                 int dislikesDelta, int dislikesFloor) {
+        return articleRepository.applyReactionDelta(articleId,
+                        likesDelta, likesFloor, dislikesDelta, dislikesFloor)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Article not found with id: " + articleId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        for (Long articleId : new ArrayList<>(pending.keySet())) {
+            flush(articleId);
+        }
+        logger.info("Reaction flusher stopped");
+    }
+
+    private static final class PendingReaction {
+        private int likesDelta;
+        private int likesMinPrefix;
+        private int dislikesDelta;
+        private int dislikesMinPrefix;
+        private final CompletableFuture<ReactionCounts> result = new CompletableFuture<>();
+    }
+}
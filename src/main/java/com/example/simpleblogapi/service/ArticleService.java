@@ -1,82 +1,224 @@
 package com.example.simpleblogapi.service;
 
+import com.example.simpleblogapi.cache.CommentCache;
+import com.example.simpleblogapi.cache.TagNameCache;
+import com.example.simpleblogapi.dto.ArticleCursor;
+import com.example.simpleblogapi.dto.ArticleDetail;
+import com.example.simpleblogapi.dto.ArticlePage;
+import com.example.simpleblogapi.dto.ArticleSearchPage;
+import com.example.simpleblogapi.dto.ArticleSummary;
+import com.example.simpleblogapi.dto.ArticleTagName;
+import com.example.simpleblogapi.dto.TagQueryResult;
 import com.example.simpleblogapi.entities.Article;
 import com.example.simpleblogapi.entities.Tag;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
 import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.index.TagArticleIndex;
 import com.example.simpleblogapi.repositories.ArticleRepository;
 import com.example.simpleblogapi.repositories.TagRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ArticleService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ArticleRepository articleRepository;
     private final TagRepository tagRepository;
     private final TagService tagService;
+    private final TagArticleIndex tagArticleIndex;
+    private final CommentCache commentCache;
 
-    public ArticleService(ArticleRepository articleRepository, TagRepository tagRepository, TagService tagService) {
+    public ArticleService(ArticleRepository articleRepository, TagRepository tagRepository,
+                          TagService tagService, TagArticleIndex tagArticleIndex,
+                          CommentCache commentCache) {
         this.articleRepository = articleRepository;
         this.tagRepository = tagRepository;
         this.tagService = tagService; // Используем TagService для управления тегами
+        this.tagArticleIndex = tagArticleIndex;
+        this.commentCache = commentCache;
     }
 
     public List<Article> getAllArticles() {
         return articleRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public ArticlePage<ArticleSummary> getArticlesPage(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница.
+        Limit limit = Limit.of(size + 1);
+        List<ArticleSummary> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = articleRepository.findSummaryFirstPage(limit);
+        } else {
+            ArticleCursor after = ArticleCursor.decode(cursor);
+            summaries = articleRepository.findSummaryPageAfter(after.createdAt(), after.id(), limit);
+        }
+
+        String nextCursor = null;
+        if (summaries.size() > size) {
+            summaries = summaries.subList(0, size);
+            nextCursor = ArticleCursor.of(summaries.get(size - 1)).encode();
+        }
+        return new ArticlePage<>(withTagNames(articleRepository, summaries), nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public ArticleDetail getArticleDetail(Long id) {
+        return articleRepository.findWithTagsById(id)
+                .map(ArticleDetail::of)
+                .orElseThrow(() -> new ResourceNotFoundException("Article not found with id: " + id));
+    }
+
+    // Теги всей страницы подгружаются одним запросом, а не отдельным запросом на статью.
+    static List<ArticleSummary> withTagNames(ArticleRepository articleRepository,
+                                             List<ArticleSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        List<Long> ids = summaries.stream().map(ArticleSummary::id).toList();
+        Map<Long, List<String>> tagNames = new HashMap<>();
+        for (ArticleTagName row : articleRepository.findTagNamesByArticleIds(ids)) {
+            tagNames.computeIfAbsent(row.articleId(), key -> new ArrayList<>()).add(row.tagName());
+        }
+        return summaries.stream()
+                .map(summary -> summary.withTags(tagNames.getOrDefault(summary.id(), List.of())))
+                .toList();
+    }
+
     public Article getArticleById(Long id) {
         return articleRepository.findById(id).orElseThrow(() ->
                 new ResourceNotFoundException("Article not found with id: " + id));
     }
 
-    @Transactional
+    /**
+     * Создает статьи пакетной вставкой. Теги разрешаются до открытия
+     * транзакции статей: по id и по имени через кэши {@link TagService},
+     * недостающие по имени создаются сразу. Неизвестный id тега отменяет
+     * весь пакет; id проверяются до создания тегов по имени, чтобы
+     * отклоненный пакет не оставлял новых тегов.
+     */
     public List<Article> bulkCreateArticles(List<Article> articles) {
-        List<Article> savedArticles = new ArrayList<>();
+        if (articles.isEmpty()) {
+            return articles;
+        }
+
+        Set<Long> tagIds = new LinkedHashSet<>();
+        Set<String> tagNames = new HashSet<>();
         for (Article article : articles) {
-            savedArticles.add(createArticle(article));
+            if (article.getTags() == null) {
+                continue;
+            }
+            for (Tag submittedTag : article.getTags()) {
+                if (submittedTag.getId() != null) {
+                    tagIds.add(submittedTag.getId());
+                } else if (submittedTag.getName() != null && !submittedTag.getName().isBlank()) {
+                    tagNames.add(submittedTag.getName());
+                }
+            }
         }
-        return savedArticles;
-    }
 
-    @Transactional
-    public Article createArticle(Article article) {
-        if (article.getCreatedAt() == null) {
-            article.setCreatedAt(LocalDateTime.now());
+        Map<Long, Tag> tagsById = tagIds.isEmpty() ? Map.of() : tagService.getTagsByIds(tagIds);
+        for (Long tagId : tagIds) {
+            if (!tagsById.containsKey(tagId)) {
+                throw new ResourceNotFoundException("Tag with id " + tagId
+                        + " not found during article creation.");
+            }
         }
+        Map<String, Tag> tagsByName = tagNames.isEmpty()
+                ? Map.of() : tagService.getOrCreateTags(tagNames);
 
-        if (article.getTags() != null && !article.getTags().isEmpty()) {
-            List<Tag> managedTags = new ArrayList<>();
-            for (Tag submittedTag : article.getTags()) {
-                if (submittedTag.getId() == null && submittedTag.getName() != null) {
-                    managedTags.add(tagService.getOrCreateTag(submittedTag.getName()));
-                } else if (submittedTag.getId() != null) {
-                    Tag existingTag = tagRepository.findById(submittedTag.getId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Tag with id " + submittedTag.getId() + " not found during article creation."));
-                    managedTags.add(existingTag);
+        LocalDateTime now = LocalDateTime.now();
+        for (Article article : articles) {
+            if (article.getCreatedAt() == null) {
+                article.setCreatedAt(now);
+            }
+            List<Tag> resolvedTags = new ArrayList<>();
+            Set<Long> linkedTagIds = new HashSet<>();
+            if (article.getTags() != null) {
+                for (Tag submittedTag : article.getTags()) {
+                    Tag resolved = null;
+                    if (submittedTag.getId() != null) {
+                        resolved = tagsById.get(submittedTag.getId());
+                    } else if (submittedTag.getName() != null && !submittedTag.getName().isBlank()) {
+                        resolved = tagsByName.get(TagNameCache.normalize(submittedTag.getName()));
+                    }
+                    if (resolved != null && linkedTagIds.add(resolved.getId())) {
+                        resolvedTags.add(resolved);
+                    }
                 }
             }
-            article.setTags(managedTags);
-        } else {
-            article.setTags(new ArrayList<>());
+            article.setTags(resolvedTags);
+        }
+
+        articleRepository.bulkInsert(articles);
+        for (Article article : articles) {
+            indexed(article);
         }
-        return articleRepository.save(article);
+        return articles;
     }
 
+    public Article createArticle(Article article) {
+        return bulkCreateArticles(List.of(article)).get(0);
+    }
+
+    @Transactional
     public void deleteArticle(Long id) {
         if (!articleRepository.existsById(id)) {
             throw new ResourceNotFoundException("Статья с id " + id + " не найдена");
         }
         articleRepository.deleteById(id);
+        tagArticleIndex.removeArticle(id);
+        commentCache.invalidate(id);
     }
 
     public List<Article> getArticlesByTagName(String tagName) {
-        return articleRepository.findArticlesByTagName(tagName);
+        TagQueryResult result = tagArticleIndex.query(
+                List.of(tagName), List.of(), List.of(), 0, Integer.MAX_VALUE);
+        if (result.articleIds().isEmpty()) {
+            return List.of();
+        }
+        return articleRepository.findAllById(result.articleIds());
+    }
+
+    @Transactional(readOnly = true)
+    public ArticleSearchPage searchByTags(List<String> all, List<String> any, List<String> none,
+                                          int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Номер страницы должен быть неотрицательным,"
+                    + " а размер страницы от 1 до " + MAX_PAGE_SIZE);
+        }
+        TagQueryResult result = tagArticleIndex.query(
+                nonBlank(all), nonBlank(any), nonBlank(none), page * size, size);
+        if (result.articleIds().isEmpty()) {
+            return new ArticleSearchPage(result.total(), page, size, List.of());
+        }
+
+        Map<Long, ArticleSummary> byId = new HashMap<>();
+        for (ArticleSummary summary : articleRepository.findSummariesByIds(result.articleIds())) {
+            byId.put(summary.id(), summary);
+        }
+        List<ArticleSummary> ordered = result.articleIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new ArticleSearchPage(result.total(), page, size, withTagNames(articleRepository, ordered));
     }
 
     @Transactional
@@ -88,47 +230,20 @@ public class ArticleService {
         if (article.getTags() == null) {
             article.setTags(new ArrayList<>());
         }
-        if (!article.getTags().stream().anyMatch(t -> t.getId().equals(tag.getId()))) {
+        if (!article.getTags().stream().anyMatch(t -> tag.getId().equals(t.getId()))) {
             article.getTags().add(tag);
         }
-        return articleRepository.save(article);
+        return indexed(articleRepository.save(article));
     }
 
     @Transactional
     public Article removeTagFromArticle(Long articleId, Long tagId) {
         Article article = getArticleById(articleId);
-        article.getTags().removeIf(tag -> tag.getId().equals(tagId));
-        return articleRepository.save(article);
-    }
-
-    public Article likeArticle(Long id) {
-        Article article = getArticleById(id);
-        article.setLikes(article.getLikes() + 1);
-        return articleRepository.save(article);
-    }
-
-    public Article dislikeArticle(Long id) {
-        Article article = getArticleById(id);
-        article.setDislikes(article.getDislikes() + 1);
-        return articleRepository.save(article);
-    }
-
-    public Article removeLike(Long id) {
-        Article article = getArticleById(id);
-        if (article.getLikes() > 0) {
-            article.setLikes(article.getLikes() - 1);
-        }
-        return articleRepository.save(article);
-    }
-
-    public Article removeDislike(Long id) {
-        Article article = getArticleById(id);
-        if (article.getDislikes() > 0) {
-            article.setDislikes(article.getDislikes() - 1);
-        }
-        return articleRepository.save(article);
+        article.getTags().removeIf(tag -> tagId.equals(tag.getId()));
+        return indexed(articleRepository.save(article));
     }
 
+    @Transactional(readOnly = true)
     public List<Tag> getTagsByArticleId(Long articleId) {
         Article article = getArticleById(articleId);
         return new ArrayList<>(article.getTags());
@@ -158,6 +273,16 @@ public class ArticleService {
             existingArticle.getTags().addAll(managedTagsForArticle);
         }
 
-        return articleRepository.save(existingArticle);
+        return indexed(articleRepository.save(existingArticle));
+    }
+
+    private static List<String> nonBlank(List<String> tagNames) {
+        return tagNames.stream().filter(name -> !name.isBlank()).toList();
+    }
+
+    private Article indexed(Article article) {
+        tagArticleIndex.indexArticle(article.getId(),
+                article.getTags().stream().map(Tag::getId).toList());
+        return article;
     }
 }
\ No newline at end of file
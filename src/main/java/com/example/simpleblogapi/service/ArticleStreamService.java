@@ -0,0 +1,65 @@
+package com.example.simpleblogapi.service;
+
+import com.example.simpleblogapi.dto.ArticleSummary;
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Выгрузка всех статей в формате NDJSON напрямую из серверного курсора.
+ * Курсор возвращает {@link ArticleSummary}, а не сущности, поэтому в
+ * контексте персистентности ничего не накапливается и ленивые теги не
+ * подгружаются по одной статье. Теги догружаются одним запросом на пачку
+ * статей размером с fetch size курсора, как на постраничном эндпоинте, и
+ * память не зависит от размера таблицы.
+ */
+@Service
+public class ArticleStreamService {
+
+    private static final int CHUNK_SIZE = Integer.parseInt(ArticleRepository.STREAM_FETCH_SIZE);
+
+    private final ArticleRepository articleRepository;
+    private final ObjectWriter summaryWriter;
+
+    public ArticleStreamService(ArticleRepository articleRepository, ObjectMapper objectMapper) {
+        this.articleRepository = articleRepository;
+        this.summaryWriter = objectMapper.writerFor(ArticleSummary.class)
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public void writeAllArticles(OutputStream out) throws IOException {
+        try (Stream<ArticleSummary> summaries = articleRepository.streamAllSummaries();
+             JsonGenerator generator = summaryWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<ArticleSummary> iterator = summaries.iterator();
+            List<ArticleSummary> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(generator, chunk);
+                    chunk.clear();
+                }
+            }
+            writeChunk(generator, chunk);
+        }
+    }
+
+    private void writeChunk(JsonGenerator generator, List<ArticleSummary> chunk) throws IOException {
+        for (ArticleSummary summary : ArticleService.withTagNames(articleRepository, chunk)) {
+            summaryWriter.writeValue(generator, summary);
+            generator.writeRaw('\n');
+        }
+    }
+}
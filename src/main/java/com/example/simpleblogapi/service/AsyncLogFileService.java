@@ -1,148 +1,563 @@
 package com.example.simpleblogapi.service;
 
+import com.example.simpleblogapi.dto.LogTaskEngineStats;
+import com.example.simpleblogapi.dto.LogTaskProgress;
 import com.example.simpleblogapi.enums.TaskStatus;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.events.SseBroadcaster;
+import com.example.simpleblogapi.events.SseBroadcaster.Frame;
+import com.example.simpleblogapi.exceptions.ServiceBusyException;
+import com.example.simpleblogapi.logs.LogArtifact;
+import com.example.simpleblogapi.logs.LogArtifactCache;
+import com.example.simpleblogapi.logs.LogFileExtractor;
+import com.example.simpleblogapi.logs.LogScanProgress;
+import com.example.simpleblogapi.logs.LogTaskStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.ApplicationContext;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+/**
+ * Фоновая генерация лог-файлов за дату. Задачи выполняет собственный
+ * ограниченный пул с ограниченной очередью: при переполнении запрос
+ * отклоняется с 503, а отказ учитывается в статистике. Задачу можно
+ * отменить, пока она в очереди или выполняется.
+ *
+ * <p>Метаданные задач сохраняются в {@link LogTaskStore}, поэтому готовые
+ * файлы доступны и после перезапуска; задачи, прерванные перезапуском,
+ * помечаются как FAILED и при повторном запросе запускаются заново.
+ * Завершенные задачи и их файлы удаляются через {@code logs.tasks.ttl-ms}.
+ * Сами строки берутся из {@link LogArtifactCache}: файл задачи и его
+ * сжатая копия — жесткие ссылки на общие файлы за дату, поэтому задача и
+ * синхронная выгрузка одной даты не сканируют лог дважды, а удаление
+ * задачи не трогает кэш.
+ *
+ * <p>Прогресс задачи (прочитанные байты из общего объема и найденные строки)
+ * можно получать потоком Server-Sent Events. Сканирующий поток только
+ * прибавляет счетчики раз на прочитанный блок; снимки прогресса
+ * подписчикам рассылает планировщик раз в
+ * {@code logs.tasks.progress-interval-ms}, а смену статуса — сразу.
+ */
 @Service
-@EnableAsync
 public class AsyncLogFileService {
 
     private static final Logger logger = LoggerFactory.getLogger(AsyncLogFileService.class);
 
-    private static final String LOG_DIRECTORY_PATH = "logs";
-    private static final String MAIN_LOG_FILE = LOG_DIRECTORY_PATH + "/app.log";
+    private static final String TASK_FILE_PREFIX = "daily-log-";
+    static final String PROGRESS_EVENT = "progress";
+    static final String FINISHED_EVENT = "finished";
+    private static final int EVENT_BUFFER_SIZE = 64;
+    private static final long EVENT_HEARTBEAT_INTERVAL_MS = 15_000;
+    private static final long EVENT_SEND_TIMEOUT_MS = 10_000;
 
-    private final Map<Long, TaskStatus> taskStatusMap = new ConcurrentHashMap<>();
-    private final Map<Long, String> taskFileMap = new ConcurrentHashMap<>();
+    private final LogFileExtractor logFileExtractor;
+    private final LogArtifactCache artifactCache;
+    private final LogTaskStore taskStore;
+    private final Path taskDirectory;
+    private final long artificialDelayMs;
+    private final Duration ttl;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final SseBroadcaster<Long> events;
+    private final ObjectWriter progressWriter;
+
+    private final Map<Long, LogTask> tasks = new ConcurrentHashMap<>();
     private final Map<String, Long> dateTaskMap = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
-    private final ApplicationContext applicationContext;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
 
-    public AsyncLogFileService(ApplicationContext applicationContext) {
-        this.applicationContext = applicationContext;
+    public AsyncLogFileService(
+            LogFileExtractor logFileExtractor,
+            LogArtifactCache artifactCache,
+            ObjectMapper objectMapper,
+            @Value("${logs.tasks.directory:logs/tasks}") String taskDirectory,
+            @Value("${logs.tasks.workers:2}") int workers,
+            @Value("${logs.tasks.queue-capacity:16}") int queueCapacity,
+            @Value("${logs.tasks.artificial-delay-ms:0}") long artificialDelayMs,
+            @Value("${logs.tasks.ttl-ms:86400000}") long ttlMs) {
+        this.logFileExtractor = logFileExtractor;
+        this.artifactCache = artifactCache;
+        this.taskDirectory = Path.of(taskDirectory);
+        this.taskStore = new LogTaskStore(this.taskDirectory.resolve("tasks.json"), objectMapper);
+        this.artificialDelayMs = artificialDelayMs;
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "log-task-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.events = new SseBroadcaster<>("log-task-events", EVENT_BUFFER_SIZE, 1,
+                EVENT_HEARTBEAT_INTERVAL_MS, EVENT_SEND_TIMEOUT_MS);
+        this.progressWriter = objectMapper.writerFor(LogTaskProgress.class);
+        restore();
     }
 
-    @Async
-    public void generateLogFileAsync(String date, Long taskId) {
-        logger.info("Task {} started. Setting status to IN_PROGRESS.", taskId);
-        taskStatusMap.put(taskId, TaskStatus.IN_PROGRESS);
-
-
+    public Long startLogFileGeneration(String date) {
         try {
-            long delaySeconds = 10;
-            logger.info("Task {} entering artificial delay of {} seconds...", taskId, delaySeconds);
-            TimeUnit.SECONDS.sleep(delaySeconds);
-            logger.info("Task {} finished artificial delay.", taskId);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.warn("Task {} sleep interrupted", taskId, e);
+            LocalDate.parse(date);
+        } catch (DateTimeParseException ex) {
+            throw new InvalidInputException("Неверный формат даты.");
+        }
+        synchronized (dateTaskMap) {
+            Long existingTaskId = dateTaskMap.get(date);
+            LogTask existing = existingTaskId != null ? tasks.get(existingTaskId) : null;
+            if (existing != null && existing.status != TaskStatus.FAILED
+                    && existing.status != TaskStatus.CANCELLED) {
+                logger.info("Task for date {} already exists with ID {} and status {}."
+                        + " Returning existing ID.", date, existingTaskId, existing.status);
+                return existingTaskId;
+            }
 
+            LogTask task = new LogTask(idGenerator.getAndIncrement(), date, Instant.now());
+            tasks.put(task.taskId, task);
+            try {
+                task.future = executor.submit(() -> run(task));
+            } catch (RejectedExecutionException ex) {
+                tasks.remove(task.taskId);
+                rejected.increment();
+                throw new ServiceBusyException("Слишком много задач генерации логов,"
+                        + " повторите запрос позже");
+            }
+            submitted.increment();
+            dateTaskMap.put(date, task.taskId);
+            logger.info("Log generation task {} for date {} queued", task.taskId, date);
+            persist();
+            return task.taskId;
+        }
+    }
 
-            taskStatusMap.put(taskId, TaskStatus.FAILED);
-            return;
+    public TaskStatus getTaskStatus(Long taskId) {
+        LogTask task = tasks.get(taskId);
+        return task != null ? task.status : null;
+    }
+
+    public File getLogFile(Long taskId) {
+        LogTask task = tasks.get(taskId);
+        if (task == null || task.status != TaskStatus.COMPLETED) {
+            logger.warn("Attempt to get log file for task {} which is not COMPLETED (status: {})",
+                    taskId, task != null ? task.status : null);
+            return null;
         }
+        return task.file != null ? task.file.toFile() : null;
+    }
 
-        try {
-            logger.info("Task {} starting file processing...", taskId);
-            if (!Files.exists(Paths.get(MAIN_LOG_FILE))) {
-                throw new IOException("Основной лог-файл не найден: " + MAIN_LOG_FILE);
+    /**
+     * Отменяет задачу: из очереди она удаляется, выполняющаяся прерывается.
+     * Завершенная задача не меняется.
+     *
+     * @return статус задачи после отмены
+     * @throws ResourceNotFoundException если задачи нет
+     */
+    public TaskStatus cancelTask(Long taskId) {
+        LogTask task = tasks.get(taskId);
+        if (task == null) {
+            throw new ResourceNotFoundException("Задача с таким ID не найдена");
+        }
+        if (task.finish(TaskStatus.CANCELLED, null)) {
+            Future<?> future = task.future;
+            if (future != null) {
+                future.cancel(true);
             }
-            var logLines = Files.readAllLines(Paths.get(MAIN_LOG_FILE));
-            var filteredLogs = logLines.stream()
-                    .filter(line -> line.startsWith(date))
-                    .toList();
-
-            if (filteredLogs.isEmpty()) {
+            executor.purge();
+            cancelled.increment();
+            logger.info("Log generation task {} cancelled", taskId);
+            persist();
+            publishFinished(task);
+        }
+        return task.status;
+    }
 
-                logger.warn("No logs found for date {} in task {}."
-                        + " Completing task without creating file.", date, taskId);
-                taskStatusMap.put(taskId, TaskStatus.COMPLETED);
+    /**
+     * Снимок прогресса задачи или {@code null}, если задачи нет.
+     */
+    public LogTaskProgress getProgress(Long taskId) {
+        LogTask task = tasks.get(taskId);
+        return task != null ? task.toProgress() : null;
+    }
 
-                return;
+    /**
+     * Открывает поток событий задачи: сразу текущий снимок, затем события
+     * {@code progress} по ходу выполнения и {@code finished} с итоговым
+     * статусом, после которого поток закрывается. Для уже завершенной задачи
+     * отправляется только {@code finished}.
+     *
+     * @throws ResourceNotFoundException если задачи нет
+     */
+    public ResponseBodyEmitter subscribe(Long taskId) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        subscribe(taskId, emitter);
+        return emitter;
+    }
 
+    public void subscribe(Long taskId, ResponseBodyEmitter emitter) {
+        LogTask task = tasks.get(taskId);
+        if (task == null) {
+            throw new ResourceNotFoundException("Задача с таким ID не найдена");
+        }
+        // Снимок и регистрация выполняются под той же блокировкой, что и
+        // publishFinished: итоговое событие клиент получает либо в снимке,
+        // и тогда поток закрывается здесь, либо рассылкой после регистрации.
+        synchronized (task) {
+            LogTaskProgress snapshot = task.toProgress();
+            events.subscribe(taskId, emitter, () -> List.of(encode(snapshot)));
+            if (snapshot.status().isFinished()) {
+                events.complete(taskId);
             }
+        }
+    }
 
+    /**
+     * Рассылает подписчикам прогресс выполняющихся задач, если он изменился
+     * с прошлой рассылки.
+     */
+    @Scheduled(fixedDelayString = "${logs.tasks.progress-interval-ms:500}")
+    public void publishProgress() {
+        for (LogTask task : tasks.values()) {
+            if (task.status != TaskStatus.IN_PROGRESS) {
+                continue;
+            }
+            long scanned = task.progress.bytesScanned();
+            if (scanned != task.publishedScanned) {
+                task.publishedScanned = scanned;
+                events.publish(task.taskId, () -> encode(task));
+            }
+        }
+    }
 
-            Files.createDirectories(Paths.get(LOG_DIRECTORY_PATH));
+    public LogTaskEngineStats getStats() {
+        return new LogTaskEngineStats(executor.getMaximumPoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), queueCapacity, submitted.sum(), rejected.sum(),
+                completed.sum(), failed.sum(), cancelled.sum(), evicted.sum(), tasks.size());
+    }
 
-            String dailyLogFilePath = LOG_DIRECTORY_PATH + "/daily-log-" + taskId + ".log";
-            logger.info("Task {} writing {} filtered"
-                    + " log lines to {}", taskId, filteredLogs.size(), dailyLogFilePath);
-            try (FileWriter writer = new FileWriter(dailyLogFilePath)) {
-                for (String log : filteredLogs) {
-                    writer.write(log + System.lineSeparator());
+    /**
+     * Удаляет завершенные задачи старше TTL вместе с их файлами, а также
+     * файлы задач, которых нет в метаданных (например, оставшиеся после
+     * сбоя до сохранения).
+     */
+    @Scheduled(fixedDelayString = "${logs.tasks.cleanup-interval-ms:600000}")
+    public void evictExpired() {
+        Instant threshold = Instant.now().minus(ttl);
+        int removed = 0;
+        for (LogTask task : List.copyOf(tasks.values())) {
+            if (task.status.isFinished() && task.finishedAt != null
+                    && task.finishedAt.isBefore(threshold)) {
+                tasks.remove(task.taskId);
+                dateTaskMap.remove(task.date, task.taskId);
+                deleteQuietly(task.file);
+                removed++;
+            }
+        }
+        Set<Path> referenced = new HashSet<>();
+        for (LogTask task : tasks.values()) {
+            if (task.file != null) {
+                referenced.add(task.file.toAbsolutePath());
+                referenced.add(LogArtifact.compressedSibling(task.file).toAbsolutePath());
+            }
+        }
+        if (Files.isDirectory(taskDirectory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(taskDirectory,
+                    TASK_FILE_PREFIX + "*.log{,.gz}")) {
+                for (Path file : files) {
+                    if (!referenced.contains(file.toAbsolutePath())
+                            && Files.getLastModifiedTime(file).toInstant().isBefore(threshold)) {
+                        deleteQuietly(file);
+                    }
                 }
+            } catch (IOException ex) {
+                logger.warn("Failed to clean up log task files: {}", ex.getMessage());
             }
-            taskFileMap.put(taskId, dailyLogFilePath);
-            taskStatusMap.put(taskId, TaskStatus.COMPLETED);
-            logger.info("Task {} completed successfully.", taskId);
+        }
+        if (removed > 0) {
+            evicted.add(removed);
+            logger.info("Evicted {} expired log generation tasks", removed);
+            persist();
+        }
+    }
 
-        } catch (IOException ex) {
-            taskStatusMap.put(taskId, TaskStatus.FAILED);
-            logger.error("IO Error during log file"
-                    + " generation for taskId {}: {}", taskId, ex.getMessage(), ex);
-        } catch (Exception ex) {
-            taskStatusMap.put(taskId, TaskStatus.FAILED);
-            logger.error("Unexpected error during log file"
-                    + " generation for taskId {}: {}", taskId, ex.getMessage(), ex);
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        events.shutdown();
+        try {
+            // Дать прерванным задачам сохранить итоговый статус.
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    public Long startLogFileGeneration(String date) {
-        if (dateTaskMap.containsKey(date)) {
-            Long existingTaskId = dateTaskMap.get(date);
-            TaskStatus currentStatus = taskStatusMap.get(existingTaskId);
+    private void run(LogTask task) {
+        if (!task.start()) {
+            return;
+        }
+        logger.info("Task {} started for date {}", task.taskId, task.date);
+        persist();
+        events.publish(task.taskId, () -> encode(task));
+        Path file = taskDirectory.resolve(TASK_FILE_PREFIX + task.taskId + ".log");
+        try {
+            if (artificialDelayMs > 0) {
+                TimeUnit.MILLISECONDS.sleep(artificialDelayMs);
+            }
+            if (!Files.exists(logFileExtractor.logFile())) {
+                throw new IOException("Основной лог-файл не найден: " + logFileExtractor.logFile());
+            }
+            long written;
+            try {
+                written = linkArtifact(task, file);
+            } catch (ResourceNotFoundException ex) {
+                logger.warn("No logs found for date {} in task {}."
+                        + " Completing task without creating file.", task.date, task.taskId);
+                complete(task, null, 0);
+                return;
+            }
+            if (!complete(task, file, written)) {
+                deleteQuietly(file);
+                return;
+            }
+            logger.info("Task {} wrote {} bytes of filtered log lines to {}",
+                    task.taskId, written, file);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            deleteQuietly(file);
+        } catch (Exception ex) {
+            deleteQuietly(file);
+            // Прерывание отменой закрывает канал записи: это не ошибка задачи.
+            if (task.finish(TaskStatus.FAILED, ex.getMessage())) {
+                failed.increment();
+                persist();
+                publishFinished(task);
+                logger.error("Error during log file generation for taskId {}: {}",
+                        task.taskId, ex.getMessage(), ex);
+            }
+        }
+    }
 
-            if (currentStatus != null && currentStatus != TaskStatus.FAILED) {
-                logger.warn("Task for date {} already exists"
-                        + " with ID {} and status {}. Returning "
-                        + "existing ID.", date, existingTaskId, currentStatus);
-                return existingTaskId;
+    /**
+     * Связывает файл задачи с общим файлом за дату. Текущий день может
+     * перестроиться между получением и связыванием — тогда файл берется
+     * заново.
+     */
+    private long linkArtifact(LogTask task, Path file) throws IOException {
+        Files.createDirectories(taskDirectory);
+        for (int attempt = 1; ; attempt++) {
+            LogArtifact artifact = artifactCache.get(task.date, progress -> task.progress = progress);
+            try {
+                Path compressed = LogArtifact.compressedSibling(file);
+                Files.deleteIfExists(compressed);
+                if (artifact.compressedFile() != null) {
+                    link(artifact.compressedFile(), compressed);
+                }
+                link(artifact.file(), file);
+                return artifact.size();
+            } catch (NoSuchFileException ex) {
+                if (attempt == 3) {
+                    throw ex;
+                }
             }
+        }
+    }
 
-            logger.warn("Previous task {} for date {} failed."
-                    + " Starting a new one.", existingTaskId, date);
+    private static void link(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+        } catch (NoSuchFileException ex) {
+            throw ex;
+        } catch (UnsupportedOperationException | IOException ex) {
+            // Ссылки не поддерживаются (например, другая файловая система).
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
 
-            dateTaskMap.remove(date);
+    private boolean complete(LogTask task, Path file, long written) {
+        if (!task.complete(file, written)) {
+            return false;
         }
+        completed.increment();
+        persist();
+        publishFinished(task);
+        logger.info("Task {} completed successfully.", task.taskId);
+        return true;
+    }
 
-        Long taskId = idGenerator.getAndIncrement();
-        logger.info("Starting new log generation task {} for date {}", taskId, date);
-        taskStatusMap.put(taskId, TaskStatus.IN_PROGRESS);
-        dateTaskMap.put(date, taskId);
+    private void publishFinished(LogTask task) {
+        synchronized (task) {
+            events.publish(task.taskId, () -> encode(task));
+            events.complete(task.taskId);
+        }
+    }
 
-        AsyncLogFileService proxy = applicationContext.getBean(AsyncLogFileService.class);
-        proxy.generateLogFileAsync(date, taskId);
+    private Frame encode(LogTask task) {
+        return encode(task.toProgress());
+    }
 
-        return taskId;
+    private Frame encode(LogTaskProgress progress) {
+        String event = progress.status().isFinished() ? FINISHED_EVENT : PROGRESS_EVENT;
+        try {
+            return SseBroadcaster.frame(0, event, progressWriter.writeValueAsString(progress));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize progress of task " + progress.taskId(), ex);
+        }
     }
 
-    public TaskStatus getTaskStatus(Long taskId) {
-        return taskStatusMap.get(taskId);
+    // Снимок и запись под одной блокировкой: старый снимок не перезапишет новый.
+    private void persist() {
+        synchronized (taskStore) {
+            List<LogTaskStore.Entry> entries = new ArrayList<>(tasks.size());
+            for (LogTask task : tasks.values()) {
+                entries.add(task.toEntry());
+            }
+            taskStore.save(entries);
+        }
     }
 
-    public File getLogFile(Long taskId) {
-        TaskStatus status = taskStatusMap.get(taskId);
-        if (status != TaskStatus.COMPLETED) {
-            logger.warn("Attempt to get log file for "
-                    + "task {} which is not COMPLETED (status: {})", taskId, status);
-            return null;
+    private void restore() {
+        long maxId = 0;
+        int interrupted = 0;
+        for (LogTaskStore.Entry entry : taskStore.load()) {
+            maxId = Math.max(maxId, entry.taskId());
+            LogTask task = LogTask.fromEntry(entry);
+            if (!task.status.isFinished()) {
+                task.status = TaskStatus.FAILED;
+                task.failureReason = "Задача прервана перезапуском сервиса";
+                task.finishedAt = Instant.now();
+                interrupted++;
+            } else if (task.file != null && !Files.exists(task.file)) {
+                continue;
+            }
+            tasks.put(task.taskId, task);
+            dateTaskMap.merge(task.date, task.taskId, Math::max);
+        }
+        idGenerator.set(maxId + 1);
+        if (!tasks.isEmpty()) {
+            logger.info("Restored {} log generation tasks ({} interrupted by restart)",
+                    tasks.size(), interrupted);
+            persist();
+        }
+    }
+
+    // Вместе с файлом задачи удаляется и его сжатая копия.
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(LogArtifact.compressedSibling(file));
+        } catch (IOException ex) {
+            logger.warn("Failed to delete log task file {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private static final class LogTask {
+        private final Long taskId;
+        private final String date;
+        private final Instant createdAt;
+        private volatile TaskStatus status = TaskStatus.QUEUED;
+        private volatile Path file;
+        private volatile long bytesWritten;
+        private volatile String failureReason;
+        private volatile Instant finishedAt;
+        private volatile Future<?> future;
+        private volatile LogScanProgress progress = new LogScanProgress();
+        // Меняется только планировщиком рассылки прогресса.
+        private long publishedScanned = -1;
+
+        private LogTask(Long taskId, String date, Instant createdAt) {
+            this.taskId = taskId;
+            this.date = date;
+            this.createdAt = createdAt;
+        }
+
+        private synchronized boolean start() {
+            if (status != TaskStatus.QUEUED) {
+                return false;
+            }
+            status = TaskStatus.IN_PROGRESS;
+            return true;
+        }
+
+        // Первый завершивший переход выигрывает: отмена и окончание работы не затирают друг друга.
+        private synchronized boolean finish(TaskStatus finalStatus, String reason) {
+            if (status.isFinished()) {
+                return false;
+            }
+            status = finalStatus;
+            failureReason = reason;
+            finishedAt = Instant.now();
+            return true;
+        }
+
+        private synchronized boolean complete(Path result, long written) {
+            if (!finish(TaskStatus.COMPLETED, null)) {
+                return false;
+            }
+            file = result;
+            bytesWritten = written;
+            return true;
+        }
+
+        private LogTaskProgress toProgress() {
+            // Счетчики прогресса не сохраняются: у восстановленной задачи они нулевые.
+            return new LogTaskProgress(taskId, status, progress.bytesScanned(),
+                    progress.bytesTotal(), progress.linesMatched(), bytesWritten, failureReason);
+        }
+
+        private LogTaskStore.Entry toEntry() {
+            return new LogTaskStore.Entry(taskId, date, status,
+                    file != null ? file.toString() : null, bytesWritten, failureReason,
+                    createdAt, finishedAt);
+        }
+
+        private static LogTask fromEntry(LogTaskStore.Entry entry) {
+            LogTask task = new LogTask(entry.taskId(), entry.date(), entry.createdAt());
+            task.status = entry.status();
+            task.file = entry.file() != null ? Path.of(entry.file()) : null;
+            task.bytesWritten = entry.bytesWritten();
+            task.failureReason = entry.failureReason();
+            task.finishedAt = entry.finishedAt();
+            return task;
         }
-        String path = taskFileMap.get(taskId);
-        return path != null ? new File(path) : null;
     }
-}
\ No newline at end of file
+}
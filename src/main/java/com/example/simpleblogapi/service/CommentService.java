@@ -1,39 +1,88 @@
 package com.example.simpleblogapi.service;
 
+import com.example.simpleblogapi.cache.CommentCache;
+import com.example.simpleblogapi.dto.ArticlePage;
+import com.example.simpleblogapi.dto.CacheStats;
+import com.example.simpleblogapi.dto.CommentCursor;
 import com.example.simpleblogapi.entities.Comment;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
 import com.example.simpleblogapi.repositories.CommentRepository;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 @Service
 public class CommentService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final CommentRepository commentRepository;
-    private final Map<Long, List<Comment>> commentCache = new HashMap<>();
+    private final CommentCache commentCache;
+    private final CommentStreamService commentStreamService;
 
-    public CommentService(CommentRepository commentRepository) {
+    public CommentService(CommentRepository commentRepository, CommentCache commentCache,
+                          CommentStreamService commentStreamService) {
         this.commentRepository = commentRepository;
+        this.commentCache = commentCache;
+        this.commentStreamService = commentStreamService;
     }
 
-    @Cacheable(value = "commentsByArticle", key = "#articleId")
     public List<Comment> getCommentsByArticle(Long articleId) {
-        return commentRepository.findCommentsByArticleId(articleId);
+        return commentCache.getOrLoad(articleId, commentRepository::findCommentsByArticleId);
+    }
+
+    /**
+     * Страница комментариев статьи по возрастанию id. Продолжение задается
+     * курсором из предыдущей страницы; индекс (article_id, id) позволяет не
+     * пропускать уже отданные строки, как при OFFSET.
+     */
+    public ArticlePage<Comment> getCommentsPage(Long articleId, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница.
+        Limit limit = Limit.of(size + 1);
+        List<Comment> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = commentRepository.findPageByArticleId(articleId, limit);
+        } else {
+            CommentCursor after = CommentCursor.decode(cursor);
+            comments = commentRepository.findPageByArticleIdAfter(articleId, after.id(), limit);
+        }
+
+        String nextCursor = null;
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            nextCursor = new CommentCursor(comments.get(size - 1).getId()).encode();
+        }
+        return new ArticlePage<>(comments, nextCursor);
     }
 
     public void clearCache(Long articleId) {
-        commentCache.remove(articleId);
+        commentCache.invalidate(articleId);
     }
 
     public void clearAllCache() {
         commentCache.clear();
     }
 
-    @CacheEvict(value = "commentsByArticle", key = "#comment.article.id")
+    public CacheStats getCacheStats() {
+        return commentCache.stats();
+    }
+
+    /**
+     * Сохраняет комментарий. Счетчик комментариев статьи увеличивает триггер
+     * БД в той же транзакции; подписчики потока статьи получают комментарий
+     * после фиксации.
+     */
     public Comment createComment(Comment commentEntity) {
-        return commentRepository.save(commentEntity);
+        Comment savedComment = commentRepository.save(commentEntity);
+        // Сброс после сохранения: загрузка, начатая раньше, не оставит в кэше
+        // устаревший список — invalidate дождется ее и удалит результат.
+        if (savedComment.getArticle() != null) {
+            commentCache.invalidate(savedComment.getArticle().getId());
+            commentStreamService.publish(savedComment.getArticle().getId(), savedComment);
+        }
+        return savedComment;
     }
 }
@@ -0,0 +1,91 @@
+package com.example.simpleblogapi.service;
+
+import com.example.simpleblogapi.entities.Comment;
+import com.example.simpleblogapi.events.SseBroadcaster;
+import com.example.simpleblogapi.events.SseBroadcaster.Frame;
+import com.example.simpleblogapi.repositories.CommentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Поток новых комментариев статьи в формате Server-Sent Events. Все
+ * подписчики статьи получают один и тот же сериализованный кадр; id события
+ * равен id комментария, поэтому после переподключения с Last-Event-ID
+ * пропущенные комментарии догружаются тем же запросом, что и страницы
+ * комментариев.
+ */
+@Service
+public class CommentStreamService {
+
+    static final String EVENT_NAME = "comment";
+
+    private final CommentRepository commentRepository;
+    private final ObjectWriter commentWriter;
+    private final SseBroadcaster<Long> broadcaster;
+    private final long timeoutMs;
+
+    public CommentStreamService(
+            CommentRepository commentRepository,
+            ObjectMapper objectMapper,
+            @Value("${comments.stream.buffer-size:256}") int bufferSize,
+            @Value("${comments.stream.delivery-threads:4}") int deliveryThreads,
+            @Value("${comments.stream.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+            @Value("${comments.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${comments.stream.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.commentRepository = commentRepository;
+        this.commentWriter = objectMapper.writerFor(Comment.class);
+        this.broadcaster = new SseBroadcaster<>("comment-stream", bufferSize,
+                deliveryThreads, heartbeatIntervalMs, sendTimeoutMs);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Открывает поток комментариев статьи. Если передан {@code lastEventId},
+     * сначала отправляются комментарии после него (не больше одной страницы).
+     */
+    public ResponseBodyEmitter subscribe(Long articleId, Long lastEventId) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMs);
+        broadcaster.subscribe(articleId, emitter, () -> {
+            if (lastEventId == null) {
+                return List.of();
+            }
+            List<Frame> missed = new ArrayList<>();
+            for (Comment comment : commentRepository.findPageByArticleIdAfter(
+                    articleId, lastEventId, Limit.of(CommentService.MAX_PAGE_SIZE))) {
+                missed.add(encode(comment));
+            }
+            return missed;
+        });
+        return emitter;
+    }
+
+    public void publish(Long articleId, Comment comment) {
+        broadcaster.publish(articleId, () -> encode(comment));
+    }
+
+    public int subscriberCount() {
+        return broadcaster.subscriberCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcaster.shutdown();
+    }
+
+    private Frame encode(Comment comment) {
+        try {
+            return SseBroadcaster.frame(comment.getId(), EVENT_NAME,
+                    commentWriter.writeValueAsString(comment));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize comment " + comment.getId(), ex);
+        }
+    }
+}
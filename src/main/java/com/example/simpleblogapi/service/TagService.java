@@ -1,9 +1,21 @@
 package com.example.simpleblogapi.service;
 
 import com.example.simpleblogapi.cache.TagCache;
+import com.example.simpleblogapi.cache.TagNameCache;
+import com.example.simpleblogapi.dto.CacheStats;
+import com.example.simpleblogapi.dto.TagCaseMergeReport;
 import com.example.simpleblogapi.entities.Tag;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.exceptions.ResourceConflictException;
+import com.example.simpleblogapi.index.TagArticleIndex;
+import com.example.simpleblogapi.index.TagNameIndex;
 import com.example.simpleblogapi.repositories.TagRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -12,13 +24,22 @@ import org.springframework.stereotype.Service;
 public class TagService {
 
     private static final Logger logger = LoggerFactory.getLogger(TagService.class);
+    private static final int MAX_SEARCH_LIMIT = 100;
 
     private final TagRepository tagRepository;
     private final TagCache tagCache;
+    private final TagNameCache tagNameCache;
+    private final TagArticleIndex tagArticleIndex;
+    private final TagNameIndex tagNameIndex;
 
-    public TagService(TagRepository tagRepository, TagCache tagCache) {
+    public TagService(TagRepository tagRepository, TagCache tagCache,
+                      TagNameCache tagNameCache, TagArticleIndex tagArticleIndex,
+                      TagNameIndex tagNameIndex) {
         this.tagRepository = tagRepository;
         this.tagCache = tagCache;
+        this.tagNameCache = tagNameCache;
+        this.tagArticleIndex = tagArticleIndex;
+        this.tagNameIndex = tagNameIndex;
     }
 
     public List<Tag> getAllTags() {
@@ -26,47 +47,160 @@ public class TagService {
     }
 
     public Tag getTagById(Long id) {
-        if (tagCache.contains(id)) {
-            logger.info("Fetching tag from cache: ID = {}", id);
-            return tagCache.getTag(id);
-        }
+        return tagCache.getOrLoad(id, key -> {
+            logger.debug("Caching tag: ID = {}", key);
+            return tagRepository.findById(key)
+                    .orElseThrow(() -> new RuntimeException("Tag not found"));
+        });
+    }
 
-        Tag tag = tagRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Tag not found"));
-        tagCache.putTag(id, tag);
-        logger.info("Caching tag: ID = {}", id);
+    public Map<String, CacheStats> getCacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("byId", tagCache.stats());
+        stats.put("byName", tagNameCache.stats());
+        return stats;
+    }
 
-        return tag;
+    /**
+     * Возвращает теги по id: найденные в кэше — без обращения к БД,
+     * остальные — одним запросом. Отсутствующих id в результате нет.
+     */
+    public Map<Long, Tag> getTagsByIds(Collection<Long> ids) {
+        Map<Long, Tag> tags = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Tag cached = tagCache.getTag(id);
+            if (cached != null) {
+                tags.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Tag tag : tagRepository.findAllById(missing)) {
+                tagCache.putTag(tag.getId(), tag);
+                tags.put(tag.getId(), tag);
+            }
+        }
+        return tags;
     }
 
     public Tag createTag(Tag tag) {
-        return tagRepository.save(tag);
+        checkNameIsFree(tag.getName(), null);
+        Tag savedTag = tagRepository.save(tag);
+        tagNameCache.put(savedTag);
+        tagArticleIndex.indexTag(savedTag.getId(), savedTag.getName());
+        tagNameIndex.put(savedTag.getId(), savedTag.getName());
+        return savedTag;
     }
 
     public void deleteTag(Long id) {
+        tagRepository.findById(id).ifPresent(tag -> tagNameCache.invalidate(tag.getName()));
         tagRepository.deleteById(id);
         tagCache.removeTag(id);
-        logger.info("Removed tag from cache: ID = {}", id);
+        tagArticleIndex.removeTag(id);
+        tagNameIndex.remove(id);
+        logger.debug("Removed tag from cache: ID = {}", id);
+    }
+
+    /**
+     * Слияние тегов, имена которых различаются только регистром, и создание
+     * уникального индекса по {@code lower(name)}. При {@code dryRun} только
+     * возвращает группы, которые будут слиты. Кэши и индексы в памяти этого
+     * экземпляра обновляются; другие экземпляры приложения нужно перезапустить.
+     */
+    public TagCaseMergeReport mergeCaseDuplicates(boolean dryRun) {
+        if (dryRun) {
+            return new TagCaseMergeReport(true, tagRepository.hasLowerNameUniqueIndex(),
+                    tagRepository.findCaseDuplicates());
+        }
+        List<TagCaseMergeReport.Merge> merges = tagRepository.mergeCaseDuplicates();
+        for (TagCaseMergeReport.Merge merge : merges) {
+            logger.warn("Merged tags {} {} into tag {} '{}'",
+                    merge.mergedIds(), merge.mergedNames(), merge.keptId(), merge.keptName());
+            merge.mergedIds().forEach(tagCache::removeTag);
+            merge.mergedNames().forEach(tagNameCache::invalidate);
+        }
+        if (!merges.isEmpty()) {
+            tagArticleIndex.rebuild();
+            tagNameIndex.rebuild();
+        }
+        return new TagCaseMergeReport(false, true, merges);
     }
 
     public Tag getOrCreateTag(String tagName) {
-        return tagRepository.findByName(tagName)
-                .orElseGet(() -> tagRepository.save(new Tag(null, tagName, null)));
+        return getOrCreateTags(List.of(tagName)).get(TagNameCache.normalize(tagName));
+    }
+
+    /**
+     * Разрешает имена тегов без учета регистра, создавая недостающие.
+     * Ключ результата — нормализованное имя ({@link TagNameCache#normalize}).
+     * В установившемся режиме все имена находятся в кэше и запросов к БД нет.
+     * Вызывать вне транзакции статьи: созданные теги фиксируются сразу.
+     */
+    public Map<String, Tag> getOrCreateTags(Collection<String> tagNames) {
+        return tagNameCache.resolve(tagNames, names -> {
+            List<Tag> tags = tagRepository.upsertByNames(names);
+            for (Tag tag : tags) {
+                tagArticleIndex.indexTag(tag.getId(), tag.getName());
+                tagNameIndex.put(tag.getId(), tag.getName());
+            }
+            return tags;
+        });
     }
 
     public Tag updateTag(Long id, Tag tag) {
         Tag existingTag = tagRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Tag not found"));
 
+        checkNameIsFree(tag.getName(), id);
+        String previousName = existingTag.getName();
         existingTag.setName(tag.getName());
         Tag updatedTag = tagRepository.save(existingTag);
         tagCache.putTag(id, updatedTag);
-        logger.info("Updated tag in cache: ID = {}", id);
+        tagNameCache.invalidate(previousName);
+        tagNameCache.put(updatedTag);
+        tagArticleIndex.indexTag(id, updatedTag.getName());
+        tagNameIndex.put(id, updatedTag.getName());
+        logger.debug("Updated tag in cache: ID = {}", id);
 
         return updatedTag;
     }
 
-    public List<Tag> searchTagsByName(String name) {
-        return tagRepository.searchTagsByName(name);
+    /**
+     * Поиск тегов по подстроке в имени без учета регистра; самые популярные
+     * теги идут первыми. Выполняется по индексу в памяти, без запроса к БД.
+     */
+    public List<Tag> searchTagsByName(String name, int limit) {
+        validateLimit(limit);
+        return tagNameIndex.search(name, limit);
+    }
+
+    /**
+     * Подсказки тегов по началу имени, самые популярные первыми.
+     */
+    public List<Tag> autocompleteTags(String prefix, int limit) {
+        validateLimit(limit);
+        return tagNameIndex.autocomplete(prefix, limit);
+    }
+
+    private static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new InvalidInputException("Лимит должен быть от 1 до " + MAX_SEARCH_LIMIT);
+        }
+    }
+
+    // Имена тегов уникальны без учета регистра; переименование тега в то же
+    // имя в другом регистре разрешено.
+    private void checkNameIsFree(String name, Long ownId) {
+        if (name == null) {
+            return;
+        }
+        tagRepository.findByNameIgnoreCase(name)
+                .filter(existing -> !existing.getId().equals(ownId))
+                .ifPresent(existing -> {
+                    throw new ResourceConflictException("Тег с именем '" + existing.getName()
+                            + "' уже существует (ID = " + existing.getId() + ")");
+                });
     }
-}
\ No newline at end of file
+}
@@ -1,66 +1,64 @@
 package com.example.simpleblogapi.service;
 
-import com.example.simpleblogapi.entities.VisitCount;
-import com.example.simpleblogapi.repositories.VisitCountRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.dao.DataIntegrityViolationException;
+import com.example.simpleblogapi.counter.VisitCounterEngine;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class VisitCounterService {
 
-    private static final Logger log = LoggerFactory.getLogger(VisitCounterService.class);
-    private final VisitCountRepository visitCountRepository;
+    private static final int MAX_URL_LENGTH = 2048;
 
-    public VisitCounterService(VisitCountRepository visitCountRepository) {
-        this.visitCountRepository = visitCountRepository;
+    private final VisitCounterEngine visitCounterEngine;
+
+    public VisitCounterService(VisitCounterEngine visitCounterEngine) {
+        this.visitCounterEngine = visitCounterEngine;
     }
 
-    @Transactional(isolation = Isolation.READ_COMMITTED)
-    public synchronized long incrementVisit(String url) {
-        try {
-            int updatedRows = visitCountRepository.updateVisitCount(url);
-            if (updatedRows > 0) {
-                Long count = visitCountRepository.findCountByUrl(url);
-                if (count == null) {
-                    throw new IllegalStateException("Счетчик не найден после успешного обновления для URL.");
-                }
-                return count;
-            } else {
-                try {
-                    VisitCount newVisitCount = new VisitCount();
-                    newVisitCount.setUrl(url);
-                    newVisitCount.setCount(1L);
-                    visitCountRepository.saveAndFlush(newVisitCount);
-                    return 1L;
-                } catch (DataIntegrityViolationException e) {
-                    int retryUpdatedRows = visitCountRepository.updateVisitCount(url);
-                    if (retryUpdatedRows > 0) {
-                        Long count = visitCountRepository.findCountByUrl(url);
-                        if (count == null) {
-                            throw new IllegalStateException("Счетчик не найден после успешного повторного обновления для URL.");
-                        }
-                        return count;
-                    } else {
-                        Long finalCount = visitCountRepository.findCountByUrl(url);
-                        if (finalCount != null) {
-                            return finalCount;
-                        }
-                        throw new RuntimeException("Не удалось инкрементировать счетчик после обработки конфликта.");
-                    }
-                }
-            }
-        } finally {
-            // Изменено: не выводим пользовательские данные в лог.
-            log.trace("Exiting synchronized incrementVisit");
-        }
+    public long incrementVisit(String url) {
+        return visitCounterEngine.increment(normalizeUrl(url));
     }
 
     public long getVisitCount(String url) {
-        Long count = visitCountRepository.findCountByUrl(url);
-        return (count != null ? count : 0L);
+        return visitCounterEngine.getVisitCount(normalizeUrl(url));
+    }
+
+    /**
+     * Приводит URL к одному виду, чтобы разные записи одного адреса не
+     * заводили отдельные счетчики: схема и хост в нижнем регистре, без порта
+     * по умолчанию, пользователя и фрагмента, путь нормализован. Принимаются
+     * только абсолютные URL http и https и пути, начинающиеся с {@code /}.
+     */
+    static String normalizeUrl(String url) {
+        if (url == null || url.isBlank() || url.length() > MAX_URL_LENGTH) {
+            throw new InvalidInputException(
+                    "URL должен быть непустым и не длиннее " + MAX_URL_LENGTH + " символов");
+        }
+        URI uri;
+        try {
+            uri = new URI(url.trim()).normalize();
+        } catch (URISyntaxException ex) {
+            throw new InvalidInputException("Некорректный URL: " + ex.getMessage());
+        }
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        String query = uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "";
+        String scheme = uri.getScheme();
+        if (scheme == null) {
+            if (uri.getRawAuthority() != null || !path.startsWith("/")) {
+                throw new InvalidInputException("Ожидается URL http(s) или путь от корня: " + url);
+            }
+            return path + query;
+        }
+        scheme = scheme.toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+            throw new InvalidInputException("Ожидается URL http(s) или путь от корня: " + url);
+        }
+        int port = uri.getPort();
+        boolean defaultPort = port == 80 && scheme.equals("http") || port == 443 && scheme.equals("https");
+        return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT)
+                + (port != -1 && !defaultPort ? ":" + port : "") + path + query;
     }
 }
@@ -0,0 +1,90 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.dto.ExportRow;
+import com.example.simpleblogapi.enums.ExportFormat;
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import com.example.simpleblogapi.service.ArticleExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ArticleExportServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    private final ArticleRepository articleRepository = mock(ArticleRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ArticleExportService exportService =
+            new ArticleExportService(articleRepository, objectMapper);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        List<ExportRow> rows = List.of(
+                new ExportRow(ExportRow.Kind.ARTICLE, 1, 1, "First", "Hello, \"world\"", CREATED, 3, 1),
+                new ExportRow(ExportRow.Kind.TAG, 1, 10, "java", null, null, 0, 0),
+                new ExportRow(ExportRow.Kind.TAG, 1, 11, "spring", null, null, 0, 0),
+                new ExportRow(ExportRow.Kind.COMMENT, 1, 100, null, "Nice", null, 0, 0),
+                new ExportRow(ExportRow.Kind.ARTICLE, 2, 2, "Second", "Text", CREATED, 0, 0));
+        doAnswer(invocation -> {
+            Consumer<ExportRow> consumer = invocation.getArgument(0);
+            rows.forEach(consumer);
+            return null;
+        }).when(articleRepository).streamExportRows(any(Consumer.class));
+    }
+
+    @Test
+    void testExport_NdjsonGroupsTagsAndComments() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(ExportFormat.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("2025-03-01T10:00:00", first.get("createdAt").asText());
+        assertEquals(2, first.get("tags").size());
+        assertEquals("spring", first.get("tags").get(1).get("name").asText());
+        assertEquals("Nice", first.get("comments").get(0).get("content").asText());
+
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(0, second.get("tags").size());
+        assertEquals(0, second.get("comments").size());
+    }
+
+    @Test
+    void testExport_CsvEscapesFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(ExportFormat.CSV, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(6, lines.length);
+        assertEquals("record_type,article_id,id,name,content,created_at,likes,dislikes", lines[0]);
+        assertEquals("article,1,1,First,\"Hello, \"\"world\"\"\",2025-03-01T10:00:00,3,1", lines[1]);
+        assertEquals("tag,1,10,java,,,,", lines[2]);
+        assertEquals("comment,1,100,,Nice,,,", lines[4]);
+    }
+
+    @Test
+    void testExport_Gzip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(ExportFormat.NDJSON, true, out);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(2, text.split("\n").length);
+        }
+    }
+}
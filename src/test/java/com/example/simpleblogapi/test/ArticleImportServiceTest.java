@@ -0,0 +1,143 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.dto.ImportJobStatus;
+import com.example.simpleblogapi.entities.Article;
+import com.example.simpleblogapi.enums.TaskStatus;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.service.ArticleImportService;
+import com.example.simpleblogapi.service.ArticleService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ArticleImportServiceTest {
+
+    private final ArticleService articleService = mock(ArticleService.class);
+    private final ArticleImportService importService = new ArticleImportService(
+            articleService,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ObjectMapper().findAndRegisterModules(),
+            2, 100, 1, 4, 3_600_000);
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void testImport_NdjsonCommittedInChunks() throws Exception {
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(articleService.bulkCreateArticles(anyList())).thenAnswer(invocation -> {
+            List<Article> chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            return chunk;
+        });
+
+        ImportJobStatus status = runImport("""
+                {"title":"a","content":"1"}
+                {"title":"b","content":"2"}
+                {"title":"c","content":"3"}
+                """);
+
+        assertEquals(TaskStatus.COMPLETED, status.status());
+        assertEquals(3, status.rowsRead());
+        assertEquals(3, status.rowsCommitted());
+        assertEquals(0, status.rowsRejected());
+        assertEquals(List.of(2, 1), chunkSizes);
+    }
+
+    @Test
+    void testImport_JsonArrayRejectsInvalidRows() throws Exception {
+        when(articleService.bulkCreateArticles(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ImportJobStatus status = runImport("""
+                [{"title":"a","content":"1"},
+                 {"title":"","content":"2"},
+                 {"title":"c","content":"3","likes":"many"}]
+                """);
+
+        assertEquals(TaskStatus.COMPLETED, status.status());
+        assertEquals(3, status.rowsRead());
+        assertEquals(1, status.rowsCommitted());
+        assertEquals(2, status.rowsRejected());
+        assertEquals(List.of(2L, 3L), status.errors().stream()
+                .map(ImportJobStatus.RowError::row).toList());
+    }
+
+    @Test
+    void testImport_FailedChunkIsRetriedRowByRow() throws Exception {
+        when(articleService.bulkCreateArticles(anyList())).thenAnswer(invocation -> {
+            List<Article> chunk = invocation.getArgument(0);
+            if (chunk.stream().anyMatch(article -> "bad".equals(article.getTitle()))) {
+                throw new ResourceNotFoundException("Tag with id 99 not found");
+            }
+            return chunk;
+        });
+
+        ImportJobStatus status = runImport("""
+                {"title":"ok","content":"1"}
+                {"title":"bad","content":"2"}
+                """);
+
+        assertEquals(1, status.rowsCommitted());
+        assertEquals(1, status.rowsRejected());
+        assertEquals(2L, status.errors().get(0).row());
+        verify(articleService, times(3)).bulkCreateArticles(anyList());
+    }
+
+    @Test
+    void testImport_MalformedJsonFailsTask() throws Exception {
+        ImportJobStatus status = runImport("{\"title\":\"a\",");
+
+        assertEquals(TaskStatus.FAILED, status.status());
+        assertNotNull(status.failureReason());
+        verify(articleService, never()).bulkCreateArticles(anyList());
+    }
+
+    @Test
+    void testEvictExpired_RemovesOnlyFinishedTasksOlderThanTtl() throws Exception {
+        when(articleService.bulkCreateArticles(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        ImportJobStatus status = runImport("{\"title\":\"a\",\"content\":\"1\"}");
+        importService.evictExpired();
+        assertNotNull(importService.getStatus(status.taskId()));
+
+        ArticleImportService shortLived = new ArticleImportService(articleService,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper().findAndRegisterModules(), 2, 100, 1, 4, 0);
+        try {
+            Long taskId = shortLived.startImport(new ByteArrayInputStream(
+                    "{\"title\":\"b\",\"content\":\"2\"}".getBytes(StandardCharsets.UTF_8)));
+            await().atMost(Duration.ofSeconds(5))
+                    .until(() -> shortLived.getStatus(taskId).status() != TaskStatus.IN_PROGRESS);
+            shortLived.evictExpired();
+            assertNull(shortLived.getStatus(taskId));
+        } finally {
+            shortLived.shutdown();
+        }
+    }
+
+    @Test
+    void testGetStatus_UnknownTask() {
+        assertNull(importService.getStatus(42L));
+    }
+
+    private ImportJobStatus runImport(String body) throws Exception {
+        Long taskId = importService.startImport(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> importService.getStatus(taskId).status() != TaskStatus.IN_PROGRESS);
+        return importService.getStatus(taskId);
+    }
+}
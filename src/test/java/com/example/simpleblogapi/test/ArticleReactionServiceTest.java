@@ -0,0 +1,146 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.dto.ReactionCounts;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.exceptions.ServiceBusyException;
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import com.example.simpleblogapi.service.ArticleReactionService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ArticleReactionServiceTest {
+
+    private final ArticleRepository articleRepository = mock(ArticleRepository.class);
+    private ArticleReactionService reactionService;
+
+    @AfterEach
+    void tearDown() {
+        reactionService.shutdown();
+    }
+
+    @Test
+    void testLikeArticle_WithoutCoalescing() {
+        reactionService = new ArticleReactionService(articleRepository, 0, 1, 5000);
+        when(articleRepository.applyReactionDelta(1L, 1, 1, 0, 0))
+                .thenReturn(Optional.of(new ReactionCounts(1L, 1, 0)));
+        ReactionCounts result = reactionService.likeArticle(1L);
+        assertEquals(1, result.likes());
+        verify(articleRepository).applyReactionDelta(1L, 1, 1, 0, 0);
+    }
+
+    @Test
+    void testRemoveDislike_SendsNegativeDelta() {
+        reactionService = new ArticleReactionService(articleRepository, 0, 1, 5000);
+        when(articleRepository.applyReactionDelta(1L, 0, 0, -1, 0))
+                .thenReturn(Optional.of(new ReactionCounts(1L, 0, 0)));
+        assertEquals(0, reactionService.removeDislike(1L).dislikes());
+    }
+
+    @Test
+    void testLikeArticle_NotFound() {
+        reactionService = new ArticleReactionService(articleRepository, 5, 1, 5000);
+        when(articleRepository.applyReactionDelta(eq(1L), anyInt(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> reactionService.likeArticle(1L));
+    }
+
+    @Test
+    void testStuckFlush_FailsWithServiceBusy() throws Exception {
+        reactionService = new ArticleReactionService(articleRepository, 5, 1, 200);
+        CountDownLatch release = new CountDownLatch(1);
+        // UPDATE висит на блокировке строки дольше, чем запрос готов ждать.
+        when(articleRepository.applyReactionDelta(eq(1L), anyInt(), anyInt(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.of(new ReactionCounts(1L, 1, 0));
+                });
+
+        long started = System.nanoTime();
+        assertThrows(ServiceBusyException.class, () -> reactionService.likeArticle(1L));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 2_000);
+        release.countDown();
+    }
+
+    @Test
+    void testBurstOfReactions_IsCoalescedIntoFewUpdates() throws Exception {
+        reactionService = new ArticleReactionService(articleRepository, 200, 1, 5000);
+        when(articleRepository.applyReactionDelta(eq(1L), anyInt(), anyInt(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> Optional.of(new ReactionCounts(1L,
+                        invocation.getArgument(1), invocation.getArgument(3))));
+
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        List<Future<ReactionCounts>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            boolean like = i % 4 != 0;
+            results.add(executor.submit(() -> like
+                    ? reactionService.likeArticle(1L)
+                    : reactionService.dislikeArticle(1L)));
+        }
+        int totalLikes = 0;
+        int totalDislikes = 0;
+        for (Future<ReactionCounts> result : results) {
+            assertNotNull(result.get());
+        }
+        executor.shutdown();
+
+        ArgumentCaptor<Integer> likes = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<Integer> dislikes = ArgumentCaptor.forClass(Integer.class);
+        verify(articleRepository, atMost(5))
+                .applyReactionDelta(eq(1L), likes.capture(), anyInt(), dislikes.capture(), anyInt());
+        for (int value : likes.getAllValues()) {
+            totalLikes += value;
+        }
+        for (int value : dislikes.getAllValues()) {
+            totalDislikes += value;
+        }
+        assertEquals(15, totalLikes);
+        assertEquals(5, totalDislikes);
+    }
+
+    @Test
+    void testMixedWindowAtZero_MatchesSequentialReactions() throws Exception {
+        reactionService = new ArticleReactionService(articleRepository, 1000, 1, 5000);
+        int[] stored = {0, 0};
+        // GREATEST(likes + delta, floor), как в REACTION_SQL.
+        when(articleRepository.applyReactionDelta(eq(1L), anyInt(), anyInt(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    stored[0] = Math.max(stored[0] + invocation.<Integer>getArgument(1),
+                            invocation.<Integer>getArgument(2));
+                    stored[1] = Math.max(stored[1] + invocation.<Integer>getArgument(3),
+                            invocation.<Integer>getArgument(4));
+                    return Optional.of(new ReactionCounts(1L, stored[0], stored[1]));
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<ReactionCounts>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(executor.submit(() -> reactionService.removeLike(1L)));
+        }
+        results.add(executor.submit(() -> reactionService.removeDislike(1L)));
+        // Лайк и дизлайк приходят в то же окно, но после снятий.
+        Thread.sleep(300);
+        results.add(executor.submit(() -> reactionService.likeArticle(1L)));
+        results.add(executor.submit(() -> reactionService.dislikeArticle(1L)));
+        for (Future<ReactionCounts> result : results) {
+            assertEquals(new ReactionCounts(1L, 1, 1), result.get());
+        }
+        executor.shutdown();
+
+        verify(articleRepository, times(1))
+                .applyReactionDelta(eq(1L), anyInt(), anyInt(), anyInt(), anyInt());
+        verify(articleRepository).applyReactionDelta(1L, -2, 1, 0, 1);
+    }
+}
@@ -1,19 +1,35 @@
 package com.example.simpleblogapi.test;
 
+import com.example.simpleblogapi.cache.CommentCache;
+import com.example.simpleblogapi.dto.ArticleCursor;
+import com.example.simpleblogapi.dto.ArticleDetail;
+import com.example.simpleblogapi.dto.ArticlePage;
+import com.example.simpleblogapi.dto.ArticleSearchPage;
+import com.example.simpleblogapi.dto.ArticleSummary;
+import com.example.simpleblogapi.dto.ArticleTagName;
+import com.example.simpleblogapi.dto.TagQueryResult;
 import com.example.simpleblogapi.entities.Article;
 import com.example.simpleblogapi.entities.Tag;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
 import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.index.TagArticleIndex;
 import com.example.simpleblogapi.repositories.ArticleRepository;
 import com.example.simpleblogapi.repositories.TagRepository;
 import com.example.simpleblogapi.service.ArticleService;
+import com.example.simpleblogapi.service.TagService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -26,6 +42,15 @@ class ArticleServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private TagService tagService;
+
+    @Mock
+    private TagArticleIndex tagArticleIndex;
+
+    @Mock
+    private CommentCache commentCache;
+
     @InjectMocks
     private ArticleService articleService;
 
@@ -58,17 +83,64 @@ class ArticleServiceTest {
     @Test
     void testBulkCreateArticles() {
         List<Article> articles = Arrays.asList(new Article(), new Article());
-        when(articleRepository.save(any(Article.class))).thenAnswer(invocation -> invocation.getArgument(0));
         List<Article> result = articleService.bulkCreateArticles(articles);
         assertEquals(2, result.size());
         result.forEach(article -> assertNotNull(article.getCreatedAt()));
+        verify(articleRepository).bulkInsert(articles);
+        verify(articleRepository, never()).save(any(Article.class));
+    }
+
+    @Test
+    void testBulkCreateArticles_ResolvesTagsThroughTagService() {
+        Tag java = new Tag(1L, "java", null);
+        Tag spring = new Tag(2L, "spring", null);
+        Article first = Article.builder().title("a").content("a")
+                .tags(new ArrayList<>(List.of(new Tag(null, "Java", null), new Tag(2L, null, null))))
+                .build();
+        Article second = Article.builder().title("b").content("b")
+                .tags(new ArrayList<>(List.of(new Tag(null, "java", null), new Tag(1L, null, null))))
+                .build();
+        when(tagService.getTagsByIds(Set.of(1L, 2L))).thenReturn(Map.of(1L, java, 2L, spring));
+        when(tagService.getOrCreateTags(Set.of("Java", "java"))).thenReturn(Map.of("java", java));
+
+        articleService.bulkCreateArticles(List.of(first, second));
+
+        verify(tagService, times(1)).getOrCreateTags(any());
+        verify(tagRepository, never()).findById(any());
+        verify(articleRepository).bulkInsert(List.of(first, second));
+        assertEquals(List.of(java, spring), first.getTags());
+        assertEquals(List.of(java), second.getTags());
+    }
+
+    @Test
+    void testBulkCreateArticles_UnknownTagId() {
+        Article article = Article.builder().title("a").content("a")
+                .tags(new ArrayList<>(List.of(new Tag(9L, null, null)))).build();
+        when(tagService.getTagsByIds(any())).thenReturn(Map.of());
+        assertThrows(ResourceNotFoundException.class,
+                () -> articleService.bulkCreateArticles(List.of(article)));
+        verify(articleRepository, never()).bulkInsert(any());
+    }
+
+    @Test
+    void testBulkCreateArticles_UnknownTagIdCreatesNoTags() {
+        Article article = Article.builder().title("a").content("a")
+                .tags(new ArrayList<>(List.of(new Tag(null, "brand-new", null), new Tag(9L, null, null))))
+                .build();
+        when(tagService.getTagsByIds(Set.of(9L))).thenReturn(Map.of());
+        assertThrows(ResourceNotFoundException.class,
+                () -> articleService.bulkCreateArticles(List.of(article)));
+        verify(tagService, never()).getOrCreateTags(any());
+        verify(articleRepository, never()).bulkInsert(any());
     }
 
     @Test
     void testCreateArticle() {
         Article article = new Article();
-        when(articleRepository.save(article)).thenReturn(article);
         assertEquals(article, articleService.createArticle(article));
+        assertNotNull(article.getCreatedAt());
+        verify(articleRepository).bulkInsert(List.of(article));
+        verify(articleRepository, never()).save(any(Article.class));
     }
 
     @Test
@@ -87,10 +159,36 @@ class ArticleServiceTest {
     @Test
     void testGetArticlesByTagName() {
         List<Article> articles = Arrays.asList(new Article());
-        when(articleRepository.findArticlesByTagName("tech")).thenReturn(articles);
+        when(tagArticleIndex.query(List.of("tech"), List.of(), List.of(), 0, Integer.MAX_VALUE))
+                .thenReturn(new TagQueryResult(1, List.of(7L)));
+        when(articleRepository.findAllById(List.of(7L))).thenReturn(articles);
         assertEquals(1, articleService.getArticlesByTagName("tech").size());
     }
 
+    @Test
+    void testSearchByTags_KeepsIndexOrder() {
+        LocalDateTime now = LocalDateTime.of(2025, 4, 13, 12, 0);
+        when(tagArticleIndex.query(List.of("java"), List.of(), List.of("draft"), 20, 10))
+                .thenReturn(new TagQueryResult(42, List.of(9L, 4L)));
+        when(articleRepository.findSummariesByIds(List.of(9L, 4L))).thenReturn(List.of(
+                new ArticleSummary(4L, "t4", "e4", now, 0, 0, 0),
+                new ArticleSummary(9L, "t9", "e9", now, 0, 0, 0)));
+
+        ArticleSearchPage page = articleService.searchByTags(
+                List.of("java", ""), List.of(), List.of("draft"), 2, 10);
+
+        assertEquals(42, page.total());
+        assertEquals(List.of(9L, 4L), page.items().stream().map(ArticleSummary::id).toList());
+    }
+
+    @Test
+    void testDeleteArticle_RemovesFromIndex() {
+        when(articleRepository.existsById(1L)).thenReturn(true);
+        articleService.deleteArticle(1L);
+        verify(tagArticleIndex).removeArticle(1L);
+        verify(commentCache).invalidate(1L);
+    }
+
     @Test
     void testAddTagToArticle_Success() {
         Article article = new Article();
@@ -112,6 +210,7 @@ class ArticleServiceTest {
     void testRemoveTagFromArticle_Success() {
         Article article = new Article();
         Tag tag = new Tag();
+        tag.setId(1L);
         article.getTags().add(tag);
         when(articleRepository.findById(1L)).thenReturn(Optional.of(article));
         when(tagRepository.findById(1L)).thenReturn(Optional.of(tag));
@@ -127,62 +226,61 @@ class ArticleServiceTest {
     }
 
     @Test
-    void testLikeArticle() {
-        Article article = new Article();
-        article.setLikes(0);
-        when(articleRepository.findById(1L)).thenReturn(Optional.of(article));
-        when(articleRepository.save(article)).thenReturn(article);
-        Article result = articleService.likeArticle(1L);
-        assertEquals(1, result.getLikes());
-    }
+    void testGetArticlesPage_FirstPageWithNextCursor() {
+        LocalDateTime now = LocalDateTime.of(2025, 4, 13, 12, 0);
+        List<ArticleSummary> summaries = Arrays.asList(
+                new ArticleSummary(3L, "t3", "e3", now, 0, 0, 0),
+                new ArticleSummary(2L, "t2", "e2", now, 0, 0, 0),
+                new ArticleSummary(1L, "t1", "e1", now.minusDays(1), 0, 0, 0));
+        when(articleRepository.findSummaryFirstPage(Limit.of(3))).thenReturn(summaries);
+        when(articleRepository.findTagNamesByArticleIds(List.of(3L, 2L))).thenReturn(List.of(
+                new ArticleTagName(3L, "java"), new ArticleTagName(3L, "spring")));
 
-    @Test
-    void testDislikeArticle() {
-        Article article = new Article();
-        article.setDislikes(0);
-        when(articleRepository.findById(1L)).thenReturn(Optional.of(article));
-        when(articleRepository.save(article)).thenReturn(article);
-        Article result = articleService.dislikeArticle(1L);
-        assertEquals(1, result.getDislikes());
+        ArticlePage<ArticleSummary> page = articleService.getArticlesPage(null, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(List.of("java", "spring"), page.items().get(0).tags());
+        assertEquals(List.of(), page.items().get(1).tags());
+        ArticleCursor next = ArticleCursor.decode(page.nextCursor());
+        assertEquals(now, next.createdAt());
+        assertEquals(2L, next.id());
+        verify(articleRepository, times(1)).findTagNamesByArticleIds(any());
     }
 
     @Test
-    void testRemoveLike() {
-        Article article = new Article();
-        article.setLikes(1);
-        when(articleRepository.findById(1L)).thenReturn(Optional.of(article));
-        when(articleRepository.save(article)).thenReturn(article);
-        Article result = articleService.removeLike(1L);
-        assertEquals(0, result.getLikes());
+    void testGetArticlesPage_LastPage() {
+        LocalDateTime now = LocalDateTime.of(2025, 4, 13, 12, 0);
+        String cursor = new ArticleCursor(now, 2L).encode();
+        List<ArticleSummary> summaries = List.of(new ArticleSummary(1L, "t1", "e1", now, 0, 0, 0));
+        when(articleRepository.findSummaryPageAfter(now, 2L, Limit.of(3))).thenReturn(summaries);
+
+        ArticlePage<ArticleSummary> page = articleService.getArticlesPage(cursor, 2);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
     }
 
     @Test
-    void testRemoveLike_ZeroLikes() {
-        Article article = new Article();
-        article.setLikes(0);
-        when(articleRepository.findById(1L)).thenReturn(Optional.of(article));
-        when(articleRepository.save(article)).thenReturn(article);
-        Article result = articleService.removeLike(1L);
-        assertEquals(0, result.getLikes());
+    void testGetArticleDetail() {
+        Article article = Article.builder().id(1L).title("title").content("content")
+                .tags(List.of(new Tag(5L, "java", null))).build();
+        when(articleRepository.findWithTagsById(1L)).thenReturn(Optional.of(article));
+
+        ArticleDetail detail = articleService.getArticleDetail(1L);
+
+        assertEquals("content", detail.content());
+        assertEquals(List.of(new ArticleDetail.TagRef(5L, "java")), detail.tags());
     }
 
     @Test
-    void testRemoveDislike() {
-        Article article = new Article();
-        article.setDislikes(1);
-        when(articleRepository.findById(1L)).thenReturn(Optional.of(article));
-        when(articleRepository.save(article)).thenReturn(article);
-        Article result = articleService.removeDislike(1L);
-        assertEquals(0, result.getDislikes());
+    void testGetArticleDetail_NotFound() {
+        when(articleRepository.findWithTagsById(1L)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> articleService.getArticleDetail(1L));
     }
 
     @Test
-    void testRemoveDislike_ZeroDislikes() {
-        Article article = new Article();
-        article.setDislikes(0);
-        when(articleRepository.findById(1L)).thenReturn(Optional.of(article));
-        when(articleRepository.save(article)).thenReturn(article);
-        Article result = articleService.removeDislike(1L);
-        assertEquals(0, result.getDislikes());
+    void testGetArticlesPage_InvalidInput() {
+        assertThrows(InvalidInputException.class, () -> articleService.getArticlesPage("not-a-cursor", 20));
+        assertThrows(InvalidInputException.class, () -> articleService.getArticlesPage(null, 0));
     }
 }
\ No newline at end of file
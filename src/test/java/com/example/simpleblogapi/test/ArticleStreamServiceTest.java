@@ -0,0 +1,59 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.dto.ArticleSummary;
+import com.example.simpleblogapi.dto.ArticleTagName;
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import com.example.simpleblogapi.service.ArticleStreamService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ArticleStreamServiceTest {
+
+    private final ArticleRepository articleRepository = mock(ArticleRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ArticleStreamService streamService =
+            new ArticleStreamService(articleRepository, objectMapper);
+
+    @Test
+    void testSummariesAreStreamedWithTagsLoadedPerChunk() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2025, 4, 13, 10, 0);
+        when(articleRepository.streamAllSummaries()).thenReturn(Stream.of(
+                new ArticleSummary(2L, "b", "text b", now, 1, 0, 3),
+                new ArticleSummary(1L, "a", "text a", now.minusDays(1), 0, 0, 0)));
+        when(articleRepository.findTagNamesByArticleIds(List.of(2L, 1L))).thenReturn(List.of(
+                new ArticleTagName(2L, "java"), new ArticleTagName(2L, "spring")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamService.writeAllArticles(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(2L, first.get("id").asLong());
+        assertEquals("text b", first.get("excerpt").asText());
+        assertEquals(3, first.get("commentCount").asInt());
+        assertEquals("[\"java\",\"spring\"]", first.get("tags").toString());
+        assertEquals("[]", objectMapper.readTree(lines[1]).get("tags").toString());
+        verify(articleRepository, times(1)).findTagNamesByArticleIds(anyCollection());
+    }
+
+    @Test
+    void testEmptyTableWritesNothing() throws Exception {
+        when(articleRepository.streamAllSummaries()).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamService.writeAllArticles(out);
+
+        assertEquals(0, out.size());
+        verify(articleRepository, never()).findTagNamesByArticleIds(anyCollection());
+    }
+}
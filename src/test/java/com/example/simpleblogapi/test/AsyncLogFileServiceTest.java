@@ -1,16 +1,15 @@
 package com.example.simpleblogapi.test;
 
 import com.example.simpleblogapi.enums.TaskStatus;
+import com.example.simpleblogapi.logs.LogArtifactCache;
+import com.example.simpleblogapi.logs.LogFileExtractor;
 import com.example.simpleblogapi.service.AsyncLogFileService;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.test.context.ContextConfiguration;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.core.task.SyncTaskExecutor;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -19,7 +18,8 @@ import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 
 @SpringBootTest
-@ContextConfiguration(classes = {AsyncLogFileService.class, AsyncLogFileServiceTest.TestAsyncConfig.class})
+@ContextConfiguration(classes = {AsyncLogFileService.class, LogFileExtractor.class,
+        LogArtifactCache.class, JacksonAutoConfiguration.class})
 class AsyncLogFileServiceTest {
 
     @Autowired
@@ -67,12 +67,4 @@ class AsyncLogFileServiceTest {
         Assertions.assertTrue(generatedContent.contains("Log entry 2"));
         Assertions.assertFalse(generatedContent.contains("2025-04-12"));
     }
-
-    @Configuration
-    static class TestAsyncConfig {
-        @Bean("taskExecutor")
-        public TaskExecutor taskExecutor() {
-            return new SyncTaskExecutor();
-        }
-    }
 }
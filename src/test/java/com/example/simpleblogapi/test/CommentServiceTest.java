@@ -1,15 +1,29 @@
 package com.example.simpleblogapi.test;
 
+import com.example.simpleblogapi.cache.CommentCache;
+import com.example.simpleblogapi.dto.ArticlePage;
+import com.example.simpleblogapi.dto.CommentCursor;
+import com.example.simpleblogapi.entities.Article;
 import com.example.simpleblogapi.entities.Comment;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
 import com.example.simpleblogapi.repositories.CommentRepository;
 import com.example.simpleblogapi.service.CommentService;
+import com.example.simpleblogapi.service.CommentStreamService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -18,6 +32,12 @@ class CommentServiceTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Spy
+    private CommentCache commentCache = new CommentCache(10);
+
+    @Mock
+    private CommentStreamService commentStreamService;
+
     @InjectMocks
     private CommentService commentService;
 
@@ -66,4 +86,92 @@ class CommentServiceTest {
         assertEquals(comment, result);
         verify(commentRepository, times(1)).save(comment);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetCommentsByArticle_ServedFromCache() {
+        when(commentRepository.findCommentsByArticleId(1L)).thenReturn(List.of(new Comment()));
+        commentService.getCommentsByArticle(1L);
+        commentService.getCommentsByArticle(1L);
+        verify(commentRepository, times(1)).findCommentsByArticleId(1L);
+        assertEquals(1, commentService.getCacheStats().hitCount());
+        assertEquals(1, commentService.getCacheStats().missCount());
+    }
+
+    @Test
+    void testCreateComment_InvalidatesArticleComments() {
+        Article article = new Article();
+        article.setId(1L);
+        Comment comment = new Comment(null, "text", article);
+        when(commentRepository.findCommentsByArticleId(1L)).thenReturn(List.of());
+        when(commentRepository.save(comment)).thenReturn(comment);
+
+        commentService.getCommentsByArticle(1L);
+        commentService.createComment(comment);
+        commentService.getCommentsByArticle(1L);
+
+        verify(commentRepository, times(2)).findCommentsByArticleId(1L);
+        verify(commentStreamService).publish(1L, comment);
+    }
+
+    @Test
+    void testCacheIsBoundedByCommentCount() {
+        when(commentRepository.findCommentsByArticleId(anyLong()))
+                .thenReturn(List.of(new Comment(), new Comment(), new Comment(), new Comment()));
+        for (long articleId = 1; articleId <= 5; articleId++) {
+            commentService.getCommentsByArticle(articleId);
+        }
+        assertTrue(commentService.getCacheStats().weightedSize() <= 10);
+        assertTrue(commentService.getCacheStats().evictionCount() > 0);
+    }
+
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(commentRepository.findCommentsByArticleId(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new Comment());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<Comment>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> commentService.getCommentsByArticle(1L)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (Future<List<Comment>> future : futures) {
+            assertEquals(1, future.get(5, TimeUnit.SECONDS).size());
+        }
+        executor.shutdown();
+        verify(commentRepository, times(1)).findCommentsByArticleId(1L);
+    }
+
+    @Test
+    void testGetCommentsPage_FirstPageHasNextCursor() {
+        when(commentRepository.findPageByArticleId(1L, Limit.of(3))).thenReturn(List.of(
+                new Comment(10L, "a", null), new Comment(11L, "b", null), new Comment(12L, "c", null)));
+
+        ArticlePage<Comment> page = commentService.getCommentsPage(1L, null, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(11L, CommentCursor.decode(page.nextCursor()).id());
+    }
+
+    @Test
+    void testGetCommentsPage_ContinuesAfterCursor() {
+        String cursor = new CommentCursor(11L).encode();
+        when(commentRepository.findPageByArticleIdAfter(1L, 11L, Limit.of(3)))
+                .thenReturn(List.of(new Comment(12L, "c", null)));
+
+        ArticlePage<Comment> page = commentService.getCommentsPage(1L, cursor, 2);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testGetCommentsPage_InvalidInput() {
+        assertThrows(InvalidInputException.class, () -> commentService.getCommentsPage(1L, null, 0));
+        assertThrows(InvalidInputException.class,
+                () -> commentService.getCommentsPage(1L, "not a cursor!", 10));
+    }
+}
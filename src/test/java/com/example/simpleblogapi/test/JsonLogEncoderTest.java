@@ -0,0 +1,90 @@
+package com.example.simpleblogapi.test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.example.simpleblogapi.config.CorrelationIdFilter;
+import com.example.simpleblogapi.logs.JsonLogEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLogEncoderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final JsonLogEncoder encoder = new JsonLogEncoder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testEventIsEncodedAsOneJsonLine() throws Exception {
+        LoggingEvent event = new LoggingEvent("test", context.getLogger("c.e.s.service.TagService"),
+                Level.WARN, "Тег \"{}\" не найден\tв кэше", null, new Object[] {"java\\spring"});
+        event.setThreadName("http-nio-8080-exec-1");
+        event.setTimeStamp(1_744_538_400_123L);
+        event.setMDCPropertyMap(Map.of(JsonLogEncoder.CORRELATION_ID, "abc-1"));
+
+        String line = new String(encoder.encode(event), StandardCharsets.UTF_8);
+        JsonNode json = objectMapper.readTree(line);
+
+        assertTrue(line.endsWith("}\n"));
+        assertEquals(1, line.split("\n").length);
+        assertEquals(1_744_538_400_123L,
+                OffsetDateTime.parse(json.get("ts").asText()).toInstant().toEpochMilli());
+        assertEquals("WARN", json.get("level").asText());
+        assertEquals("http-nio-8080-exec-1", json.get("thread").asText());
+        assertEquals("c.e.s.service.TagService", json.get("logger").asText());
+        assertEquals("abc-1", json.get("correlationId").asText());
+        assertEquals("Тег \"java\\spring\" не найден\tв кэше", json.get("msg").asText());
+        assertNull(json.get("stack"));
+    }
+
+    @Test
+    void testStackTraceAndControlCharactersAreEscaped() throws Exception {
+        LoggingEvent event = new LoggingEvent("test", context.getLogger("a"), Level.ERROR,
+                "bell\u0007 emoji 😀", new IllegalStateException("boom"), null);
+        event.setMDCPropertyMap(Map.of());
+
+        JsonNode json = objectMapper.readTree(encoder.encode(event));
+
+        assertEquals("bell\u0007 emoji 😀", json.get("msg").asText());
+        assertNull(json.get("correlationId"));
+        assertTrue(json.get("stack").asText().startsWith("java.lang.IllegalStateException: boom\n"));
+    }
+
+    @Test
+    void testCorrelationIdIsTakenFromHeaderOrGenerated() throws Exception {
+        CorrelationIdFilter filter = new CorrelationIdFilter();
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(CorrelationIdFilter.HEADER, "client-42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req,
+                                 jakarta.servlet.ServletResponse res) {
+                seen.set(MDC.get(JsonLogEncoder.CORRELATION_ID));
+            }
+        });
+        assertEquals("client-42", seen.get());
+        assertEquals("client-42", response.getHeader(CorrelationIdFilter.HEADER));
+        assertNull(MDC.get(JsonLogEncoder.CORRELATION_ID));
+
+        request = new MockHttpServletRequest();
+        request.addHeader(CorrelationIdFilter.HEADER, "bad id\nforged");
+        response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        String generated = response.getHeader(CorrelationIdFilter.HEADER);
+        assertNotNull(generated);
+        assertTrue(generated.matches("[0-9a-f]+-[0-9a-f]+"), generated);
+    }
+}
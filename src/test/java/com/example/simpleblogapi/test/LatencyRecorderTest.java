@@ -0,0 +1,127 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.dto.EndpointLatency;
+import com.example.simpleblogapi.dto.LatencyReport;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.metrics.LatencyHistogram;
+import com.example.simpleblogapi.metrics.LatencyRecorder;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyRecorderTest {
+
+    @Test
+    void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(10_000, snapshot.count());
+        assertEquals(10_000_000, snapshot.max());
+        assertEquals(5_000_500, snapshot.mean(), 1e-6);
+        assertWithin(5_000_000, snapshot.valueAt(0.50));
+        assertWithin(9_000_000, snapshot.valueAt(0.90));
+        assertWithin(9_900_000, snapshot.valueAt(0.99));
+        assertWithin(9_990_000, snapshot.valueAt(0.999));
+        assertEquals(0, new LatencyHistogram().snapshot().valueAt(0.99));
+    }
+
+    @Test
+    void testSmallAndHugeValuesAreRecorded() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(100);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.valueAt(0.1));
+        assertEquals(100, snapshot.valueAt(0.5));
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE, snapshot.valueAt(1.0));
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 1; i <= 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(400_000, histogram.snapshot().count());
+        assertEquals(100_000, histogram.snapshot().max());
+    }
+
+    @Test
+    void testEndpointsRotateAndErrorsAreCountedByType() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder(60_000);
+        Method getTag = Sample.class.getMethod("getTag");
+        recorder.record(getTag, 2_000_000);
+        recorder.record(getTag, 4_000_000);
+        recorder.recordError(new ResourceNotFoundException("нет"));
+        recorder.recordError(new ResourceNotFoundException("нет"));
+        recorder.recordError(new InvalidInputException("плохо"));
+
+        LatencyReport report = recorder.report();
+        EndpointLatency current = report.current().get(0);
+        assertEquals("Sample.getTag", current.endpoint());
+        assertEquals(2, current.count());
+        assertEquals(3.0, current.meanMs(), 1e-9);
+        assertEquals(4.0, current.maxMs(), 1e-9);
+        assertEquals(0, report.previous().get(0).count());
+        assertEquals(Map.of(ResourceNotFoundException.class.getName(), 2L,
+                InvalidInputException.class.getName(), 1L), report.errors());
+
+        recorder.rotate();
+        recorder.record(getTag, 1_000_000);
+        report = recorder.report();
+        assertEquals(1, report.current().get(0).count());
+        assertEquals(2, report.previous().get(0).count());
+        assertEquals(3, report.errors().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testRecordingDoesNotAllocate() throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        LatencyRecorder recorder = new LatencyRecorder(60_000);
+        Method getTag = Sample.class.getMethod("getTag");
+        // Прогрев: первый вызов создает гистограмму, JIT компилирует запись.
+        for (int i = 0; i < 200_000; i++) {
+            recorder.record(getTag, i);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 1_000_000; i++) {
+            recorder.record(getTag, i * 37L);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Допуск на служебные выделения самого замера; одна запись на вызов дала бы мегабайты.
+        assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes");
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertEquals(expected, actual, expected / 64.0, "percentile " + actual);
+    }
+
+    public static class Sample {
+        public void getTag() {
+        }
+    }
+}
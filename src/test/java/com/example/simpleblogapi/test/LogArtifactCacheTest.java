@@ -0,0 +1,145 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.logs.LogArtifact;
+import com.example.simpleblogapi.logs.LogArtifactCache;
+import com.example.simpleblogapi.logs.LogFileExtractor;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogArtifactCacheTest {
+
+    @TempDir
+    Path logsDir;
+
+    private LogFileExtractor extractor;
+    private LogArtifactCache cache;
+
+    @BeforeEach
+    void setUp() {
+        extractor = new LogFileExtractor(logsDir.resolve("app.log").toString(), 4096, 2);
+        cache = new LogArtifactCache(extractor, logsDir.resolve("artifacts").toString(),
+                300_000, 30, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        extractor.shutdown();
+    }
+
+    @Test
+    void testPastDayIsSealedAndServedFromDisk() throws Exception {
+        Files.writeString(logsDir.resolve("app.log"), "2025-04-12 10:00:00 a - old\n"
+                + "2025-04-13 10:00:00 a - entry\n");
+
+        LogArtifact first = cache.get("2025-04-13");
+        // Лог после запечатывания дня уже не читается.
+        Files.delete(logsDir.resolve("app.log"));
+        LogArtifact second = cache.get("2025-04-13");
+
+        assertTrue(first.sealed());
+        assertEquals(logsDir.resolve("artifacts/daily-log-2025-04-13.log"), first.file());
+        assertEquals("2025-04-13 10:00:00 a - entry\n", Files.readString(second.file()));
+        assertEquals(first, second);
+        assertEquals(logsDir.resolve("artifacts/daily-log-2025-04-13.log.gz"), first.compressedFile());
+        assertEquals(Files.size(first.compressedFile()), first.compressedSize());
+        assertEquals("2025-04-13 10:00:00 a - entry\n", gunzip(first.compressedFile()));
+        assertEquals(1, cache.generatedCount());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneGeneration() throws Exception {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            log.append("2025-04-13 10:00:00 [main] INFO  a - line ").append(i).append('\n');
+        }
+        Files.writeString(logsDir.resolve("app.log"), log);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<LogArtifact>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("2025-04-13")));
+            }
+            for (Future<LogArtifact> result : results) {
+                assertEquals(log.length(), result.get().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, cache.generatedCount());
+        assertEquals(7, cache.joinedCount() + cache.hitCount());
+    }
+
+    @Test
+    void testCurrentDayIsRebuiltWhenSourceChanges() throws Exception {
+        String today = LocalDate.now().toString();
+        Path log = Files.writeString(logsDir.resolve("app.log"), today + " 10:00:00 a - first\n");
+
+        LogArtifact first = cache.get(today);
+        assertEquals(first, cache.get(today));
+        Files.writeString(log, today + " 11:00:00 a - second\n", StandardOpenOption.APPEND);
+        LogArtifact second = cache.get(today);
+
+        assertFalse(second.sealed());
+        assertNotEquals(first.file(), second.file());
+        assertFalse(Files.exists(first.file()));
+        assertFalse(Files.exists(first.compressedFile()));
+        assertEquals(today + " 10:00:00 a - first\n" + today + " 11:00:00 a - second\n",
+                Files.readString(second.file()));
+        assertEquals(Files.readString(second.file()), gunzip(second.compressedFile()));
+        assertEquals(2, cache.generatedCount());
+    }
+
+    @Test
+    void testMissingDayIsNotCached() throws Exception {
+        Files.writeString(logsDir.resolve("app.log"), "2025-04-12 10:00:00 a - old\n");
+        assertThrows(ResourceNotFoundException.class, () -> cache.get("2025-04-13"));
+        assertEquals(0, cache.generatedCount());
+    }
+
+    @Test
+    void testCleanupRemovesExpiredAndSupersededArtifacts() throws Exception {
+        Path artifacts = Files.createDirectories(logsDir.resolve("artifacts"));
+        Path expired = Files.writeString(artifacts.resolve("daily-log-2000-01-01.log"), "old");
+        String today = LocalDate.now().toString();
+        Path superseded = Files.writeString(artifacts.resolve("daily-log-" + today + "@1.log"), "v1");
+        Thread.sleep(20);
+        Path supersededCompressed = Files.writeString(
+                artifacts.resolve("daily-log-" + today + "@1.log.gz"), "v1");
+        Thread.sleep(20);
+        Path current = Files.writeString(artifacts.resolve("daily-log-" + today + "@2.log"), "v2");
+        Path currentCompressed = Files.writeString(
+                artifacts.resolve("daily-log-" + today + "@2.log.gz"), "v2");
+
+        cache.cleanup();
+
+        assertFalse(Files.exists(expired));
+        assertFalse(Files.exists(superseded));
+        assertFalse(Files.exists(supersededCompressed));
+        assertTrue(Files.exists(current));
+        assertTrue(Files.exists(currentCompressed));
+    }
+
+    private static String gunzip(Path file) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
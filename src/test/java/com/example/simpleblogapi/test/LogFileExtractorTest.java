@@ -0,0 +1,189 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.logs.LogFileExtractor;
+import com.example.simpleblogapi.logs.LogExtract;
+import com.example.simpleblogapi.logs.LogScanProgress;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogFileExtractorTest {
+
+    @TempDir
+    Path logsDir;
+
+    private static final String LOG = String.join("\n",
+            "2025-04-12 10:00:00 [main] INFO  a - before",
+            "2025-04-13 09:00:00 [main] INFO  a - first",
+            "2025-04-13 09:00:01 [main] ERROR a - failed",
+            "java.lang.IllegalStateException: boom",
+            "\tat com.example.Foo.bar(Foo.java:1)",
+            "2025-04-13 09:00:02 [main] INFO  a - " + "x".repeat(300),
+            "2025-04-14 00:00:00 [main] INFO  a - after",
+            "2025-04-13 23:59:59 [late] INFO  a - late") + "\n";
+
+    private static final String EXPECTED = String.join("\n",
+            "2025-04-13 09:00:00 [main] INFO  a - first",
+            "2025-04-13 09:00:01 [main] ERROR a - failed",
+            "2025-04-13 09:00:02 [main] INFO  a - " + "x".repeat(300),
+            "2025-04-13 23:59:59 [late] INFO  a - late") + "\n";
+
+    @Test
+    void testExtractsLinesStartingWithDate() throws Exception {
+        // Маленький буфер: строки и даты разрезаются границами блоков.
+        for (int bufferSize : new int[] {64, 65, 100, 333, 1 << 16}) {
+            LogFileExtractor extractor = extractor(LOG, bufferSize);
+            LogExtract extract = extractor.findDay("2025-04-13");
+            assertEquals(1, extract.slices().size());
+            assertEquals(LOG.indexOf("2025-04-13"), extract.slices().get(0).start());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long written = extractor.write(extract, out);
+
+            assertEquals(EXPECTED, out.toString(StandardCharsets.UTF_8), "buffer " + bufferSize);
+            assertEquals(EXPECTED.length(), written);
+        }
+    }
+
+    @Test
+    void testLastLineWithoutNewline() throws Exception {
+        LogFileExtractor extractor = extractor("2025-04-12 a\n2025-04-13 b", 64);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        extractor.write(extractor.findDay("2025-04-13"), out);
+        assertEquals("2025-04-13 b", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testDaySpanningRotatedFile() throws Exception {
+        Files.writeString(logsDir.resolve("app.log.1"), String.join("\n",
+                "2025-04-12 22:00:00 [main] INFO  a - old",
+                "2025-04-13 08:00:00 [main] INFO  a - rotated") + "\n");
+        LogFileExtractor extractor = extractor(String.join("\n",
+                "2025-04-13 09:00:00 [main] INFO  a - current",
+                "2025-04-14 00:00:00 [main] INFO  a - next") + "\n", 64);
+
+        LogExtract extract = extractor.findDay("2025-04-13");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        extractor.write(extract, out);
+
+        assertEquals(2, extract.slices().size());
+        assertEquals("2025-04-13 08:00:00 [main] INFO  a - rotated\n"
+                + "2025-04-13 09:00:00 [main] INFO  a - current\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSliceFollowsFileRenamedByRotation() throws Exception {
+        LogFileExtractor extractor = extractor(LOG, 64);
+        LogExtract extract = extractor.findDay("2025-04-13");
+
+        // Ротация между поиском и копированием: app.log -> app.log.1.
+        Files.move(logsDir.resolve("app.log"), logsDir.resolve("app.log.1"));
+        Files.writeString(logsDir.resolve("app.log"), "2025-04-20 00:00:00 [main] INFO  a - new\n");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        extractor.write(extract, out);
+
+        assertEquals(EXPECTED, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testRangeAcrossCompressedArchivesInTimeOrder() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int day = 10; day <= 13; day++) {
+            for (int part = 0; part < 3; part++) {
+                StringBuilder archive = new StringBuilder();
+                for (int i = 0; i < 200; i++) {
+                    String line = String.format("2025-04-%02d %02d:%02d:00 [main] INFO  a - part %d line %d",
+                            day, part, i % 60, part, i);
+                    archive.append(line).append('\n');
+                    if (day >= 11) {
+                        expected.append(line).append('\n');
+                    }
+                    if (i % 50 == 0) {
+                        archive.append("\tat stack.Trace\n");
+                    }
+                }
+                gzip(String.format("app.2025-04-%02d.%d.log.gz", day, part), archive.toString());
+            }
+        }
+        gzip("app.2025-04-12.10.log.gz", "2025-04-12 23:59:59 [main] INFO  a - part 10\n");
+        gzip("other.2025-04-12.0.log.gz", "2025-04-12 12:00:00 [main] INFO  a - foreign\n");
+        // Часть 10 за 12-е идет после частей 0-2, а не между 1 и 2.
+        String part10 = "2025-04-12 23:59:59 [main] INFO  a - part 10\n";
+        int day13 = expected.indexOf("2025-04-13");
+        expected.insert(day13, part10);
+        String current = "2025-04-14 08:00:00 [main] INFO  a - today\n";
+        expected.append(current);
+        LogFileExtractor extractor = extractor(current, 128);
+
+        LogExtract extract = extractor.find("2025-04-11", "2025-04-14");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = extractor.write(extract, out);
+
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+        assertEquals(expected.length(), written);
+        assertEquals(3 + 3 + 1 + 3 + 1, extract.slices().size());
+    }
+
+    @Test
+    void testProgressCountsScannedBytesAndMatchedLines() throws Exception {
+        gzip("app.2025-04-13.0.log.gz", "2025-04-13 01:00:00 [main] INFO  a - archived\n"
+                + "\tat com.example.Foo.bar(Foo.java:1)\n"
+                + "2025-04-13 02:00:00 [main] INFO  a - archived\n");
+        LogFileExtractor extractor = extractor(LOG, 64);
+        LogExtract extract = extractor.findDay("2025-04-13");
+        LogScanProgress progress = new LogScanProgress();
+        progress.setBytesTotal(extract.bytesTotal());
+
+        extractor.write(extract, Channels.newChannel(new ByteArrayOutputStream()), progress);
+
+        assertEquals(Files.size(logsDir.resolve("app.2025-04-13.0.log.gz"))
+                + Files.size(logsDir.resolve("app.log")) - LOG.indexOf("2025-04-13"),
+                progress.bytesTotal());
+        assertEquals(progress.bytesTotal(), progress.bytesScanned());
+        assertEquals(2 + 4, progress.linesMatched());
+    }
+
+    @Test
+    void testInvalidRange() throws Exception {
+        LogFileExtractor extractor = extractor(LOG, 64);
+        assertThrows(InvalidInputException.class, () -> extractor.find("2025-04-13", "2025-04-12"));
+        assertThrows(InvalidInputException.class, () -> extractor.findDay("2025-02-30"));
+    }
+
+    @Test
+    void testNoLinesForDate() throws Exception {
+        LogFileExtractor extractor = extractor(LOG, 64);
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> extractor.findDay("2025-04-15"));
+        assertEquals("Логи за указанную дату не найдены.", ex.getMessage());
+    }
+
+    @Test
+    void testMissingLogFile() {
+        LogFileExtractor extractor =
+                new LogFileExtractor(logsDir.resolve("missing.log").toString(), 64, 2);
+        assertThrows(ResourceNotFoundException.class, () -> extractor.findDay("2025-04-13"));
+    }
+
+    private void gzip(String name, String content) throws Exception {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(logsDir.resolve(name)))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private LogFileExtractor extractor(String content, int bufferSize) throws Exception {
+        Path file = logsDir.resolve("app.log");
+        Files.writeString(file, content);
+        return new LogFileExtractor(file.toString(), bufferSize, 2);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.controllers.LogFileResponses;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogFileResponsesTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private Path compressed;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.writeString(dir.resolve("daily-log-1.log"), CONTENT);
+        compressed = Files.writeString(dir.resolve("daily-log-1.log.gz"), "gzipped");
+    }
+
+    @Test
+    void testFullFileWithoutCompression() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = serve(new MockHttpServletRequest());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(CONTENT, body(response));
+        assertEquals(CONTENT.length(), response.getHeaders().getContentLength());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaders().getFirst(HttpHeaders.VARY));
+    }
+
+    @Test
+    void testCompressedCopyIsNegotiated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8");
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertEquals("gzipped", body(response));
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(serve(new MockHttpServletRequest()).getHeaders().getETag(),
+                response.getHeaders().getETag());
+    }
+
+    @Test
+    void testAcceptEncodingWeights() {
+        assertTrue(LogFileResponses.acceptsGzip("gzip, deflate"));
+        assertTrue(LogFileResponses.acceptsGzip("*"));
+        assertFalse(LogFileResponses.acceptsGzip("gzip;q=0, *"));
+        assertFalse(LogFileResponses.acceptsGzip("identity"));
+        assertFalse(LogFileResponses.acceptsGzip(null));
+    }
+
+    @Test
+    void testSingleRangeIsServedPartially() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("56789", body(response));
+        assertEquals("bytes 5-9/20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(5, response.getHeaders().getContentLength());
+
+        request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        assertEquals("hij", body(serve(request)));
+    }
+
+    @Test
+    void testUnsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-");
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testStaleIfRangeAndMultipleRangesReturnWholeFile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+        assertEquals(HttpStatus.OK, serve(request).getStatusCode());
+
+        request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,5-6");
+        assertEquals(HttpStatus.OK, serve(request).getStatusCode());
+
+        String etag = serve(new MockHttpServletRequest()).getHeaders().getETag();
+        request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        request.addHeader(HttpHeaders.IF_RANGE, etag);
+        assertEquals(HttpStatus.PARTIAL_CONTENT, serve(request).getStatusCode());
+    }
+
+    @Test
+    void testImmutableFileIsHandedToSendfile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/logs/file");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+        ResponseEntity<StreamingResponseBody> response =
+                LogFileResponses.serve(request, file, compressed, "daily-log-1.log", true);
+
+        assertNull(response.getBody());
+        assertEquals(file.toAbsolutePath().toString(),
+                request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(10, response.getHeaders().getContentLength());
+    }
+
+    private ResponseEntity<StreamingResponseBody> serve(MockHttpServletRequest request)
+            throws Exception {
+        return LogFileResponses.serve(request, file, compressed, "daily-log-1.log", false);
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.dto.LogEntry;
+import com.example.simpleblogapi.dto.LogQueryCursor;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.logs.LogFileExtractor;
+import com.example.simpleblogapi.logs.LogQuery;
+import com.example.simpleblogapi.logs.LogSearcher;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSearcherTest {
+
+    @TempDir
+    Path logsDir;
+
+    private static final String ARCHIVE = String.join("\n",
+            "2025-04-12 23:00:00 [main] INFO  c.e.s.service.TagService - archived",
+            "2025-04-13 08:00:00 [main] ERROR c.e.s.service.TagService - archived failure",
+            "java.lang.IllegalStateException: archived") + "\n";
+
+    private static final String LOG = String.join("\n",
+            "2025-04-13 09:00:00 [main] INFO  c.e.s.service.TagService - first",
+            "2025-04-13 09:00:00 [http-nio-8080-exec-1] DEBUG o.s.web.servlet.DispatcherServlet - GET /tags",
+            "2025-04-13 09:00:00 [main] WARN  c.e.s.service.TagService - slow query",
+            "2025-04-13 09:30:00 [main] ERROR c.e.s.service.ArticleService - failed",
+            "java.lang.IllegalStateException: boom",
+            "\tat com.example.Foo.bar(Foo.java:1)",
+            "2025-04-13 10:15:00 [main] INFO  c.e.s.service.ArticleService - " + "x".repeat(200),
+            "2025-04-13 11:00:00 [main] INFO  c.e.s.service.TagService -",
+            "2025-04-14 00:00:00 [main] INFO  c.e.s.service.TagService - next day") + "\n";
+
+    private LogFileExtractor extractor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (OutputStream out = new GZIPOutputStream(
+                Files.newOutputStream(logsDir.resolve("app.2025-04-13.0.log.gz")))) {
+            out.write(ARCHIVE.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.writeString(logsDir.resolve("app.log"), LOG);
+        extractor = new LogFileExtractor(logsDir.resolve("app.log").toString(), 64, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        extractor.shutdown();
+    }
+
+    @Test
+    void testParsesEntriesWithStackTraces() throws Exception {
+        List<LogEntry> entries = search(searcher(1 << 20), "2025-04-13", "2025-04-13",
+                "WARN", null, null, 100, null);
+
+        assertEquals(3, entries.size());
+        assertEquals(new LogEntry(LocalDateTime.of(2025, 4, 13, 8, 0), "main", "ERROR",
+                "c.e.s.service.TagService",
+                "archived failure\njava.lang.IllegalStateException: archived"), entries.get(0));
+        assertEquals("slow query", entries.get(1).message());
+        assertEquals("failed\njava.lang.IllegalStateException: boom\n\tat com.example.Foo.bar(Foo.java:1)",
+                entries.get(2).message());
+    }
+
+    @Test
+    void testFiltersByTimeLoggerAndRegex() throws Exception {
+        LogSearcher searcher = searcher(1 << 20);
+
+        List<LogEntry> tagEntries = search(searcher, "2025-04-13 09:00:00", "2025-04-13T11:00:00",
+                null, "c.e.s.service.Tag", null, 100, null);
+        assertEquals(List.of("first", "slow query", ""),
+                tagEntries.stream().map(LogEntry::message).toList());
+
+        List<LogEntry> traces = search(searcher, "2025-04-13", "2025-04-13",
+                null, null, "Foo\\.java", 100, null);
+        assertEquals(1, traces.size());
+        assertEquals("c.e.s.service.ArticleService", traces.get(0).logger());
+    }
+
+    @Test
+    void testSmallChunksGiveSameResult() throws Exception {
+        List<LogEntry> expected = search(searcher(1 << 20), "2025-04-12", "2025-04-14",
+                null, null, null, 100, null);
+        assertEquals(9, expected.size());
+        for (int chunkSize : new int[] {1, 17, 64, 100, 333}) {
+            assertEquals(expected, search(searcher(chunkSize), "2025-04-12", "2025-04-14",
+                    null, null, null, 100, null), "chunk " + chunkSize);
+        }
+    }
+
+    @Test
+    void testCursorPagesThroughEntriesWithSameTimestamp() throws Exception {
+        LogSearcher searcher = searcher(50);
+        List<LogEntry> expected = search(searcher, "2025-04-13", "2025-04-13",
+                null, null, null, 100, null);
+
+        List<LogEntry> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            LogQuery query = searcher.query("2025-04-13", "2025-04-13", null, null, null, 2, cursor);
+            List<LogEntry> page = new ArrayList<>();
+            cursor = searcher.search(query, searcher.find(query), page::add);
+            paged.addAll(page);
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals(expected, paged);
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void testInvalidParameters() {
+        LogSearcher searcher = searcher(1 << 20);
+        assertThrows(InvalidInputException.class,
+                () -> searcher.query("2025-04-13", null, "LOUD", null, null, 10, null));
+        assertThrows(InvalidInputException.class,
+                () -> searcher.query("2025-04-13", null, null, null, "(", 10, null));
+        assertThrows(InvalidInputException.class,
+                () -> searcher.query("13.04.2025", null, null, null, null, 10, null));
+        assertThrows(InvalidInputException.class,
+                () -> searcher.query("2025-04-13", null, null, null, null, 10_001, null));
+        assertThrows(InvalidInputException.class,
+                () -> searcher.query("2025-04-13", null, null, null, null, 10, "%%%"));
+        LogQuery reversed = searcher.query("2025-04-14", "2025-04-13", null, null, null, 10, null);
+        assertThrows(InvalidInputException.class, () -> searcher.find(reversed));
+    }
+
+    @Test
+    void testCursorSkipIsBoundedByMaxLimit() {
+        LogSearcher searcher = searcher(1 << 20);
+        LocalDateTime time = LocalDateTime.of(2025, 4, 13, 9, 0);
+
+        LogQuery query = searcher.query("2025-04-13", null, null, null, null, 10,
+                new LogQueryCursor(time, 10_000).encode());
+        assertEquals(10_000, query.skip());
+        assertThrows(InvalidInputException.class, () -> searcher.query("2025-04-13", null,
+                null, null, null, 10, new LogQueryCursor(time, 10_001).encode()));
+        assertThrows(InvalidInputException.class, () -> searcher.query("2025-04-13", null,
+                null, null, null, 10, new LogQueryCursor(time, Integer.MAX_VALUE).encode()));
+    }
+
+    private LogSearcher searcher(long chunkSize) {
+        return new LogSearcher(extractor, chunkSize, 10_000);
+    }
+
+    private static List<LogEntry> search(LogSearcher searcher, String from, String to, String level,
+                                         String logger, String regex, int limit, String cursor)
+            throws Exception {
+        LogQuery query = searcher.query(from, to, level, logger, regex, limit, cursor);
+        List<LogEntry> entries = new ArrayList<>();
+        searcher.search(query, searcher.find(query), entries::add);
+        return entries;
+    }
+}
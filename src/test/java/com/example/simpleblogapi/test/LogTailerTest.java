@@ -0,0 +1,153 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.logs.LogFileExtractor;
+import com.example.simpleblogapi.logs.LogTailer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogTailerTest {
+
+    private static final String INFO_LINE = "2025-04-13 10:00:00 [main] INFO  c.e.s.service.TagService - cached\n";
+    private static final String ERROR_LINE = "2025-04-13 10:00:01 [main] ERROR c.e.s.controllers.A - failed\n";
+    private static final String TRACE_LINE = "\tat com.example.A.run(A.java:1)\n";
+
+    @TempDir
+    Path logsDir;
+
+    private Path log;
+    private LogFileExtractor extractor;
+    private LogTailer tailer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        log = Files.writeString(logsDir.resolve("app.log"), INFO_LINE);
+        extractor = new LogFileExtractor(log.toString(), 4096, 1);
+        // Опрос вызывается тестом вручную.
+        tailer = new LogTailer(extractor, 3_600_000, 16, 1024, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tailer.shutdown();
+        extractor.shutdown();
+    }
+
+    @Test
+    void testNewLinesAreFannedOutByFilter() throws Exception {
+        RecordingEmitter all = new RecordingEmitter(2);
+        RecordingEmitter errors = new RecordingEmitter(2);
+        RecordingEmitter services = new RecordingEmitter(2);
+        tailer.subscribe(null, null, all);
+        tailer.subscribe("error", null, errors);
+        tailer.subscribe(null, "c.e.s.service", services);
+        tailer.poll();
+
+        append(log, INFO_LINE + ERROR_LINE + TRACE_LINE + "2025-04-13 10:00:02 [main] INFO  c.e.s");
+        tailer.poll();
+
+        all.await();
+        errors.await();
+        services.await();
+        assertEquals("event: lines\ndata: " + INFO_LINE + "data: " + ERROR_LINE
+                + "data: " + TRACE_LINE + "\n", all.texts().get(1));
+        assertEquals("event: lines\ndata: " + ERROR_LINE + "data: " + TRACE_LINE + "\n",
+                errors.texts().get(1));
+        assertEquals("event: lines\ndata: " + INFO_LINE + "\n", services.texts().get(1));
+        assertEquals(3, tailer.subscriberCount());
+    }
+
+    @Test
+    void testRotatedFileIsReadToTheEndBeforeTheNewOne() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(3);
+        tailer.subscribe(null, null, emitter);
+        tailer.poll();
+
+        append(log, INFO_LINE);
+        Path archived = Files.move(log, logsDir.resolve("app.2025-04-13.0.log"));
+        append(archived, ERROR_LINE);
+        Files.writeString(log, TRACE_LINE);
+        tailer.poll();
+
+        emitter.await();
+        assertEquals(List.of("event: lines\ndata: " + INFO_LINE + "data: " + ERROR_LINE + "\n",
+                "event: lines\ndata: " + TRACE_LINE + "\n"), emitter.texts().subList(1, 3));
+    }
+
+    @Test
+    void testReaderSkipsAheadWhenTooFarBehind() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(3);
+        tailer.subscribe(null, null, emitter);
+        tailer.poll();
+
+        append(log, INFO_LINE.repeat(20));
+        tailer.poll();
+        append(log, ERROR_LINE);
+        tailer.poll();
+
+        emitter.await();
+        long skipped = INFO_LINE.getBytes(StandardCharsets.UTF_8).length * 20L;
+        assertEquals(List.of("event: skipped\ndata: " + skipped + "\n\n",
+                "event: lines\ndata: " + ERROR_LINE + "\n"), emitter.texts().subList(1, 3));
+        assertEquals(skipped, tailer.bytesSkipped());
+    }
+
+    @Test
+    void testNothingIsReadWithoutSubscribers() throws Exception {
+        tailer.poll();
+        append(log, INFO_LINE);
+        tailer.poll();
+        assertEquals(0, tailer.bytesRead());
+    }
+
+    @Test
+    void testUnknownLevelIsRejected() {
+        assertThrows(InvalidInputException.class,
+                () -> tailer.subscribe("LOUD", null, new RecordingEmitter(0)));
+        assertEquals(0, tailer.subscriberCount());
+    }
+
+    private static void append(Path file, String text) throws Exception {
+        Files.writeString(file, text, StandardOpenOption.APPEND);
+    }
+
+    private static class RecordingEmitter extends ResponseBodyEmitter {
+        final List<byte[]> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+
+        RecordingEmitter(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(Object object, MediaType mediaType) {
+            sent.add((byte[]) object);
+            received.countDown();
+        }
+
+        @Override
+        public synchronized void complete() {
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(received.await(5, TimeUnit.SECONDS), "sent: " + texts());
+        }
+
+        List<String> texts() {
+            return sent.stream().map(bytes -> new String(bytes, StandardCharsets.UTF_8)).toList();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.dto.LogTaskProgress;
+import com.example.simpleblogapi.enums.TaskStatus;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.exceptions.ResourceNotFoundException;
+import com.example.simpleblogapi.exceptions.ServiceBusyException;
+import com.example.simpleblogapi.logs.LogArtifactCache;
+import com.example.simpleblogapi.logs.LogFileExtractor;
+import com.example.simpleblogapi.service.AsyncLogFileService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogTaskEngineTest {
+
+    @TempDir
+    Path logsDir;
+
+    private AsyncLogFileService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(logsDir.resolve("app.log"), "2025-04-12 10:00:00 [main] INFO  a - old\n"
+                + "2025-04-13 10:00:00 [main] INFO  a - entry\n");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testQueueOverflowIsRejectedAndCounted() {
+        service = service(1, 1, 60_000, 86_400_000);
+        Long running = service.startLogFileGeneration("2025-04-13");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() ->
+                service.getTaskStatus(running) == TaskStatus.IN_PROGRESS);
+        Long queued = service.startLogFileGeneration("2025-04-12");
+
+        assertThrows(ServiceBusyException.class, () -> service.startLogFileGeneration("2025-04-11"));
+        assertEquals(TaskStatus.QUEUED, service.getTaskStatus(queued));
+        assertEquals(1, service.getStats().rejected());
+        assertEquals(2, service.getStats().submitted());
+        assertEquals(1, service.getStats().queued());
+    }
+
+    @Test
+    void testCancelQueuedAndRunningTasks() {
+        service = service(1, 4, 60_000, 86_400_000);
+        Long running = service.startLogFileGeneration("2025-04-13");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() ->
+                service.getTaskStatus(running) == TaskStatus.IN_PROGRESS);
+        Long queued = service.startLogFileGeneration("2025-04-12");
+
+        assertEquals(TaskStatus.CANCELLED, service.cancelTask(queued));
+        assertEquals(TaskStatus.CANCELLED, service.cancelTask(running));
+        assertEquals(0, service.getStats().queued());
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() ->
+                service.getStats().activeWorkers() == 0);
+        assertEquals(TaskStatus.CANCELLED, service.getTaskStatus(running));
+        assertEquals(2, service.getStats().cancelled());
+
+        // Отмененная задача не мешает запустить дату заново.
+        assertNotEquals(running, service.startLogFileGeneration("2025-04-13"));
+        assertThrows(ResourceNotFoundException.class, () -> service.cancelTask(999L));
+    }
+
+    @Test
+    void testTasksSurviveRestart() {
+        service = service(1, 4, 0, 86_400_000);
+        Long taskId = service.startLogFileGeneration("2025-04-13");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() ->
+                service.getTaskStatus(taskId) == TaskStatus.COMPLETED);
+        service.shutdown();
+
+        service = service(1, 4, 0, 86_400_000);
+        assertEquals(TaskStatus.COMPLETED, service.getTaskStatus(taskId));
+        File file = service.getLogFile(taskId);
+        assertNotNull(file);
+        assertTrue(file.exists());
+        assertEquals(taskId, service.startLogFileGeneration("2025-04-13"));
+        assertTrue(service.startLogFileGeneration("2025-04-12") > taskId);
+    }
+
+    @Test
+    void testExpiredTasksAndFilesAreEvicted() throws Exception {
+        service = service(1, 4, 0, 0);
+        Long taskId = service.startLogFileGeneration("2025-04-13");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() ->
+                service.getTaskStatus(taskId) == TaskStatus.COMPLETED);
+        File file = service.getLogFile(taskId);
+        Path orphan = Files.writeString(logsDir.resolve("tasks/daily-log-77.log"), "orphan");
+        Thread.sleep(5);
+
+        service.evictExpired();
+
+        assertNull(service.getTaskStatus(taskId));
+        assertFalse(file.exists());
+        assertFalse(Files.exists(orphan));
+        assertEquals(1, service.getStats().evicted());
+    }
+
+    @Test
+    void testProgressIsReportedForFinishedTask() {
+        service = service(1, 4, 0, 86_400_000);
+        Long taskId = service.startLogFileGeneration("2025-04-13");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() ->
+                service.getTaskStatus(taskId) == TaskStatus.COMPLETED);
+
+        LogTaskProgress progress = service.getProgress(taskId);
+        assertEquals(TaskStatus.COMPLETED, progress.status());
+        assertTrue(progress.bytesTotal() > 0);
+        assertEquals(progress.bytesTotal(), progress.bytesScanned());
+        assertEquals(1, progress.linesMatched());
+        assertEquals(service.getLogFile(taskId).length(), progress.bytesWritten());
+        assertNull(service.getProgress(999L));
+        assertThrows(ResourceNotFoundException.class, () -> service.subscribe(999L));
+    }
+
+    @Test
+    void testSubscribingWhileTaskFinishesClosesStream() throws Exception {
+        service = service(2, 64, 0, 86_400_000);
+        LocalDate date = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 50; i++) {
+            Long taskId = service.startLogFileGeneration(date.plusDays(i).toString());
+            CompletionEmitter emitter = new CompletionEmitter();
+            service.subscribe(taskId, emitter);
+
+            assertTrue(emitter.completed.await(5, TimeUnit.SECONDS), "task " + taskId);
+            assertTrue(emitter.sent.get(emitter.sent.size() - 1).contains("event: finished"), emitter.sent.toString());
+        }
+    }
+
+    @Test
+    void testInvalidDateIsRejected() {
+        service = service(1, 4, 0, 86_400_000);
+        assertThrows(InvalidInputException.class, () -> service.startLogFileGeneration("2025-13-01"));
+    }
+
+    private static class CompletionEmitter extends ResponseBodyEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(Object object, MediaType mediaType) {
+            sent.add(new String((byte[]) object, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+
+    private AsyncLogFileService service(int workers, int queueCapacity, long delayMs, long ttlMs) {
+        LogFileExtractor extractor = new LogFileExtractor(logsDir.resolve("app.log").toString(), 4096, 1);
+        LogArtifactCache artifactCache = new LogArtifactCache(extractor,
+                logsDir.resolve("artifacts").toString(), 300_000, 30, 1);
+        return new AsyncLogFileService(extractor, artifactCache,
+                new ObjectMapper().findAndRegisterModules(),
+                logsDir.resolve("tasks").toString(), workers, queueCapacity, delayMs, ttlMs);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.logs.LogTimeIndex;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogTimeIndexTest {
+
+    @TempDir
+    Path logsDir;
+
+    @Test
+    void testRangeByHour() throws Exception {
+        Path file = logsDir.resolve("app.log");
+        String log = line("2025-04-12 23") + line("2025-04-13 00") + "\tat stack.Trace\n"
+                + line("2025-04-13 00") + line("2025-04-13 05") + line("2025-04-14 01");
+        Files.writeString(file, log);
+        LogTimeIndex index = new LogTimeIndex(file, 64);
+        index.refresh();
+
+        assertEquals(4, index.entryCount());
+        long[] day = index.range(key(2025, 4, 13, 0), key(2025, 4, 14, 0));
+        assertArrayEquals(new long[] {log.indexOf("2025-04-13 00"), log.indexOf("2025-04-14")}, day);
+
+        long[] lastDay = index.range(key(2025, 4, 14, 0), key(2025, 4, 15, 0));
+        assertEquals(Long.MAX_VALUE, lastDay[1]);
+        assertNull(index.range(key(2025, 4, 13, 6), key(2025, 4, 14, 0)));
+        assertNull(index.range(key(2025, 4, 15, 0), key(2025, 4, 16, 0)));
+    }
+
+    @Test
+    void testIncrementalRefreshAndPartialLine() throws Exception {
+        Path file = logsDir.resolve("app.log");
+        Files.writeString(file, line("2025-04-13 10") + "2025-04-13 11:00:00 [main] INFO");
+        LogTimeIndex index = new LogTimeIndex(file, 64);
+        index.refresh();
+        // Незаконченная строка не индексируется, пока не появится перевод строки.
+        assertEquals(1, index.entryCount());
+        long indexed = index.indexedLength();
+
+        Files.writeString(file, " a - rest\n" + line("2025-04-13 12"), StandardOpenOption.APPEND);
+        index.refresh();
+
+        assertEquals(3, index.entryCount());
+        assertTrue(index.indexedLength() > indexed);
+        assertEquals(Files.size(file), index.indexedLength());
+    }
+
+    @Test
+    void testSidecarIsReusedAndRebuiltWhenFileReplaced() throws Exception {
+        Path file = logsDir.resolve("app.log");
+        Files.writeString(file, line("2025-04-13 10") + line("2025-04-13 11"));
+        new LogTimeIndex(file, 64).refresh();
+        assertTrue(Files.exists(logsDir.resolve(".app.log.idx")));
+
+        LogTimeIndex reloaded = new LogTimeIndex(file, 64);
+        reloaded.refresh();
+        assertEquals(2, reloaded.entryCount());
+
+        // Новый файл на месте старого (ротация): индекс строится заново.
+        Files.delete(file);
+        Files.writeString(file, line("2025-04-20 01"));
+        reloaded.refresh();
+        assertEquals(1, reloaded.entryCount());
+        assertNotNull(reloaded.range(key(2025, 4, 20, 0), key(2025, 4, 21, 0)));
+        assertNull(reloaded.range(key(2025, 4, 13, 0), key(2025, 4, 14, 0)));
+    }
+
+    @Test
+    void testLinesLongerThanBuffer() throws Exception {
+        Path file = logsDir.resolve("app.log");
+        String log = line("2025-04-13 10") + "2025-04-13 11:00:00 " + "x".repeat(500) + "\n"
+                + line("2025-04-13 12");
+        Files.writeString(file, log, StandardCharsets.UTF_8);
+        LogTimeIndex index = new LogTimeIndex(file, 64);
+        index.refresh();
+
+        assertEquals(3, index.entryCount());
+        assertArrayEquals(new long[] {log.indexOf("2025-04-13 12"), Long.MAX_VALUE},
+                index.range(key(2025, 4, 13, 12), key(2025, 4, 14, 0)));
+    }
+
+    private static String line(String hour) {
+        return hour + ":00:00 [main] INFO  c.e.Test - message\n";
+    }
+
+    private static long key(int year, int month, int day, int hour) {
+        return LogTimeIndex.hourKey(year, month, day, hour);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.simpleblogapi.test;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.example.simpleblogapi.logs.JsonLogEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.MDC;
+
+/**
+ * Замер задержки, которую логирование добавляет потоку запроса: до (запись
+ * в файл синхронно) и после (ограниченные очереди {@code AsyncAppender} с
+ * текстовым и JSON-логом). На запрос пишется столько строк, сколько прежняя
+ * конфигурация давала на {@code GET /tags/{id}}.
+ *
+ * <p>Не тест: запускается вручную,
+ * {@code java -cp target/test-classes:target/classes:<classpath> com.example.simpleblogapi.test.LoggingLatencyBenchmark}.
+ */
+public final class LoggingLatencyBenchmark {
+
+    private static final int LINES_PER_REQUEST = 7;
+    private static final int WARMUP = 20_000;
+    private static final int REQUESTS = 50_000;
+    // Пауза между запросами, чтобы фоновый поток успевал и очередь не переполнялась.
+    private static final long PAUSE_NANOS = 50_000;
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    private LoggingLatencyBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("log-bench");
+        run("sync file (before)", dir.resolve("sync"), false);
+        run("async file + json (after)", dir.resolve("async"), true);
+    }
+
+    private static void run(String label, Path dir, boolean async) throws Exception {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(MDC.getMDCAdapter());
+        context.start();
+        Logger logger = context.getLogger("com.example.simpleblogapi.service.TagService");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        Appender<ILoggingEvent> text = file(context, dir.resolve("app.log"), pattern(context));
+        if (async) {
+            logger.addAppender(queued(context, text));
+            logger.addAppender(queued(context, file(context, dir.resolve("app.json"), json(context))));
+        } else {
+            logger.addAppender(text);
+        }
+
+        MDC.put(JsonLogEncoder.CORRELATION_ID, "bench-1");
+        measure(logger, WARMUP);
+        long[] nanos = measure(logger, REQUESTS);
+        MDC.clear();
+        context.stop();
+
+        Arrays.sort(nanos);
+        long total = 0;
+        for (long value : nanos) {
+            total += value;
+        }
+        long written = Files.lines(dir.resolve("app.log")).count();
+        long expected = (long) (WARMUP + REQUESTS) * LINES_PER_REQUEST;
+        System.out.printf("%-26s avg %6.2f us  p50 %6.2f us  p99 %7.2f us  p99.9 %7.2f us  lost %d of %d%n",
+                label, total / 1000.0 / nanos.length, percentile(nanos, 0.50), percentile(nanos, 0.99),
+                percentile(nanos, 0.999), expected - written, expected);
+    }
+
+    private static long[] measure(Logger logger, int requests) {
+        long[] nanos = new long[requests];
+        for (int r = 0; r < requests; r++) {
+            long start = System.nanoTime();
+            for (int line = 0; line < LINES_PER_REQUEST; line++) {
+                logger.info("Тег с ID {} получен из кэша, строка {}", r, line);
+            }
+            nanos[r] = System.nanoTime() - start;
+            LockSupport.parkNanos(PAUSE_NANOS);
+        }
+        return nanos;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1000.0;
+    }
+
+    private static Appender<ILoggingEvent> file(LoggerContext context, Path path,
+                                                Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(path.toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    // Те же параметры очереди, что в logback-spring.xml.
+    private static Appender<ILoggingEvent> queued(LoggerContext context, Appender<ILoggingEvent> target) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(8192);
+        appender.setDiscardingThreshold(1638);
+        appender.setNeverBlock(true);
+        appender.setMaxFlushTime(2000);
+        appender.addAppender(target);
+        appender.start();
+        return appender;
+    }
+
+    private static Encoder<ILoggingEvent> pattern(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    private static Encoder<ILoggingEvent> json(LoggerContext context) {
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        return encoder;
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.events.SseBroadcaster;
+import com.example.simpleblogapi.events.SseBroadcaster.Frame;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseBroadcasterTest {
+
+    private SseBroadcaster<Long> broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new SseBroadcaster<>("test-stream", 4, 2, 60_000, 10_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void testFrameFormat() {
+        Frame frame = SseBroadcaster.frame(7, "comment", "line1\nline2");
+        assertEquals("id: 7\nevent: comment\ndata: line1\ndata: line2\n\n",
+                new String(frame.bytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testPublishSharesEncodedFrameBetweenSubscribers() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(2);
+        RecordingEmitter second = new RecordingEmitter(2);
+        broadcaster.subscribe(1L, first, List::of);
+        broadcaster.subscribe(1L, second, List::of);
+        int[] encodings = new int[1];
+
+        broadcaster.publish(1L, () -> {
+            encodings[0]++;
+            return SseBroadcaster.frame(1, "comment", "{}");
+        });
+        broadcaster.publish(2L, () -> fail("no subscribers for topic 2"));
+
+        first.await();
+        second.await();
+        assertEquals(1, encodings[0]);
+        assertSame(first.sent.get(1), second.sent.get(1));
+        assertEquals(2, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void testBacklogIsSentFirstAndDuplicatesSkipped() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(4);
+        broadcaster.subscribe(1L, emitter, () -> {
+            // Событие опубликовано, пока загружается backlog, и попадает в него же.
+            broadcaster.publish(1L, () -> SseBroadcaster.frame(3, "comment", "c"));
+            return List.of(SseBroadcaster.frame(2, "comment", "b"),
+                    SseBroadcaster.frame(3, "comment", "c"));
+        });
+        broadcaster.publish(1L, () -> SseBroadcaster.frame(4, "comment", "d"));
+
+        emitter.await();
+        assertEquals(List.of(":\n\n", "id: 2\nevent: comment\ndata: b\n\n",
+                "id: 3\nevent: comment\ndata: c\n\n", "id: 4\nevent: comment\ndata: d\n\n"),
+                emitter.texts());
+    }
+
+    @Test
+    void testLiveEventsOutOfOrderAreAllDelivered() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(4);
+        broadcaster.subscribe(1L, emitter, () -> List.of(SseBroadcaster.frame(9, "comment", "a")));
+        // Комментарии сохранены параллельно, и 11 опубликован раньше 10.
+        broadcaster.publish(1L, () -> SseBroadcaster.frame(11, "comment", "c"));
+        broadcaster.publish(1L, () -> SseBroadcaster.frame(10, "comment", "b"));
+
+        emitter.await();
+        assertEquals(List.of(":\n\n", "id: 9\nevent: comment\ndata: a\n\n",
+                "id: 11\nevent: comment\ndata: c\n\n", "id: 10\nevent: comment\ndata: b\n\n"),
+                emitter.texts());
+    }
+
+    @Test
+    void testSlowSubscriberIsDisconnected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(1) {
+            @Override
+            public void send(Object object, MediaType mediaType) throws java.io.IOException {
+                super.send(object, mediaType);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        broadcaster.subscribe(1L, slow, List::of);
+        slow.await();
+
+        for (long id = 1; id <= 10; id++) {
+            long eventId = id;
+            broadcaster.publish(1L, () -> SseBroadcaster.frame(eventId, "comment", "x"));
+        }
+        release.countDown();
+
+        assertEquals(1, broadcaster.slowConsumersDropped());
+        assertEquals(0, broadcaster.subscriberCount());
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testStuckSendIsDroppedWithoutStallingOtherTopics() throws Exception {
+        SseBroadcaster<Long> single = new SseBroadcaster<>("single-thread", 4, 1, 60_000, 200);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stuck = new RecordingEmitter(1) {
+            @Override
+            public void send(Object object, MediaType mediaType) throws java.io.IOException {
+                super.send(object, mediaType);
+                try {
+                    // Клиент не читает: запись висит, пока ее не оборвет контейнер.
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingEmitter healthy = new RecordingEmitter(2);
+        try {
+            single.subscribe(1L, stuck, List::of);
+            stuck.await();
+            single.subscribe(2L, healthy, List::of);
+            single.publish(2L, () -> SseBroadcaster.frame(1, "comment", "x"));
+
+            healthy.await();
+            assertEquals(1, single.slowConsumersDropped());
+            assertEquals(1, single.subscriberCount());
+            release.countDown();
+            assertTrue(stuck.completed.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void testCompleteDeliversQueuedEventsThenCloses() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(2);
+        broadcaster.subscribe(1L, emitter, List::of);
+        broadcaster.publish(1L, () -> SseBroadcaster.frame(1, "done", "{}"));
+        broadcaster.complete(1L);
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, emitter.sent.size());
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void testConcurrentSubscribeAndUnsubscribeLoseNoSubscriber() throws Exception {
+        int threads = 4;
+        // Очередь вмещает события всех потоков: медленных подписчиков здесь нет.
+        SseBroadcaster<Long> shared = new SseBroadcaster<>("shared", 1024, 2, 60_000, 10_000);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong ids = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1_500);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    long rounds = 0;
+                    while (System.nanoTime() < deadline) {
+                        long id = ids.incrementAndGet();
+                        // Подписчик отключается, получив свое событие, и если он
+                        // последний, набор темы удаляется, пока другие подписываются.
+                        RecordingEmitter emitter = new RecordingEmitter(1) {
+                            @Override
+                            public void send(Object object, MediaType mediaType) throws java.io.IOException {
+                                if (new String((byte[]) object, StandardCharsets.UTF_8).contains("id: " + id + "\n")) {
+                                    received.countDown();
+                                    throw new java.io.IOException("done");
+                                }
+                            }
+                        };
+                        shared.subscribe(1L, emitter, () -> {
+                            shared.publish(1L, () -> SseBroadcaster.frame(id, "comment", "x"));
+                            return List.of();
+                        });
+                        assertTrue(emitter.received.await(5, TimeUnit.SECONDS), "subscriber " + id + " lost");
+                        rounds++;
+                    }
+                    return rounds;
+                }));
+            }
+            for (Future<Long> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            executor.shutdownNow();
+            shared.shutdown();
+        }
+    }
+
+    @Test
+    void testSubscriberAddedDuringCompleteIsCompletedLater() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (long topic = 1; topic <= 500; topic++) {
+                long current = topic;
+                RecordingEmitter early = new RecordingEmitter(1);
+                broadcaster.subscribe(current, early, List::of);
+                RecordingEmitter late = new RecordingEmitter(1);
+                Future<?> subscribe = executor.submit(() -> {
+                    broadcaster.subscribe(current, late, List::of);
+                    return null;
+                });
+                broadcaster.complete(current);
+                subscribe.get(5, TimeUnit.SECONDS);
+                // Подписчик, пришедший после complete, остается в новой теме,
+                // и его завершает повторный complete.
+                broadcaster.complete(current);
+
+                assertTrue(early.completed.await(5, TimeUnit.SECONDS), "topic " + current);
+                assertTrue(late.completed.await(5, TimeUnit.SECONDS), "topic " + current);
+            }
+            assertEquals(0, broadcaster.subscriberCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class RecordingEmitter extends ResponseBodyEmitter {
+        final List<byte[]> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(Object object, MediaType mediaType) throws java.io.IOException {
+            sent.add((byte[]) object);
+            received.countDown();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(received.await(5, TimeUnit.SECONDS), "sent: " + texts());
+        }
+
+        List<String> texts() {
+            return sent.stream().map(bytes -> new String(bytes, StandardCharsets.UTF_8)).toList();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.dto.ArticleTagId;
+import com.example.simpleblogapi.dto.TagQueryResult;
+import com.example.simpleblogapi.entities.Tag;
+import com.example.simpleblogapi.index.ArticleIdSet;
+import com.example.simpleblogapi.index.TagArticleIndex;
+import com.example.simpleblogapi.index.TagNameIndex;
+import com.example.simpleblogapi.repositories.ArticleRepository;
+import com.example.simpleblogapi.repositories.TagRepository;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TagArticleIndexTest {
+
+    private TagArticleIndex index;
+    private TagNameIndex tagNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        ArticleRepository articleRepository = mock(ArticleRepository.class);
+        TagRepository tagRepository = mock(TagRepository.class);
+        when(tagRepository.findAll()).thenReturn(List.of(
+                new Tag(1L, "Java", null), new Tag(2L, "spring", null), new Tag(3L, "draft", null)));
+        when(articleRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(articleRepository.findAllArticleTagIds()).thenReturn(List.of(
+                new ArticleTagId(1L, 1L), new ArticleTagId(1L, 2L),
+                new ArticleTagId(2L, 1L), new ArticleTagId(2L, 2L), new ArticleTagId(2L, 3L),
+                new ArticleTagId(3L, 1L),
+                new ArticleTagId(4L, 2L)));
+        tagNameIndex = mock(TagNameIndex.class);
+        index = new TagArticleIndex(articleRepository, tagRepository, tagNameIndex);
+        index.rebuild();
+    }
+
+    @Test
+    void testAllAndNone() {
+        TagQueryResult result = index.query(List.of("java", "SPRING"), List.of(), List.of("draft"), 0, 10);
+        assertEquals(1, result.total());
+        assertEquals(List.of(1L), result.articleIds());
+    }
+
+    @Test
+    void testAnyIsSortedNewestFirstAndPaginated() {
+        TagQueryResult result = index.query(List.of(), List.of("java", "spring"), List.of(), 1, 2);
+        assertEquals(4, result.total());
+        assertEquals(List.of(3L, 2L), result.articleIds());
+    }
+
+    @Test
+    void testNoneOnlyExcludesFromAllArticles() {
+        TagQueryResult result = index.query(List.of(), List.of(), List.of("java"), 0, 10);
+        assertEquals(List.of(4L), result.articleIds());
+    }
+
+    @Test
+    void testUnknownTagInAllGivesEmptyResult() {
+        assertEquals(0, index.query(List.of("java", "rust"), List.of(), List.of(), 0, 10).total());
+    }
+
+    @Test
+    void testUpdatesAreApplied() {
+        index.indexArticle(5L, List.of(3L));
+        index.indexArticle(1L, List.of(3L));
+        index.removeArticle(2L);
+        index.indexTag(3L, "published");
+
+        assertEquals(List.of(5L, 1L),
+                index.query(List.of("published"), List.of(), List.of(), 0, 10).articleIds());
+        assertEquals(0, index.query(List.of("draft"), List.of(), List.of(), 0, 10).total());
+        assertEquals(List.of(3L),
+                index.query(List.of("java"), List.of(), List.of(), 0, 10).articleIds());
+
+        index.removeTag(1L);
+        assertEquals(0, index.query(List.of("java"), List.of(), List.of(), 0, 10).total());
+    }
+
+    @Test
+    void testArticleCountsArePublishedToNameIndex() {
+        verify(tagNameIndex).replacePopularity(Map.of(1L, 3, 2L, 3, 3L, 1));
+
+        index.indexArticle(3L, List.of(2L));
+        verify(tagNameIndex).updatePopularity(1L, 2);
+        verify(tagNameIndex).updatePopularity(2L, 4);
+
+        index.removeArticle(2L);
+        verify(tagNameIndex).updatePopularity(1L, 1);
+        verify(tagNameIndex).updatePopularity(2L, 3);
+        verify(tagNameIndex).updatePopularity(3L, 0);
+    }
+
+    @Test
+    void testArticleIdSetMatchesReferenceAcrossRepresentations() {
+        ArticleIdSet set = new ArticleIdSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+        boolean wasBitmap = false;
+        boolean wasArrayAgain = false;
+        for (int step = 0; step < 20_000; step++) {
+            // Сначала плотное заполнение, потом в основном удаления.
+            int id = random.nextInt(2_000);
+            boolean add = step < 10_000 ? random.nextInt(10) < 8 : random.nextInt(100) < 1;
+            if (add) {
+                assertEquals(expected.add(id), set.add(id));
+            } else {
+                assertEquals(expected.remove(id), set.remove(id));
+            }
+            wasBitmap |= set.isBitmap();
+            wasArrayAgain |= wasBitmap && !set.isBitmap();
+            assertEquals(expected.size(), set.size());
+        }
+        assertTrue(wasBitmap);
+        assertTrue(wasArrayAgain);
+
+        BitSet union = new BitSet();
+        set.orInto(union);
+        assertEquals(expected.size(), union.cardinality());
+        List<Integer> iterated = new ArrayList<>();
+        set.forEach(iterated::add);
+        assertEquals(new ArrayList<>(expected), iterated);
+        for (int id = 0; id < 2_000; id++) {
+            assertEquals(expected.contains(id), set.contains(id));
+        }
+    }
+
+    @Test
+    void testSparseTagStaysArrayAtHighIds() {
+        ArticleIdSet set = new ArticleIdSet();
+        // Статьи редкого тега среди миллиона: битовая карта заняла бы ~125 КБ.
+        for (int id = 1_000; id < 1_000_000; id += 10_000) {
+            set.add(id);
+        }
+        assertEquals(100, set.size());
+        assertFalse(set.isBitmap());
+
+        ArticleIdSet dense = new ArticleIdSet();
+        for (int id = 1_000_000; id < 1_001_000; id++) {
+            dense.add(id);
+        }
+        assertFalse(dense.isBitmap(), "1000 ids near 1M are cheaper as an array");
+        for (int id = 0; id < 1_000_000; id += 16) {
+            dense.add(id);
+        }
+        assertTrue(dense.isBitmap());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.entities.Tag;
+import com.example.simpleblogapi.index.TagNameIndex;
+import com.example.simpleblogapi.repositories.TagRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TagNameIndexTest {
+
+    private TagNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        TagRepository tagRepository = mock(TagRepository.class);
+        when(tagRepository.findAll()).thenReturn(List.of(
+                new Tag(1L, "Java", null), new Tag(2L, "JavaScript", null),
+                new Tag(3L, "java-streams", null), new Tag(4L, "Spring", null),
+                new Tag(5L, "Kotlin", null)));
+        index = new TagNameIndex(tagRepository);
+        index.rebuild();
+        index.replacePopularity(Map.of(1L, 10, 2L, 30, 3L, 5, 4L, 20));
+    }
+
+    @Test
+    void testAutocompleteRanksByPopularity() {
+        assertEquals(List.of("JavaScript", "Java", "java-streams"), names(index.autocomplete("JAV", 10)));
+        assertEquals(List.of("JavaScript", "Java"), names(index.autocomplete("java", 2)));
+        assertTrue(index.autocomplete("rust", 10).isEmpty());
+    }
+
+    @Test
+    void testEmptyPrefixReturnsMostPopular() {
+        assertEquals(List.of("JavaScript", "Spring"), names(index.autocomplete("", 2)));
+    }
+
+    @Test
+    void testSearchBySubstring() {
+        assertEquals(List.of("JavaScript", "Java", "java-streams"), names(index.search("ava", 10)));
+        assertEquals(List.of("java-streams"), names(index.search("stream", 10)));
+        assertEquals(List.of("Spring", "Kotlin"), names(index.search("in", 10)));
+        assertTrue(index.search("avaj", 10).isEmpty());
+    }
+
+    @Test
+    void testUpdatesAreApplied() {
+        index.put(6L, "Javelin");
+        index.put(4L, "spring-boot");
+        index.remove(2L);
+
+        assertEquals(List.of("Java", "java-streams", "Javelin"), names(index.autocomplete("jav", 10)));
+        assertEquals(List.of("spring-boot"), names(index.search("boot", 10)));
+        assertTrue(index.autocomplete("javas", 10).isEmpty());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void testPopularityChangesReorderResults() {
+        index.updatePopularity(3L, 50);
+        assertEquals(List.of("java-streams", "JavaScript"), names(index.autocomplete("java", 2)));
+
+        index.replacePopularity(Map.of(1L, 1));
+        assertEquals(List.of("Java", "JavaScript", "java-streams"), names(index.autocomplete("java", 10)));
+    }
+
+    @Test
+    void testLargeCandidateSetsAreWalkedInPopularityOrder() {
+        for (long id = 100; id < 3100; id++) {
+            index.put(id, "bulk-" + id);
+        }
+        index.updatePopularity(2500L, 7);
+        index.updatePopularity(1500L, 9);
+
+        assertEquals(List.of("bulk-1500", "bulk-2500", "bulk-100"), names(index.autocomplete("bulk", 3)));
+        assertEquals(List.of("bulk-1500", "bulk-2500", "bulk-100"), names(index.search("ulk", 3)));
+        assertEquals(List.of("JavaScript", "Spring"), names(index.search("", 2)));
+    }
+
+    @Test
+    void testManyTagsStaySorted() {
+        for (long id = 100; id < 1100; id++) {
+            index.put(id, "tag-" + (1100 - id));
+        }
+        for (long id = 100; id < 600; id++) {
+            index.remove(id);
+        }
+        List<Tag> tags = index.autocomplete("tag-", 100);
+        assertEquals(100, tags.size());
+        assertTrue(tags.stream().allMatch(tag -> tag.getId() >= 600));
+        assertEquals(List.of("tag-1", "tag-10", "tag-11"), names(index.autocomplete("tag-1", 3)));
+    }
+
+    private static List<String> names(List<Tag> tags) {
+        List<String> names = new ArrayList<>();
+        for (Tag tag : tags) {
+            names.add(tag.getName());
+        }
+        return names;
+    }
+}
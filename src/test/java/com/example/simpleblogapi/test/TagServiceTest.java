@@ -3,22 +3,38 @@ package com.example.simpleblogapi.test;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import com.example.simpleblogapi.dto.TagCaseMergeReport;
 import com.example.simpleblogapi.service.TagService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import com.example.simpleblogapi.entities.Tag;
 import com.example.simpleblogapi.repositories.TagRepository;
 import com.example.simpleblogapi.cache.TagCache;
+import com.example.simpleblogapi.cache.TagNameCache;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
+import com.example.simpleblogapi.exceptions.ResourceConflictException;
+import com.example.simpleblogapi.index.TagArticleIndex;
+import com.example.simpleblogapi.index.TagNameIndex;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 class TagServiceTest {
 
@@ -28,6 +44,15 @@ class TagServiceTest {
     @Mock
     private TagCache tagCache;
 
+    @Spy
+    private TagNameCache tagNameCache = new TagNameCache(100);
+
+    @Mock
+    private TagArticleIndex tagArticleIndex;
+
+    @Mock
+    private TagNameIndex tagNameIndex;
+
     @InjectMocks
     private TagService tagService;
 
@@ -48,8 +73,7 @@ class TagServiceTest {
     void testGetTagById_FromCache() {
         Long id = 1L;
         Tag tag = new Tag();
-        when(tagCache.contains(id)).thenReturn(true);
-        when(tagCache.getTag(id)).thenReturn(tag);
+        when(tagCache.getOrLoad(eq(id), any())).thenReturn(tag);
         Tag result = tagService.getTagById(id);
         assertEquals(tag, result);
         verify(tagRepository, never()).findById(id);
@@ -59,24 +83,31 @@ class TagServiceTest {
     void testGetTagById_FromRepository() {
         Long id = 1L;
         Tag tag = new Tag();
-        when(tagCache.contains(id)).thenReturn(false);
+        loadThroughCache(id);
         when(tagRepository.findById(id)).thenReturn(Optional.of(tag));
         Tag result = tagService.getTagById(id);
         assertEquals(tag, result);
-        verify(tagCache).putTag(id, tag);
+        verify(tagRepository).findById(id);
     }
 
     @Test
     void testGetTagById_NotFound() {
         Long id = 1L;
-        when(tagCache.contains(id)).thenReturn(false);
+        loadThroughCache(id);
         when(tagRepository.findById(id)).thenReturn(Optional.empty());
         assertThrows(RuntimeException.class, () -> tagService.getTagById(id));
     }
 
+    private void loadThroughCache(Long id) {
+        when(tagCache.getOrLoad(eq(id), any())).thenAnswer(invocation -> {
+            Function<Long, Tag> loader = invocation.getArgument(1);
+            return loader.apply(id);
+        });
+    }
+
     @Test
     void testCreateTag() {
-        Tag tag = new Tag();
+        Tag tag = new Tag(1L, "tech", null);
         when(tagRepository.save(tag)).thenReturn(tag);
         Tag result = tagService.createTag(tag);
         assertEquals(tag, result);
@@ -91,25 +122,66 @@ class TagServiceTest {
     }
 
     @Test
-    void testGetOrCreateTag_Existing() {
-        String name = "tech";
-        Tag tag = new Tag();
-        when(tagRepository.findByName(name)).thenReturn(Optional.of(tag));
-        Tag result = tagService.getOrCreateTag(name);
-        assertEquals(tag, result);
+    void testGetOrCreateTag_CachedByNormalizedName() {
+        Tag tag = new Tag(1L, "tech", null);
+        when(tagRepository.upsertByNames(any())).thenReturn(List.of(tag));
+
+        assertEquals(tag, tagService.getOrCreateTag("tech"));
+        assertEquals(tag, tagService.getOrCreateTag(" Tech "));
+
+        verify(tagRepository, times(1)).upsertByNames(List.of("tech"));
         verify(tagRepository, never()).save(any(Tag.class));
+        verify(tagArticleIndex).indexTag(1L, "tech");
     }
 
     @Test
-    void testGetOrCreateTag_New() {
-        String name = "tech";
-        when(tagRepository.findByName(name)).thenReturn(Optional.empty());
-        Tag savedTag = new Tag(1L, name, null);
-        when(tagRepository.save(any(Tag.class))).thenReturn(savedTag);
-        Tag result = tagService.getOrCreateTag(name);
-        assertEquals(name, result.getName());
-        assertEquals(1L, result.getId());
-        verify(tagRepository).save(argThat(t -> t.getName().equals(name) && t.getId() == null));
+    void testGetOrCreateTags_LoadsOnlyMissingNamesInOneBatch() {
+        tagNameCache.put(new Tag(1L, "java", null));
+        when(tagRepository.upsertByNames(any())).thenReturn(
+                List.of(new Tag(2L, "spring", null), new Tag(3L, "jpa", null)));
+
+        Map<String, Tag> result = tagService.getOrCreateTags(List.of("Java", "spring", "jpa"));
+
+        assertEquals(Set.of("java", "spring", "jpa"), result.keySet());
+        verify(tagRepository).upsertByNames(argThat(names -> names.size() == 2
+                && names.containsAll(List.of("spring", "jpa"))));
+    }
+
+    @Test
+    void testGetOrCreateTag_ConcurrentMissesShareOneUpsert() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Tag tag = new Tag(1L, "tech", null);
+        when(tagRepository.upsertByNames(any())).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return List.of(tag);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Tag> first = executor.submit(() -> tagService.getOrCreateTag("tech"));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<Tag> second = executor.submit(() -> tagService.getOrCreateTag("TECH"));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals(tag, first.get(5, TimeUnit.SECONDS));
+        assertEquals(tag, second.get(5, TimeUnit.SECONDS));
+        verify(tagRepository, times(1)).upsertByNames(any());
+        executor.shutdown();
+    }
+
+    @Test
+    void testGetTagsByIds_LoadsOnlyCacheMisses() {
+        Tag cached = new Tag(1L, "java", null);
+        Tag loaded = new Tag(2L, "spring", null);
+        when(tagCache.getTag(1L)).thenReturn(cached);
+        when(tagRepository.findAllById(List.of(2L))).thenReturn(List.of(loaded));
+
+        Map<Long, Tag> result = tagService.getTagsByIds(List.of(1L, 2L));
+
+        assertEquals(Map.of(1L, cached, 2L, loaded), result);
+        verify(tagCache).putTag(2L, loaded);
     }
 
     @Test
@@ -137,8 +209,86 @@ class TagServiceTest {
     void testSearchTagsByName() {
         String name = "tech";
         List<Tag> tags = Arrays.asList(new Tag(), new Tag());
-        when(tagRepository.searchTagsByName(name)).thenReturn(tags);
-        List<Tag> result = tagService.searchTagsByName(name);
+        when(tagNameIndex.search(name, 50)).thenReturn(tags);
+        List<Tag> result = tagService.searchTagsByName(name, 50);
         assertEquals(2, result.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAutocompleteTags_InvalidLimit() {
+        assertThrows(InvalidInputException.class, () -> tagService.autocompleteTags("te", 0));
+        assertThrows(InvalidInputException.class, () -> tagService.autocompleteTags("te", 101));
+        verifyNoInteractions(tagNameIndex);
+    }
+
+    @Test
+    void testUpdateAndDeleteKeepNameIndexInSync() {
+        Tag existingTag = new Tag(1L, "old", null);
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(existingTag));
+        when(tagRepository.save(existingTag)).thenReturn(existingTag);
+
+        tagService.updateTag(1L, new Tag(null, "new", null));
+        tagService.deleteTag(1L);
+
+        verify(tagNameIndex).put(1L, "new");
+        verify(tagNameIndex).remove(1L);
+    }
+
+    @Test
+    void testMergeCaseDuplicates_DryRunChangesNothing() {
+        TagCaseMergeReport.Merge merge = new TagCaseMergeReport.Merge(1L, "Java", List.of(2L), List.of("java"));
+        when(tagRepository.hasLowerNameUniqueIndex()).thenReturn(false);
+        when(tagRepository.findCaseDuplicates()).thenReturn(List.of(merge));
+
+        TagCaseMergeReport report = tagService.mergeCaseDuplicates(true);
+
+        assertTrue(report.dryRun());
+        assertFalse(report.uniqueIndexPresent());
+        assertEquals(List.of(merge), report.merges());
+        verify(tagRepository, never()).mergeCaseDuplicates();
+        verifyNoInteractions(tagCache, tagArticleIndex, tagNameIndex);
+    }
+
+    @Test
+    void testMergeCaseDuplicates_EvictsMergedTagsAndRebuildsIndexes() {
+        when(tagRepository.upsertByNames(any())).thenReturn(List.of(new Tag(2L, "java", null)));
+        tagService.getOrCreateTag("java");
+        when(tagRepository.mergeCaseDuplicates()).thenReturn(List.of(
+                new TagCaseMergeReport.Merge(1L, "Java", List.of(2L), List.of("java"))));
+
+        TagCaseMergeReport report = tagService.mergeCaseDuplicates(false);
+
+        assertFalse(report.dryRun());
+        assertTrue(report.uniqueIndexPresent());
+        verify(tagCache).removeTag(2L);
+        verify(tagArticleIndex).rebuild();
+        verify(tagNameIndex).rebuild();
+        when(tagRepository.upsertByNames(any())).thenReturn(List.of(new Tag(1L, "Java", null)));
+        assertEquals(1L, tagService.getOrCreateTag("java").getId());
+    }
+
+    @Test
+    void testCreateTag_NameTakenInOtherCaseIsConflict() {
+        when(tagRepository.findByNameIgnoreCase("Java")).thenReturn(Optional.of(new Tag(1L, "java", null)));
+
+        ResourceConflictException ex = assertThrows(ResourceConflictException.class,
+                () -> tagService.createTag(new Tag(null, "Java", null)));
+        assertTrue(ex.getMessage().contains("java"));
+        verify(tagRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateTag_RenameToOtherTagsNameIsConflictButOwnCaseChangeIsAllowed() {
+        Tag existingTag = new Tag(2L, "kotlin", null);
+        when(tagRepository.findById(2L)).thenReturn(Optional.of(existingTag));
+        when(tagRepository.save(existingTag)).thenReturn(existingTag);
+        when(tagRepository.findByNameIgnoreCase("JAVA")).thenReturn(Optional.of(new Tag(1L, "java", null)));
+        when(tagRepository.findByNameIgnoreCase("Kotlin")).thenReturn(Optional.of(existingTag));
+
+        assertThrows(ResourceConflictException.class,
+                () -> tagService.updateTag(2L, new Tag(null, "JAVA", null)));
+        assertEquals("kotlin", existingTag.getName());
+
+        assertEquals("Kotlin", tagService.updateTag(2L, new Tag(null, "Kotlin", null)).getName());
+    }
+}
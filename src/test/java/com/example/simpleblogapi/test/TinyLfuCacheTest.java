@@ -0,0 +1,147 @@
+package com.example.simpleblogapi.test;
+
+import com.example.simpleblogapi.cache.TinyLfuCache;
+import com.example.simpleblogapi.dto.CacheStats;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void testGet_LoadsOnceAndCountsHits() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(10, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get(1L, key -> {
+            loads.incrementAndGet();
+            return "v" + key;
+        }));
+        assertEquals("v1", cache.get(1L, key -> "other"));
+        assertEquals("v1", cache.getIfPresent(1L));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, loads.get());
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+    }
+
+    @Test
+    void testGet_LoaderFailureIsNotCached() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(10, 0);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, key -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertNull(cache.getIfPresent(1L));
+        assertEquals(1, cache.stats().loadFailureCount());
+    }
+
+    @Test
+    void testSizeIsBoundedAndFrequentKeysSurvive() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100, 0);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+        }
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.getIfPresent(i);
+            }
+        }
+        // Поток разовых ключей не должен вытеснить часто читаемые.
+        for (int i = 1000; i < 11_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.estimatedSize() <= 100);
+        int survived = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.getIfPresent(i) != null) {
+                survived++;
+            }
+        }
+        assertTrue(survived >= 45, "hot keys survived: " + survived);
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    @Test
+    void testWeigherLimitsTotalWeight() {
+        TinyLfuCache<Integer, List<Integer>> cache =
+                new TinyLfuCache<>(10, 0, List::size, System::nanoTime);
+        cache.put(1, List.of(1, 2, 3, 4));
+        cache.put(2, List.of(1, 2, 3, 4));
+        cache.put(3, List.of(1, 2, 3, 4));
+        cache.put(4, List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11));
+
+        assertTrue(cache.stats().weightedSize() <= 10);
+        assertNull(cache.getIfPresent(4));
+    }
+
+    @Test
+    void testExpireAfterWrite() {
+        AtomicLong now = new AtomicLong();
+        TinyLfuCache<Long, String> cache =
+                new TinyLfuCache<>(10, TimeUnit.SECONDS.toNanos(1), value -> 1, now::get);
+        cache.put(1L, "old");
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertEquals("old", cache.getIfPresent(1L));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertNull(cache.getIfPresent(1L));
+        assertEquals("new", cache.get(1L, key -> "new"));
+    }
+
+    @Test
+    void testInvalidate() {
+        TinyLfuCache<Long, String> cache = new TinyLfuCache<>(10, 0);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+
+        cache.invalidate(1L);
+        assertNull(cache.getIfPresent(1L));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.estimatedSize());
+        assertEquals(0, cache.stats().weightedSize());
+    }
+
+    @Test
+    void testConcurrentGetLoadsEachKeyOnce() throws Exception {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(1000, 0);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    int key = i % 200;
+                    assertEquals(key * 2, cache.get(key, k -> {
+                        loads.incrementAndGet();
+                        return k * 2;
+                    }));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(200, loads.get());
+        assertEquals(200, cache.estimatedSize());
+    }
+}
@@ -1,80 +1,103 @@
 package com.example.simpleblogapi.test;
 
-import com.example.simpleblogapi.entities.VisitCount;
+import com.example.simpleblogapi.counter.VisitCounterEngine;
+import com.example.simpleblogapi.exceptions.InvalidInputException;
 import com.example.simpleblogapi.repositories.VisitCountRepository;
 import com.example.simpleblogapi.service.VisitCounterService;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.*;
 
 public class VisitCounterServiceTest {
 
     private VisitCountRepository visitCountRepository;
+    private VisitCounterEngine visitCounterEngine;
     private VisitCounterService visitCounterService;
 
     @BeforeEach
     void setUp() {
         visitCountRepository = mock(VisitCountRepository.class);
-        visitCounterService = new VisitCounterService(visitCountRepository);
+        visitCounterEngine = new VisitCounterEngine(visitCountRepository, 500, 3);
+        visitCounterService = new VisitCounterService(visitCounterEngine);
     }
 
     @Test
     void testIncrementVisit_ExistingUrl() {
         String url = "https://example.com";
-
-        when(visitCountRepository.updateVisitCount(url)).thenReturn(1);
         when(visitCountRepository.findCountByUrl(url)).thenReturn(5L);
 
-        long result = visitCounterService.incrementVisit(url);
+        assertEquals(6L, visitCounterService.incrementVisit(url));
+        assertEquals(7L, visitCounterService.incrementVisit(url));
 
-        assertEquals(5L, result);
-        verify(visitCountRepository).updateVisitCount(url);
-        verify(visitCountRepository).findCountByUrl(url);
+        verify(visitCountRepository, times(1)).findCountByUrl(url);
+        verify(visitCountRepository, never()).addVisitCounts(anyMap());
     }
 
     @Test
     void testIncrementVisit_NewUrl() {
         String url = "https://new-url.com";
+        when(visitCountRepository.findCountByUrl(url)).thenReturn(null);
 
-        when(visitCountRepository.updateVisitCount(url)).thenReturn(0);
+        assertEquals(1L, visitCounterService.incrementVisit(url));
+    }
 
-        long result = visitCounterService.incrementVisit(url);
+    @Test
+    void testFlush_WritesAggregatedDeltaOnce() {
+        String url = "https://example.com";
+        when(visitCountRepository.findCountByUrl(url)).thenReturn(5L);
+        when(visitCountRepository.addVisitCounts(Map.of(url, 3L))).thenReturn(Map.of(url, 8L));
 
-        assertEquals(1L, result);
+        visitCounterService.incrementVisit(url);
+        visitCounterService.incrementVisit(url);
+        visitCounterService.incrementVisit(url);
 
-        ArgumentCaptor<VisitCount> captor = ArgumentCaptor.forClass(VisitCount.class);
-        verify(visitCountRepository).saveAndFlush(captor.capture());
+        assertEquals(1, visitCounterEngine.flush());
+        assertEquals(0L, visitCounterEngine.getPendingDelta(url));
+        assertEquals(9L, visitCounterService.incrementVisit(url));
 
-        VisitCount saved = captor.getValue();
-        assertEquals(url, saved.getUrl());
-        assertEquals(1L, saved.getCount());
+        assertEquals(1, visitCounterEngine.flush());
+        verify(visitCountRepository).addVisitCounts(Map.of(url, 1L));
     }
 
     @Test
-    void testIncrementVisit_ThrowsWhenCountMissingAfterUpdate() {
+    void testFlush_FailureKeepsPendingDelta() {
         String url = "https://example.com";
+        when(visitCountRepository.addVisitCounts(anyMap())).thenThrow(new RuntimeException("db down"));
 
-        when(visitCountRepository.updateVisitCount(url)).thenReturn(1);
-        when(visitCountRepository.findCountByUrl(url)).thenReturn(null);
+        visitCounterService.incrementVisit(url);
+        visitCounterEngine.scheduledFlush();
 
-        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
-            visitCounterService.incrementVisit(url);
-        });
+        assertEquals(1L, visitCounterEngine.getPendingDelta(url));
+    }
 
-        assertEquals("Счетчик не найден после успешного обновления для URL.", exception.getMessage());
+    @Test
+    void testIncrementVisit_ConcurrentHitsAreNotLost() throws Exception {
+        String url = "https://hot.com";
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            executor.execute(() -> visitCounterService.incrementVisit(url));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10_000L, visitCounterEngine.getPendingDelta(url));
     }
 
     @Test
-    void testGetVisitCount_WhenExists() {
+    void testGetVisitCount_IncludesPendingDelta() {
         String url = "https://exists.com";
         when(visitCountRepository.findCountByUrl(url)).thenReturn(10L);
 
-        long count = visitCounterService.getVisitCount(url);
+        visitCounterService.incrementVisit(url);
 
-        assertEquals(10L, count);
+        assertEquals(11L, visitCounterService.getVisitCount(url));
     }
 
     @Test
@@ -86,4 +109,51 @@ public class VisitCounterServiceTest {
 
         assertEquals(0L, count);
     }
+
+    @Test
+    void testIdleUrlIsEvictedAndTrackedAgainOnNextVisit() {
+        String url = "https://idle.com";
+        when(visitCountRepository.addVisitCounts(anyMap()))
+                .thenAnswer(invocation -> Map.of());
+
+        visitCounterService.incrementVisit(url);
+        visitCounterEngine.flush();
+        visitCounterEngine.flush();
+        assertEquals(1, visitCounterEngine.trackedUrlCount());
+        visitCounterEngine.flush();
+        assertEquals(0, visitCounterEngine.trackedUrlCount());
+        verify(visitCountRepository).addVisitCounts(Map.of(url, 1L));
+
+        visitCounterService.incrementVisit(url);
+        visitCounterEngine.flush();
+        verify(visitCountRepository, times(2)).addVisitCounts(Map.of(url, 1L));
+        assertEquals(0L, visitCounterEngine.getPendingDelta(url));
+    }
+
+    @Test
+    void testNewUrlsBeyondLimitAreWrittenThrough() {
+        when(visitCountRepository.addVisitCounts(Map.of("https://d.com", 1L)))
+                .thenReturn(Map.of("https://d.com", 4L));
+        for (String url : new String[] {"https://a.com", "https://b.com", "https://c.com"}) {
+            visitCounterService.incrementVisit(url);
+        }
+
+        assertEquals(4L, visitCounterService.incrementVisit("https://d.com"));
+        assertEquals(3, visitCounterEngine.trackedUrlCount());
+        assertEquals(0L, visitCounterEngine.getPendingDelta("https://d.com"));
+    }
+
+    @Test
+    void testUrlIsNormalizedAndInvalidUrlRejected() {
+        visitCounterService.incrementVisit("HTTPS://Example.COM:443/a/./b/../c#top");
+        visitCounterService.incrementVisit("https://example.com/a/c");
+        visitCounterService.incrementVisit("/articles/1");
+
+        assertEquals(2L, visitCounterEngine.getPendingDelta("https://example.com/a/c"));
+        assertEquals(1L, visitCounterEngine.getPendingDelta("/articles/1"));
+        assertThrows(InvalidInputException.class, () -> visitCounterService.incrementVisit("ftp://x.com"));
+        assertThrows(InvalidInputException.class, () -> visitCounterService.incrementVisit("a b"));
+        assertThrows(InvalidInputException.class,
+                () -> visitCounterService.incrementVisit("https://x.com/" + "a".repeat(2048)));
+    }
 }